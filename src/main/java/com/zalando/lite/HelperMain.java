@@ -67,8 +67,9 @@ public class HelperMain {
         }
 
         Customer customer = new Customer(name, email, isVip);
-        customerManager.registerCustomer(customer);
-        System.out.println("Customer added.");
+        if (customerManager.registerCustomer(customer)) {
+            System.out.println("Customer added.");
+        }
     }
 
     // ------- Case 2 : Add Product -------
@@ -1,5 +1,7 @@
 package com.zalando.lite.courier;
 
+import com.zalando.lite.util.IdAllocator;
+
 /**
  * Represents a courier who delivers customer orders.
  * <p>
@@ -28,8 +30,6 @@ public class Courier {
     // True if courier is available for assignment
     private boolean available;
 
-    private int nextId = 1;
-
     /**
      * Constructor to initialize a Courier.
      * Typically used when creating a list of couriers at app startup.
@@ -38,7 +38,7 @@ public class Courier {
         this.name = name;
         this.vehicleType = vehicleType;
         this.available = available;
-        this.id = nextId++;
+        this.id = IdAllocator.COURIERS.nextId();
     }
 
 
@@ -47,9 +47,10 @@ public class Courier {
         return id;
     }
 
-    // Sets the courier ID
+    // Sets the courier ID; generated IDs never collide with it
     public void setId(int id) {
         this.id = id;
+        IdAllocator.COURIERS.advancePast(id);
     }
 
     // Returns the name of the courier
@@ -1,6 +1,7 @@
 package com.zalando.lite.customer;
 
 import com.zalando.lite.annotations.VIP;
+import com.zalando.lite.util.IdAllocator;
 
 import java.util.ArrayList;
 import java.util.Collections;
@@ -39,8 +40,6 @@ public class Customer {
     // A list of the customer's favorite product categories (e.g., "Shoes", "Accessories")
     private List<String> favoriteCategories;
 
-    private static int nextId = 1;
-
 
 
     /**
@@ -50,6 +49,7 @@ public class Customer {
 
     public Customer(int id, String name, String email, boolean isVip, List<String> favoriteCategories) {
         this.id = id;
+        IdAllocator.CUSTOMERS.advancePast(id); // generated IDs never collide with this one
         this.name = name;
         this.email = email;
         this.isVip = isVip;
@@ -60,7 +60,7 @@ public class Customer {
     }
 
     public Customer(String name, String email, boolean isVip) {
-        this.id = nextId++;
+        this.id = IdAllocator.CUSTOMERS.nextId();
         this.name = name;
         this.email = email;
         this.isVip = isVip;
@@ -73,9 +73,10 @@ public class Customer {
         return id;
     }
 
-    // Sets the customer's ID
+    // Sets the customer's ID; generated IDs never collide with it
     public void setId(int id) {
         this.id = id;
+        IdAllocator.CUSTOMERS.advancePast(id);
     }
 
     // Returns the name of the customer
@@ -110,7 +111,7 @@ public class Customer {
 
     // Returns the list of favorite categories
     public List<String> getFavoriteCategories() {
-        return Collections.unmodifiableList(favoriteCategories);
+        return favoriteCategories == null ? Collections.emptyList() : Collections.unmodifiableList(favoriteCategories);
     }
 
     // Sets the list of favorite categories
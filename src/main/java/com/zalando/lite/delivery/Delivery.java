@@ -4,6 +4,7 @@ import com.zalando.lite.courier.Courier;
 import com.zalando.lite.order.Order;
 
 import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Represents a delivery that connects an {@link Order} with a {@link Courier}.
@@ -15,6 +16,10 @@ import java.time.LocalDateTime;
  * - Object composition (Order and Courier together)
  * - Timestamping with LocalDateTime
  * - State modeling
+ * <p>
+ * Every change to a delivery is stamped with a global, ever-increasing change sequence.
+ * This lets {@link DeliveryService} keep a change journal so reports can export only
+ * the deliveries created or changed since the last export.
  */
 public class Delivery {
 
@@ -30,6 +35,15 @@ public class Delivery {
     // The date and time the delivery was created
     private LocalDateTime timestamp;
 
+    // Global counter used to stamp every created or changed delivery
+    private static final AtomicLong CHANGE_SEQUENCE = new AtomicLong();
+
+    // Sequence number of the most recent change to this delivery
+    private long changeSequence;
+
+    // Service journaling this delivery's changes (null if not tracked)
+    private DeliveryService journal;
+
     /**
      * Constructs a Delivery with an associated order and courier.
      * Automatically sets the timestamp and default status ("Pending").
@@ -39,12 +53,15 @@ public class Delivery {
         this.status = "Pending";
         this.timestamp = LocalDateTime.now();
         this.order = order;
+        this.changeSequence = CHANGE_SEQUENCE.incrementAndGet();
     }
 
     public Delivery(Order order, Courier courier) {
         this.order = order;
         this.courier = courier;
         this.status = "Pending";
+        this.timestamp = LocalDateTime.now();
+        this.changeSequence = CHANGE_SEQUENCE.incrementAndGet();
     }
 
     // Returns the order associated with the delivery
@@ -55,6 +72,7 @@ public class Delivery {
     // Sets the order associated with the delivery
     public void setOrder(Order order) {
         this.order = order;
+        touch();
     }
 
     // Returns the courier assigned to this delivery
@@ -65,6 +83,7 @@ public class Delivery {
     // Sets the courier assigned to this delivery
     public void setCourier(Courier courier) {
         this.courier = courier;
+        touch();
     }
 
     // Returns the current status of the delivery
@@ -75,11 +94,39 @@ public class Delivery {
     // Updates the status (should reflect progress or failure)
     public void setStatus(String status) {
         this.status = status;
+        touch();
     }
 
     // Returns the timestamp when the delivery was created
     public LocalDateTime getTimestamp() {
-        return LocalDateTime.now();
+        return timestamp;
+    }
+
+    // Returns the sequence number of the latest change (higher = more recent)
+    public synchronized long getChangeSequence() {
+        return changeSequence;
+    }
+
+    /**
+     * Links this delivery to the service that journals its changes.
+     * Called by {@link DeliveryService} when it starts tracking the delivery.
+     * Tracking counts as a change: the delivery may have been built before the
+     * last delta export, and its old sequence would be below the export mark.
+     */
+    synchronized void attachJournal(DeliveryService journal) {
+        this.journal = journal;
+        touch();
+    }
+
+    /**
+     * Stamps the delivery with a new change sequence and updates the journal, if any.
+     */
+    private synchronized void touch() {
+        long previous = changeSequence;
+        changeSequence = CHANGE_SEQUENCE.incrementAndGet();
+        if (journal != null) {
+            journal.recordChange(this, previous, changeSequence);
+        }
     }
 
     /**
@@ -4,6 +4,7 @@ import com.zalando.lite.courier.Courier;
 import com.zalando.lite.order.Order;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentSkipListMap;
 
 /**
  * Handles the assignment of couriers to orders and manages delivery statuses.
@@ -26,8 +27,12 @@ public class DeliveryService {
     // List of all couriers available to the system
     private List<Courier> couriers;
 
+    // Change journal: latest change sequence → delivery (one entry per tracked delivery)
+    private final ConcurrentSkipListMap<Long, Delivery> changeLog;
+
     public DeliveryService() {
         this.couriers = new ArrayList<>();
+        this.changeLog = new ConcurrentSkipListMap<>();
     }
 
     // --------ADDED -ochwada --------------
@@ -50,13 +55,49 @@ public class DeliveryService {
             if (courier.isAvailable()) { // from Courier
                 courier.toggleAvailability(); // mark as busy - from Courier
                 order.setCourier(courier); // Assign courier to order - from Order
-                return new Delivery(order, courier); // instantiation of new Delivery object with order and courier.
+                Delivery delivery = new Delivery(order, courier); // instantiation of new Delivery object with order and courier.
+                trackDelivery(delivery);
+                return delivery;
             }
         }
         System.out.println("No couriers available for order: " + order.getOrderId());
         return null;
     }
 
+    /**
+     * Starts journaling a delivery so it shows up in delta reports.
+     * Deliveries created by {@link #assignCourier} are tracked automatically.
+     *
+     * @param delivery the delivery to track
+     */
+    public void trackDelivery(Delivery delivery) {
+        delivery.attachJournal(this);
+    }
+
+    /**
+     * Returns the journal entries after the given change sequence, oldest change first.
+     * <p>
+     * Each key is the change sequence under which its delivery was journaled when
+     * the entry was read. A delivery changed again later is journaled under a
+     * higher sequence, so a caller that continues after the highest key returned
+     * here never misses a change.
+     *
+     * @param sequence the last change sequence already seen (0 for everything)
+     * @return a copy of the journal tail (change sequence → delivery)
+     */
+    public NavigableMap<Long, Delivery> getChangesSince(long sequence) {
+        return new TreeMap<>(changeLog.tailMap(sequence, false));
+    }
+
+    /**
+     * Moves a delivery to its new position in the change journal.
+     * Called by {@link Delivery} whenever it is changed.
+     */
+    void recordChange(Delivery delivery, long previousSequence, long newSequence) {
+        changeLog.remove(previousSequence, delivery);
+        changeLog.put(newSequence, delivery);
+    }
+
     /**
      * Updates the status of an existing delivery.
      * <p>
@@ -78,6 +119,15 @@ public class DeliveryService {
         System.out.println("Updated delivery status from \"" + oldStatus + "\" to \"" + newStatus + "\"");
     }
 
+    /**
+     * Returns all couriers known to the service, busy or not.
+     *
+     * @return a read-only view of every registered courier
+     */
+    public List<Courier> getAllCouriers() {
+        return Collections.unmodifiableList(couriers);
+    }
+
     /**
      * Optional helper method to get all available couriers.
      * <p>
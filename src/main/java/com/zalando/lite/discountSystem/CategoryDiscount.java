@@ -4,8 +4,6 @@ package com.zalando.lite.discountSystem;
 import com.zalando.lite.customer.Customer;
 import com.zalando.lite.products.Product;
 
-import java.util.*;
-
 /**
  * *******************************************************
  * Package: com.zalando.lite.discountSystem
@@ -18,32 +16,57 @@ import java.util.*;
  */
 
 
+/**
+ * Discount per product category.
+ * <p>
+ * Rates come from the current {@link DiscountRules} snapshot of a {@link DiscountConfig}
+ * and are looked up by the product's interned category ID (see
+ * {@link com.zalando.lite.products.CategoryDictionary}), so a lookup is one
+ * volatile read plus an array access; no string is lower-cased or hashed per call.
+ */
 public class CategoryDiscount extends Discount {
 
-    private static final Map<String, Double> categoryDiscounted = Map.of(
-            "electronics", 0.5,
-            "shirt", 0.10,
-            "jackets", 0.45,
-            "shoes", 0.20
-    );
+    private final DiscountConfig config;
+
+    // Uses the shared discount rules
+    public CategoryDiscount() {
+        this(DiscountConfig.SHARED);
+    }
+
+    public CategoryDiscount(DiscountConfig config) {
+        this.config = config;
+    }
 
     @Override
     public double calculate(Customer customer, Product product) {
-        return categoryDiscounted.getOrDefault(product.getCategory().toLowerCase(), 0.0);
+        return calculate(customer, product, config.current());
+    }
+
+    @Override
+    public double calculate(Customer customer, Product product, DiscountRules rules) {
+        return rules.categoryRate(product.getCategoryId());
+    }
+
+    /**
+     * Checks if the product's category currently has a discount.
+     *
+     * @param product the product to check
+     * @return true if the category matches a discount rule
+     */
+    public boolean isDiscounted(Product product) {
+        return config.current().categoryRate(product.getCategoryId()) > 0.0;
     }
 
     // ---------- Moved from Discount Manager -----------
 
     /**
-     * Checks if the product qualifies for a category-based discount.
+     * Checks if the product qualifies for a category-based discount under the shared rules.
      *
      * @param product the product to check
      * @return true if the category matches discount rules
      */
     public static boolean isCategoryDiscounted(Product product) {
-        String category = product.getCategory().toLowerCase();
-
-        return categoryDiscounted.containsKey(category);
+        return DiscountConfig.SHARED.current().categoryRate(product.getCategoryId()) > 0.0;
     }
 
 }
@@ -19,4 +19,20 @@ import com.zalando.lite.products.Product;
 public abstract class Discount {
 
     public abstract double calculate(Customer customer, Product product);
+
+    /**
+     * Calculates the discount rate under a given rule snapshot.
+     * <p>
+     * Lets a caller evaluate several discounts against the same snapshot, even if
+     * the rules are swapped in the meantime. Discounts without configurable rates
+     * ignore the snapshot.
+     *
+     * @param customer the customer making the purchase
+     * @param product  the product being purchased
+     * @param rules    the rules to use
+     * @return the discount rate (e.g., 0.2 for 20% off)
+     */
+    public double calculate(Customer customer, Product product, DiscountRules rules) {
+        return calculate(customer, product);
+    }
 }
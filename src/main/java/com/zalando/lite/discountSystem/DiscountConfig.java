@@ -0,0 +1,111 @@
+package com.zalando.lite.discountSystem;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
+
+/**
+ * Holds the discount rules currently in effect and swaps them at runtime.
+ * <p>
+ * The current {@link DiscountRules} snapshot sits in an {@link AtomicReference}.
+ * Pricing threads read it with a single volatile read and never lock. Changing the
+ * rules (e.g. marketing edits the config file mid-sale and triggers {@link #reload()})
+ * builds a complete new snapshot first and then publishes it in one step, so a
+ * reader sees either the old or the new rules, never a mix.
+ * <p>
+ * A config file that cannot be read or contains invalid rates is rejected and
+ * the current rules stay in effect. Loading a file keeps the running flash sales
+ * (see {@link FlashSaleScheduler}).
+ * <p>
+ * Concepts reinforced:
+ * - Copy-on-write publication
+ * - Atomic references
+ */
+public class DiscountConfig {
+
+    // Rules used by discounts created without an explicit config
+    public static final DiscountConfig SHARED = new DiscountConfig(DiscountRules.defaults());
+
+    private final AtomicReference<DiscountRules> current;
+
+    // File the rules were last loaded from (null if never loaded from a file)
+    private volatile Path source;
+
+    /**
+     * Creates a config with initial rules.
+     *
+     * @param initial the rules in effect until others are published
+     */
+    public DiscountConfig(DiscountRules initial) {
+        this.current = new AtomicReference<>(initial);
+    }
+
+    // Returns the rules currently in effect
+    public DiscountRules current() {
+        return current.get();
+    }
+
+    /**
+     * Puts new rules into effect.
+     *
+     * @param rules the new rules
+     * @return the rules that were in effect before
+     */
+    public DiscountRules publish(DiscountRules rules) {
+        if (rules == null) {
+            throw new IllegalArgumentException("Rules must not be null");
+        }
+        return current.getAndSet(rules);
+    }
+
+    /**
+     * Atomically replaces the rules with a function of the current rules.
+     * The function may be called more than once if the rules change concurrently.
+     *
+     * @param change computes the new rules from the current ones
+     * @return the new rules
+     */
+    public DiscountRules update(UnaryOperator<DiscountRules> change) {
+        return current.updateAndGet(change);
+    }
+
+    /**
+     * Loads rules from a properties file and puts them into effect.
+     * The file is remembered for {@link #reload()}.
+     *
+     * @param file the properties file (see {@link DiscountRules#fromProperties})
+     * @return true if the new rules are in effect, false if the file was rejected
+     */
+    public boolean load(Path file) {
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+            DiscountRules loaded = DiscountRules.fromProperties(properties);
+            update(rules -> loaded.withFlashSales(rules.getFlashSales()));
+            source = file;
+            return true;
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println("Discount rules not loaded from " + file + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Loads the rules again from the file last passed to {@link #load}.
+     *
+     * @return true if the new rules are in effect, false if there is no file or it was rejected
+     */
+    public boolean reload() {
+        Path file = source;
+        if (file == null) {
+            System.err.println("No discount rules file to reload.");
+            return false;
+        }
+        return load(file);
+    }
+}
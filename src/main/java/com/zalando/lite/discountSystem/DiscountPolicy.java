@@ -0,0 +1,79 @@
+package com.zalando.lite.discountSystem;
+
+/**
+ * How the rates of several applicable discounts combine into one total rate.
+ * <p>
+ * Policies fold the rates one at a time, in the priority order of the discounts,
+ * starting from 0.0. This lets {@code DiscountManager} evaluate all discounts in
+ * a single pass without collecting the rates first. The result is then capped by
+ * {@link DiscountRules#getMaxTotalRate()}.
+ * <p>
+ * Example for VIP 10% and a 50% category discount:
+ * - ADDITIVE_CAPPED: 60%
+ * - MULTIPLICATIVE: 1 - 0.9 * 0.5 = 55%
+ * - BEST_SINGLE: 50%
+ * - PRIORITY_EXCLUSIVE: 10% (the VIP discount comes first)
+ * <p>
+ * Concepts reinforced:
+ * - Enums with behavior
+ * - Folding (reduce)
+ */
+public enum DiscountPolicy {
+
+    // Rates are added up
+    ADDITIVE_CAPPED {
+        @Override
+        public double combine(double total, double rate) {
+            return total + rate;
+        }
+    },
+
+    // Each discount applies to the price left after the previous ones
+    MULTIPLICATIVE {
+        @Override
+        public double combine(double total, double rate) {
+            return 1.0 - (1.0 - total) * (1.0 - rate);
+        }
+    },
+
+    // Only the largest discount applies
+    BEST_SINGLE {
+        @Override
+        public double combine(double total, double rate) {
+            return Math.max(total, rate);
+        }
+    },
+
+    // Only the first applicable discount in priority order applies
+    PRIORITY_EXCLUSIVE {
+        @Override
+        public double combine(double total, double rate) {
+            return total > 0.0 ? total : rate;
+        }
+
+        @Override
+        public boolean isSettled(double total) {
+            return total > 0.0;
+        }
+    };
+
+    /**
+     * Adds one more discount rate to the rates combined so far.
+     *
+     * @param total the combined rate so far (0.0 before the first discount)
+     * @param rate  the next discount's rate
+     * @return the new combined rate
+     */
+    public abstract double combine(double total, double rate);
+
+    /**
+     * Checks if further discounts can no longer change the combined rate,
+     * so evaluation can stop early.
+     *
+     * @param total the combined rate so far
+     * @return true if no further discount needs to be evaluated
+     */
+    public boolean isSettled(double total) {
+        return false;
+    }
+}
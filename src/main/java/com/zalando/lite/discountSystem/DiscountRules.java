@@ -0,0 +1,233 @@
+package com.zalando.lite.discountSystem;
+
+import com.zalando.lite.products.CategoryDictionary;
+
+import java.util.*;
+
+/**
+ * An immutable set of discount rates.
+ * <p>
+ * A snapshot holds:
+ * - the VIP discount rate
+ * - a discount rate per category, stored both by (lower-case) name and in an
+ *   array indexed by interned category ID (see {@link CategoryDictionary})
+ * - the {@link DiscountPolicy} that combines several applicable discounts, and
+ *   the cap on the combined rate
+ * - the {@link FlashSaleDiscount}s that are currently running (maintained by a
+ *   {@link FlashSaleScheduler}, not read from the properties)
+ * <p>
+ * Snapshots are never modified after construction. Changing the rules means
+ * building a new snapshot and publishing it through {@link DiscountConfig}, so
+ * a pricing thread always sees one complete rule set.
+ * <p>
+ * Properties format (see {@link #fromProperties}):
+ * <pre>
+ * vip=0.10
+ * category.shoes=0.20
+ * category.electronics=0.5
+ * policy=ADDITIVE_CAPPED
+ * cap=1.0
+ * </pre>
+ * <p>
+ * Concepts reinforced:
+ * - Immutable objects
+ * - Configuration parsing
+ */
+public final class DiscountRules {
+
+    // Property keys
+    private static final String VIP_KEY = "vip";
+    private static final String CATEGORY_PREFIX = "category.";
+    private static final String POLICY_KEY = "policy";
+    private static final String CAP_KEY = "cap";
+
+    private final double vipRate;
+    private final Map<String, Double> categoryRates;
+    private final DiscountPolicy policy;
+    private final double maxTotalRate;
+
+    // Discount rate per category ID; IDs beyond the end have no discount
+    private final double[] ratesById;
+
+    // Running flash sales, in start order
+    private final FlashSaleDiscount[] flashSales;
+
+    /**
+     * Creates a rule snapshot whose discounts add up, capped at 100%.
+     *
+     * @param vipRate       discount rate for VIP customers (0.0 to 1.0)
+     * @param categoryRates discount rate per category name (case-insensitive, 0.0 to 1.0)
+     * @throws IllegalArgumentException if a rate is outside 0.0 to 1.0 or a category is blank
+     */
+    public DiscountRules(double vipRate, Map<String, Double> categoryRates) {
+        this(vipRate, categoryRates, DiscountPolicy.ADDITIVE_CAPPED, 1.0);
+    }
+
+    /**
+     * Creates a rule snapshot.
+     *
+     * @param vipRate       discount rate for VIP customers (0.0 to 1.0)
+     * @param categoryRates discount rate per category name (case-insensitive, 0.0 to 1.0)
+     * @param policy        how applicable discounts combine
+     * @param maxTotalRate  cap on the combined rate (0.0 to 1.0)
+     * @throws IllegalArgumentException if a rate is outside 0.0 to 1.0, a category is blank or the policy is null
+     */
+    public DiscountRules(double vipRate, Map<String, Double> categoryRates,
+                         DiscountPolicy policy, double maxTotalRate) {
+        if (policy == null) {
+            throw new IllegalArgumentException("Policy must not be null");
+        }
+        this.vipRate = checkRate(VIP_KEY, vipRate);
+        this.policy = policy;
+        this.maxTotalRate = checkRate(CAP_KEY, maxTotalRate);
+
+        Map<String, Double> rates = new TreeMap<>();
+        int maxId = -1;
+        for (Map.Entry<String, Double> entry : categoryRates.entrySet()) {
+            String category = entry.getKey() == null ? "" : entry.getKey().trim().toLowerCase(Locale.ROOT);
+            if (category.isEmpty()) {
+                throw new IllegalArgumentException("Category name must not be blank");
+            }
+            rates.put(category, checkRate(CATEGORY_PREFIX + category, entry.getValue()));
+            maxId = Math.max(maxId, CategoryDictionary.CATEGORIES.idOf(category));
+        }
+        this.categoryRates = Collections.unmodifiableMap(rates);
+
+        this.ratesById = new double[maxId + 1];
+        for (Map.Entry<String, Double> entry : rates.entrySet()) {
+            ratesById[CategoryDictionary.CATEGORIES.idOf(entry.getKey())] = entry.getValue();
+        }
+        this.flashSales = new FlashSaleDiscount[0];
+    }
+
+    // Copy with other flash sales; everything else is shared (it is immutable)
+    private DiscountRules(DiscountRules rules, FlashSaleDiscount[] flashSales) {
+        this.vipRate = rules.vipRate;
+        this.categoryRates = rules.categoryRates;
+        this.policy = rules.policy;
+        this.maxTotalRate = rules.maxTotalRate;
+        this.ratesById = rules.ratesById;
+        this.flashSales = flashSales;
+    }
+
+    /**
+     * Returns a copy of these rules with a different set of running flash sales.
+     *
+     * @param sales the running sales, in priority order
+     * @return the new rules
+     */
+    public DiscountRules withFlashSales(Collection<FlashSaleDiscount> sales) {
+        return new DiscountRules(this, sales.toArray(new FlashSaleDiscount[0]));
+    }
+
+    /**
+     * Returns the rules the store ships with: 10% for VIPs, and category
+     * discounts for electronics, shirts, jackets and shoes.
+     *
+     * @return the default rules
+     */
+    public static DiscountRules defaults() {
+        return new DiscountRules(0.10, Map.of(
+                "electronics", 0.5,
+                "shirt", 0.10,
+                "jackets", 0.45,
+                "shoes", 0.20
+        ));
+    }
+
+    /**
+     * Builds rules from properties: {@code vip} for the VIP rate (0.0 if missing),
+     * {@code category.<name>} for each category rate, {@code policy} for the
+     * {@link DiscountPolicy} (ADDITIVE_CAPPED if missing) and {@code cap} for the
+     * maximum combined rate (1.0 if missing). Other keys are ignored.
+     *
+     * @param properties the properties
+     * @return the rules
+     * @throws IllegalArgumentException if a value is not a number, out of range or an unknown policy
+     */
+    public static DiscountRules fromProperties(Properties properties) {
+        double vipRate = parseRate(VIP_KEY, properties.getProperty(VIP_KEY, "0.0"));
+        Map<String, Double> categoryRates = new HashMap<>();
+        for (String key : properties.stringPropertyNames()) {
+            if (key.startsWith(CATEGORY_PREFIX)) {
+                categoryRates.put(key.substring(CATEGORY_PREFIX.length()), parseRate(key, properties.getProperty(key)));
+            }
+        }
+        DiscountPolicy policy;
+        String policyName = properties.getProperty(POLICY_KEY, DiscountPolicy.ADDITIVE_CAPPED.name());
+        try {
+            policy = DiscountPolicy.valueOf(policyName.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown discount policy: " + policyName);
+        }
+        double cap = parseRate(CAP_KEY, properties.getProperty(CAP_KEY, "1.0"));
+        return new DiscountRules(vipRate, categoryRates, policy, cap);
+    }
+
+    // Returns the VIP discount rate
+    public double getVipRate() {
+        return vipRate;
+    }
+
+    // Returns how applicable discounts are combined
+    public DiscountPolicy getPolicy() {
+        return policy;
+    }
+
+    // Returns the cap on the combined discount rate
+    public double getMaxTotalRate() {
+        return maxTotalRate;
+    }
+
+    // Returns the running flash sales, read-only
+    public List<FlashSaleDiscount> getFlashSales() {
+        return List.of(flashSales);
+    }
+
+    // Returns the number of running flash sales (for allocation-free iteration)
+    public int getFlashSaleCount() {
+        return flashSales.length;
+    }
+
+    // Returns the running flash sale at an index (0 to getFlashSaleCount() - 1)
+    public FlashSaleDiscount getFlashSale(int index) {
+        return flashSales[index];
+    }
+
+    // Returns the discount rate per (lower-case) category name, read-only
+    public Map<String, Double> getCategoryRates() {
+        return categoryRates;
+    }
+
+    /**
+     * Returns the discount rate of a category.
+     *
+     * @param categoryId the interned category ID (see {@link CategoryDictionary})
+     * @return the rate, or 0.0 if the category has no discount
+     */
+    public double categoryRate(int categoryId) {
+        return categoryId >= 0 && categoryId < ratesById.length ? ratesById[categoryId] : 0.0;
+    }
+
+    @Override
+    public String toString() {
+        return "DiscountRules{vip=" + vipRate + ", categories=" + categoryRates
+                + ", policy=" + policy + ", cap=" + maxTotalRate
+                + ", flashSales=" + Arrays.toString(flashSales) + '}';
+    }
+
+    private static double parseRate(String key, String value) {
+        try {
+            return Double.parseDouble(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid rate for " + key + ": " + value);
+        }
+    }
+
+    private static double checkRate(String key, Double rate) {
+        if (rate == null || !(rate >= 0.0 && rate <= 1.0)) {
+            throw new IllegalArgumentException("Rate for " + key + " must be between 0.0 and 1.0: " + rate);
+        }
+        return rate;
+    }
+}
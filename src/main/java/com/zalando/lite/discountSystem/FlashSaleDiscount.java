@@ -0,0 +1,90 @@
+package com.zalando.lite.discountSystem;
+
+import com.zalando.lite.customer.Customer;
+import com.zalando.lite.products.CategoryDictionary;
+import com.zalando.lite.products.Product;
+
+import java.time.Instant;
+
+/**
+ * A discount that runs for a fixed time window, e.g. "shoes 40% off from 18:00 to 20:00".
+ * <p>
+ * The sale itself never looks at the clock. A {@link FlashSaleScheduler} adds it
+ * to the published {@link DiscountRules} when the window starts and removes it when
+ * the window ends; while it is part of the rules, it applies to every product of
+ * its category (or to every product, for a store-wide sale).
+ * <p>
+ * Concepts reinforced:
+ * - Inheritance (a new Discount subtype)
+ * - Time windows with java.time
+ */
+public class FlashSaleDiscount extends Discount {
+
+    private final String name;
+    private final String category;
+    private final int categoryId;
+    private final double rate;
+    private final Instant start;
+    private final Instant end;
+
+    /**
+     * Creates a flash sale.
+     *
+     * @param name     name shown in logs (e.g. "Black Friday shoes")
+     * @param category the discounted category (case-insensitive), or null for the whole store
+     * @param rate     the discount rate (0.0 to 1.0)
+     * @param start    when the sale starts (inclusive)
+     * @param end      when the sale ends (exclusive)
+     * @throws IllegalArgumentException if the rate is out of range or the window is empty
+     */
+    public FlashSaleDiscount(String name, String category, double rate, Instant start, Instant end) {
+        if (!(rate >= 0.0 && rate <= 1.0)) {
+            throw new IllegalArgumentException("Rate must be between 0.0 and 1.0: " + rate);
+        }
+        if (start == null || end == null || !end.isAfter(start)) {
+            throw new IllegalArgumentException("Flash sale must end after it starts: " + start + " - " + end);
+        }
+        this.name = name;
+        this.category = category;
+        this.categoryId = CategoryDictionary.CATEGORIES.idOf(category);
+        this.rate = rate;
+        this.start = start;
+        this.end = end;
+    }
+
+    @Override
+    public double calculate(Customer customer, Product product) {
+        return category == null || product.getCategoryId() == categoryId ? rate : 0.0;
+    }
+
+    // Returns the sale's name
+    public String getName() {
+        return name;
+    }
+
+    // Returns the discounted category, or null for a store-wide sale
+    public String getCategory() {
+        return category;
+    }
+
+    // Returns the discount rate
+    public double getRate() {
+        return rate;
+    }
+
+    // Returns when the sale starts
+    public Instant getStart() {
+        return start;
+    }
+
+    // Returns when the sale ends
+    public Instant getEnd() {
+        return end;
+    }
+
+    @Override
+    public String toString() {
+        return "FlashSaleDiscount{name='" + name + "', category=" + category + ", rate=" + rate
+                + ", start=" + start + ", end=" + end + '}';
+    }
+}
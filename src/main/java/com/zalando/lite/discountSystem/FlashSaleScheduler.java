@@ -0,0 +1,147 @@
+package com.zalando.lite.discountSystem;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Starts and ends flash sales on time by swapping discount rule snapshots.
+ * <p>
+ * For every scheduled {@link FlashSaleDiscount}, one timer task fires at its start
+ * and one at its end. Each task builds the new rule snapshot (the current rules
+ * with the updated set of running sales) and publishes it through
+ * {@link DiscountConfig#update}. Pricing threads keep doing one volatile read per
+ * price; only the scheduler ever looks at the clock.
+ * <p>
+ * All timer tasks run on one background thread, so the set of running sales needs
+ * no further synchronization. Sales whose window has already started are started
+ * right away; sales that have already ended are rejected.
+ * <p>
+ * The clock and the timer can be passed in (e.g. a manually advanced clock and
+ * executor in tests). A timer passed in must run its tasks one at a time.
+ * <p>
+ * Concepts reinforced:
+ * - ScheduledExecutorService
+ * - Publishing immutable snapshots
+ */
+public class FlashSaleScheduler implements AutoCloseable {
+
+    private final DiscountConfig config;
+    private final Clock clock;
+
+    private final ScheduledExecutorService timer;
+
+    // Sales currently in the published rules, in start order (timer thread only)
+    private final Set<FlashSaleDiscount> running = new LinkedHashSet<>();
+
+    // Pending start and end tasks per sale, so a sale can be cancelled
+    private final Map<FlashSaleDiscount, List<ScheduledFuture<?>>> tasks = Collections.synchronizedMap(new HashMap<>());
+
+    public FlashSaleScheduler(DiscountConfig config) {
+        this(config, Clock.systemUTC());
+    }
+
+    public FlashSaleScheduler(DiscountConfig config, Clock clock) {
+        this(config, clock, Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "flash-sale-scheduler");
+            thread.setDaemon(true);
+            return thread;
+        }));
+    }
+
+    /**
+     * Creates a scheduler that runs its start and end tasks on the given timer.
+     * The timer is shut down by {@link #close()}.
+     *
+     * @param config the config whose rules get the running sales
+     * @param clock  the clock sale windows are measured against
+     * @param timer  a timer that runs one task at a time
+     */
+    public FlashSaleScheduler(DiscountConfig config, Clock clock, ScheduledExecutorService timer) {
+        this.config = config;
+        this.clock = clock;
+        this.timer = timer;
+    }
+
+    /**
+     * Schedules a flash sale to start and end at its instants.
+     *
+     * @param sale the sale
+     * @return true if scheduled, false if the sale has already ended or is already scheduled
+     */
+    public boolean schedule(FlashSaleDiscount sale) {
+        Instant now = clock.instant();
+        if (!sale.getEnd().isAfter(now)) {
+            System.err.println("Flash sale already ended: " + sale.getName());
+            return false;
+        }
+        synchronized (tasks) {
+            if (tasks.containsKey(sale)) {
+                System.err.println("Flash sale already scheduled: " + sale.getName());
+                return false;
+            }
+            // Both delays come from the same instant, so the start always fires first
+            tasks.put(sale, List.of(
+                    timer.schedule(() -> start(sale), millisUntil(now, sale.getStart()), TimeUnit.MILLISECONDS),
+                    timer.schedule(() -> end(sale), millisUntil(now, sale.getEnd()), TimeUnit.MILLISECONDS)));
+        }
+        return true;
+    }
+
+    /**
+     * Cancels a scheduled sale; a running sale ends right away.
+     *
+     * @param sale the sale
+     * @return true if the sale was scheduled
+     */
+    public boolean cancel(FlashSaleDiscount sale) {
+        List<ScheduledFuture<?>> pending = tasks.remove(sale);
+        if (pending == null) {
+            return false;
+        }
+        pending.forEach(task -> task.cancel(false));
+        timer.execute(() -> {
+            if (running.remove(sale)) {
+                publishRunning();
+            }
+        });
+        return true;
+    }
+
+    // Returns the sales that are currently part of the published rules
+    public List<FlashSaleDiscount> getRunningSales() {
+        return config.current().getFlashSales();
+    }
+
+    @Override
+    public void close() {
+        timer.shutdownNow();
+    }
+
+    private void start(FlashSaleDiscount sale) {
+        if (tasks.containsKey(sale) && running.add(sale)) {
+            publishRunning();
+        }
+    }
+
+    private void end(FlashSaleDiscount sale) {
+        tasks.remove(sale);
+        if (running.remove(sale)) {
+            publishRunning();
+        }
+    }
+
+    private void publishRunning() {
+        List<FlashSaleDiscount> sales = List.copyOf(running);
+        config.update(rules -> rules.withFlashSales(sales));
+    }
+
+    private static long millisUntil(Instant now, Instant target) {
+        return Math.max(0, Duration.between(now, target).toMillis());
+    }
+}
@@ -16,10 +16,29 @@ import com.zalando.lite.products.Product;
  */
 
 
+/**
+ * Discount for VIP customers; the rate comes from the current {@link DiscountRules}.
+ */
 public class VipDiscount extends Discount {
 
+    private final DiscountConfig config;
+
+    // Uses the shared discount rules
+    public VipDiscount() {
+        this(DiscountConfig.SHARED);
+    }
+
+    public VipDiscount(DiscountConfig config) {
+        this.config = config;
+    }
+
     @Override
     public double calculate(Customer customer, Product product) {
-        return customer.isVip() ? 0.10 : 0.0;
+        return calculate(customer, product, config.current());
+    }
+
+    @Override
+    public double calculate(Customer customer, Product product, DiscountRules rules) {
+        return customer.isVip() ? rules.getVipRate() : 0.0;
     }
 }
@@ -0,0 +1,145 @@
+package com.zalando.lite.managerSystem;
+
+import java.util.*;
+
+/**
+ * Holds the result of a consolidated business report.
+ * <p>
+ * A report is made of independent sections, each computed in parallel by
+ * {@link ReportManager#generateBusinessReport} and merged into this object:
+ * - Revenue per customer
+ * - Top-selling products (by units sold)
+ * - Discount totals (overall and per category)
+ * - Courier utilization
+ * - Average review rating per product
+ * <p>
+ * Instances are immutable once built; all maps are read-only views.
+ */
+public class BusinessReport {
+
+    // Customer ID → total revenue of that customer's orders
+    private final Map<Integer, Double> revenuePerCustomer;
+
+    // Product ID → units sold, ordered from best-selling down
+    private final Map<Integer, Integer> topProducts;
+
+    // Total money given away through discounts
+    private final double totalDiscount;
+
+    // Category → money given away through discounts in that category
+    private final Map<String, Double> discountPerCategory;
+
+    // Number of couriers registered and how many of them are currently busy
+    private final int totalCouriers;
+    private final int busyCouriers;
+
+    // Courier ID → number of orders assigned to that courier
+    private final Map<Integer, Long> ordersPerCourier;
+
+    // Product ID → average star rating
+    private final Map<Integer, Double> averageRatingPerProduct;
+
+    public BusinessReport(Map<Integer, Double> revenuePerCustomer,
+                          Map<Integer, Integer> topProducts,
+                          double totalDiscount,
+                          Map<String, Double> discountPerCategory,
+                          int totalCouriers,
+                          int busyCouriers,
+                          Map<Integer, Long> ordersPerCourier,
+                          Map<Integer, Double> averageRatingPerProduct) {
+        this.revenuePerCustomer = Collections.unmodifiableMap(revenuePerCustomer);
+        this.topProducts = Collections.unmodifiableMap(topProducts);
+        this.totalDiscount = totalDiscount;
+        this.discountPerCategory = Collections.unmodifiableMap(discountPerCategory);
+        this.totalCouriers = totalCouriers;
+        this.busyCouriers = busyCouriers;
+        this.ordersPerCourier = Collections.unmodifiableMap(ordersPerCourier);
+        this.averageRatingPerProduct = Collections.unmodifiableMap(averageRatingPerProduct);
+    }
+
+    // Returns revenue per customer ID
+    public Map<Integer, Double> getRevenuePerCustomer() {
+        return revenuePerCustomer;
+    }
+
+    // Returns units sold per product ID, best-selling first
+    public Map<Integer, Integer> getTopProducts() {
+        return topProducts;
+    }
+
+    // Returns the total discount amount across all orders
+    public double getTotalDiscount() {
+        return totalDiscount;
+    }
+
+    // Returns the discount amount per product category
+    public Map<String, Double> getDiscountPerCategory() {
+        return discountPerCategory;
+    }
+
+    // Returns the number of registered couriers
+    public int getTotalCouriers() {
+        return totalCouriers;
+    }
+
+    // Returns the number of couriers currently busy
+    public int getBusyCouriers() {
+        return busyCouriers;
+    }
+
+    /**
+     * Returns the share of couriers currently busy.
+     *
+     * @return a value between 0.0 and 1.0, or 0.0 if there are no couriers
+     */
+    public double getCourierUtilization() {
+        return totalCouriers == 0 ? 0.0 : (double) busyCouriers / totalCouriers;
+    }
+
+    // Returns the number of orders assigned to each courier ID
+    public Map<Integer, Long> getOrdersPerCourier() {
+        return ordersPerCourier;
+    }
+
+    // Returns the average rating per product ID
+    public Map<Integer, Double> getAverageRatingPerProduct() {
+        return averageRatingPerProduct;
+    }
+
+    /**
+     * Returns a multi-line, human-readable version of the report.
+     * Used when exporting the report to a file.
+     */
+    @Override
+    public String toString() {
+        String nl = System.lineSeparator();
+        StringBuilder sb = new StringBuilder();
+
+        sb.append("=== Business Report ===").append(nl);
+
+        sb.append("--- Revenue per customer ---").append(nl);
+        revenuePerCustomer.forEach((id, revenue) ->
+                sb.append(String.format("Customer %d: %.2f%n", id, revenue)));
+
+        sb.append("--- Top products (units sold) ---").append(nl);
+        topProducts.forEach((id, units) ->
+                sb.append("Product ").append(id).append(": ").append(units).append(nl));
+
+        sb.append("--- Discounts ---").append(nl);
+        sb.append(String.format("Total discount: %.2f%n", totalDiscount));
+        discountPerCategory.forEach((category, amount) ->
+                sb.append(String.format("%s: %.2f%n", category, amount)));
+
+        sb.append("--- Courier utilization ---").append(nl);
+        sb.append(String.format("Busy: %d / %d (%.0f%%)%n",
+                busyCouriers, totalCouriers, getCourierUtilization() * 100));
+        ordersPerCourier.forEach((id, count) ->
+                sb.append("Courier ").append(id).append(": ").append(count).append(" orders").append(nl));
+
+        sb.append("--- Review ratings ---").append(nl);
+        averageRatingPerProduct.forEach((id, rating) ->
+                sb.append(String.format("Product %d: %.2f%n", id, rating)));
+
+        return sb.toString();
+    }
+}
@@ -0,0 +1,276 @@
+package com.zalando.lite.managerSystem;
+
+import com.zalando.lite.products.FactoryMethods;
+import com.zalando.lite.products.Product;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bulk-imports a product catalog from a CSV file into an {@link InventoryManager}.
+ * <p>
+ * Expected columns (an optional header line starting with "name" is skipped):
+ * <pre>
+ * name,category,price,stock,sizes
+ * Basic Tee,clothing,19.99,0,S:10;M:25;L:5
+ * Runner,shoes,89.90,0,EU42:3;EU43:1
+ * Sunglasses,accessories,49.00,40,
+ * </pre>
+ * Fields containing commas may be enclosed in double quotes. The sizes column holds
+ * {@code SIZE:QUANTITY} pairs separated by semicolons, using {@link Product.CLOTH_SIZE}
+ * or {@link Product.SHOE_SIZE} names; if it is present, the product's stock is the
+ * sum over its sizes.
+ * <p>
+ * The file is read sequentially in batches of lines. Each batch is parsed on the
+ * common fork/join pool while the next one is being read, and parsed batches are
+ * added to the inventory in file order with one {@link InventoryManager#addProducts}
+ * call each. At most a few batches are in memory at any time, so very large files
+ * can be imported.
+ * <p>
+ * Malformed lines are skipped and reported on System.err (the first few only).
+ * <p>
+ * Concepts reinforced:
+ * - Streaming file processing
+ * - Pipelining with CompletableFuture
+ */
+public class CatalogImporter {
+
+    // Lines parsed per task
+    private static final int BATCH_SIZE = 10_000;
+
+    // Parsed batches waiting to be added at most
+    private static final int MAX_IN_FLIGHT = Runtime.getRuntime().availableProcessors() * 2;
+
+    // Malformed lines reported on System.err per import
+    private static final int MAX_REPORTED_ERRORS = 20;
+
+    private final InventoryManager inventoryManager;
+
+    public CatalogImporter(InventoryManager inventoryManager) {
+        this.inventoryManager = inventoryManager;
+    }
+
+    /**
+     * Imports every valid line of a CSV catalog file.
+     *
+     * @param file the CSV file
+     * @return how many products were imported and how many lines were skipped;
+     * if the file cannot be read, the products imported until then
+     */
+    public ImportResult importCsv(Path file) {
+        AtomicInteger reportedErrors = new AtomicInteger();
+        Deque<CompletableFuture<ParsedBatch>> inFlight = new ArrayDeque<>();
+        int imported = 0;
+        int skipped = 0;
+
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            List<String> lines = new ArrayList<>(BATCH_SIZE);
+            int firstLineNumber = 1;
+            int lineNumber = 0;
+            String line;
+
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (lineNumber == 1 && line.toLowerCase().startsWith("name")) {
+                    firstLineNumber = 2; // header
+                    continue;
+                }
+                lines.add(line);
+
+                if (lines.size() == BATCH_SIZE) {
+                    inFlight.add(parseAsync(lines, firstLineNumber, reportedErrors));
+                    lines = new ArrayList<>(BATCH_SIZE);
+                    firstLineNumber = lineNumber + 1;
+                }
+                if (inFlight.size() >= MAX_IN_FLIGHT) {
+                    ParsedBatch batch = inFlight.poll().join();
+                    imported += addBatch(batch);
+                    skipped += batch.skipped;
+                }
+            }
+            if (!lines.isEmpty()) {
+                inFlight.add(parseAsync(lines, firstLineNumber, reportedErrors));
+            }
+        } catch (IOException e) {
+            System.err.println("Failed to read catalog " + file + ": " + e.getMessage());
+        }
+
+        // Add whatever has been parsed (also after a read error)
+        while (!inFlight.isEmpty()) {
+            ParsedBatch batch = inFlight.poll().join();
+            imported += addBatch(batch);
+            skipped += batch.skipped;
+        }
+        if (reportedErrors.get() > MAX_REPORTED_ERRORS) {
+            System.err.println("... " + (reportedErrors.get() - MAX_REPORTED_ERRORS) + " more malformed lines");
+        }
+        return new ImportResult(imported, skipped);
+    }
+
+    private int addBatch(ParsedBatch batch) {
+        inventoryManager.addProducts(batch.products);
+        return batch.products.size();
+    }
+
+    private static CompletableFuture<ParsedBatch> parseAsync(List<String> lines, int firstLineNumber,
+                                                             AtomicInteger reportedErrors) {
+        return CompletableFuture.supplyAsync(() -> {
+            ParsedBatch batch = new ParsedBatch(lines.size());
+            for (int i = 0; i < lines.size(); i++) {
+                String line = lines.get(i);
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    batch.products.add(parseLine(line));
+                } catch (IllegalArgumentException e) {
+                    batch.skipped++;
+                    if (reportedErrors.incrementAndGet() <= MAX_REPORTED_ERRORS) {
+                        System.err.println("Skipping catalog line " + (firstLineNumber + i) + ": " + e.getMessage());
+                    }
+                }
+            }
+            return batch;
+        });
+    }
+
+    /**
+     * Parses one CSV line into a product.
+     *
+     * @param line the line
+     * @return the product
+     * @throws IllegalArgumentException if the line is malformed
+     */
+    static Product parseLine(String line) {
+        List<String> fields = splitCsv(line);
+        if (fields.size() < 4 || fields.size() > 5) {
+            throw new IllegalArgumentException("expected 4 or 5 fields but found " + fields.size());
+        }
+
+        String name = fields.get(0).trim();
+        String category = fields.get(1).trim();
+        if (name.isEmpty()) {
+            throw new IllegalArgumentException("missing name");
+        }
+        double price;
+        int stock;
+        try {
+            price = Double.parseDouble(fields.get(2).trim());
+            stock = fields.get(3).isBlank() ? 0 : Integer.parseInt(fields.get(3).trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("invalid number: " + e.getMessage());
+        }
+
+        String sizes = fields.size() == 5 ? fields.get(4).trim() : "";
+        if (sizes.isEmpty()) {
+            return FactoryMethods.createProduct(name, category, price, stock);
+        }
+
+        Map<Product.CLOTH_SIZE, Integer> clothingStock = new EnumMap<>(Product.CLOTH_SIZE.class);
+        Map<Product.SHOE_SIZE, Integer> shoeStock = new EnumMap<>(Product.SHOE_SIZE.class);
+        for (String pair : sizes.split(";")) {
+            int colon = pair.indexOf(':');
+            if (colon < 0) {
+                throw new IllegalArgumentException("invalid size entry: " + pair);
+            }
+            String size = pair.substring(0, colon).trim().toUpperCase();
+            int quantity;
+            try {
+                quantity = Integer.parseInt(pair.substring(colon + 1).trim());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("invalid quantity in size entry: " + pair);
+            }
+            if (size.startsWith("EU")) {
+                shoeStock.put(Product.SHOE_SIZE.valueOf(size), quantity); // throws IAE for unknown sizes
+            } else {
+                clothingStock.put(Product.CLOTH_SIZE.valueOf(size), quantity);
+            }
+        }
+        if (!clothingStock.isEmpty() && !shoeStock.isEmpty()) {
+            throw new IllegalArgumentException("mixes clothing and shoe sizes");
+        }
+        return shoeStock.isEmpty()
+                ? FactoryMethods.createClothingProduct(name, category, price, stock, clothingStock)
+                : FactoryMethods.createShoeProduct(name, category, price, stock, shoeStock);
+    }
+
+    // Splits a CSV line on commas, honoring double-quoted fields ("" is an escaped quote)
+    private static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>(5);
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("unterminated quote");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    /**
+     * Products parsed from one batch of lines.
+     */
+    private static final class ParsedBatch {
+        final List<Product> products;
+        int skipped;
+
+        ParsedBatch(int capacity) {
+            this.products = new ArrayList<>(capacity);
+        }
+    }
+
+    /**
+     * Outcome of an import.
+     */
+    public static final class ImportResult {
+
+        private final int imported;
+        private final int skipped;
+
+        ImportResult(int imported, int skipped) {
+            this.imported = imported;
+            this.skipped = skipped;
+        }
+
+        // Returns the number of products added to the inventory
+        public int getImported() {
+            return imported;
+        }
+
+        // Returns the number of malformed lines that were skipped
+        public int getSkipped() {
+            return skipped;
+        }
+
+        @Override
+        public String toString() {
+            return "ImportResult{imported=" + imported + ", skipped=" + skipped + '}';
+        }
+    }
+}
@@ -3,6 +3,7 @@ package com.zalando.lite.managerSystem;
 import com.zalando.lite.customer.Customer;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 
 /**
@@ -13,35 +14,97 @@ import java.util.*;
  * <p>
  * Internally uses a Map for fast lookup and future extensibility (like updates or filtering).
  * <p>
+ * A second map indexes customers by email (case-insensitive), so login and
+ * duplicate checks are a single lookup. Both maps are concurrent; an email is
+ * claimed with {@code putIfAbsent}, so two registrations with the same email
+ * can never both succeed, even when they run at the same time. The manager
+ * remembers which email each ID was indexed under, so re-registering a customer
+ * after an email change releases the old email. Each registration updates all
+ * maps inside {@code emailById.compute} for its ID, so concurrent re-registrations
+ * of one ID are applied one after the other.
+ * <p>
  * Concepts reinforced:
  * - Maps (for ID → object relationships)
  * - Null safety
  * - Separation of concerns (manager vs model)
+ * - Concurrent unique indexes
  */
 public class CustomerManager {
 
     // Stores customers using their ID as the key for quick access
     private Map<Integer, Customer> customers;
 
-    private int nextCustomerId = 1;
+    // Customers by normalized (trimmed, lower-case) email; customers without an email are not indexed
+    private final ConcurrentHashMap<String, Customer> customersByEmail = new ConcurrentHashMap<>();
+
+    // Normalized email each customer ID is indexed under (customers can change their email after registering)
+    private final ConcurrentHashMap<Integer, String> emailById = new ConcurrentHashMap<>();
 
     public CustomerManager(Map<Integer, Customer> customers) {
-        this.customers = new HashMap<>();
+        this.customers = new ConcurrentHashMap<>();
     }
 
     public CustomerManager() {
-        this.customers = new HashMap<>(); // initialize the map
+        this.customers = new ConcurrentHashMap<>(); // initialize the map
     }
 
     /**
      * Registers a new customer in the system.
      * If the ID already exists, the existing customer is overwritten.
+     * <p>
+     * Emails are unique (case-insensitive): a customer whose email belongs to a
+     * customer with another ID is rejected.
      *
      * @param customer the customer to add
+     * @return true if registered, false if the email is already taken
+     */
+    public boolean registerCustomer(Customer customer) {
+        String email = normalizeEmail(customer.getEmail());
+        int id = customer.getId();
+        boolean[] registered = new boolean[1];
+
+        // The whole registration runs inside the ID's emailById entry, so registrations
+        // of the same ID never interleave
+        emailById.compute(id, (key, previousEmail) -> {
+            if (email != null) {
+                Customer owner = customersByEmail.putIfAbsent(email, customer);
+                // Same ID: the customer is being replaced, so it keeps its email
+                if (owner != null && owner != customer
+                        && (owner.getId() != id || !customersByEmail.replace(email, owner, customer))) {
+                    return previousEmail; // rejected: leave the ID as it was
+                }
+            }
+            customers.put(id, customer);
+
+            // Release the email this ID was indexed under before, if it changed. The key is
+            // the one stored at registration: the customer object may already carry its new email.
+            if (previousEmail != null && !previousEmail.equals(email)) {
+                customersByEmail.computeIfPresent(previousEmail, (k, owner) -> owner.getId() == id ? null : owner);
+            }
+            registered[0] = true;
+            return email;
+        });
+
+        if (!registered[0]) {
+            System.err.println("Email already registered: " + customer.getEmail());
+        }
+        return registered[0];
+    }
+
+    /**
+     * Retrieves a customer by email (case-insensitive).
+     *
+     * @param email the email to look up
+     * @return the matching Customer, or null if not found
      */
-    public void registerCustomer(Customer customer) {
-        customers.put(customer.getId(), customer);
-        nextCustomerId++;
+    public Customer getCustomerByEmail(String email) {
+        String key = normalizeEmail(email);
+        return key == null ? null : customersByEmail.get(key);
+    }
+
+    // Returns true if a customer with this email (case-insensitive) is registered
+    public boolean isEmailRegistered(String email) {
+        return getCustomerByEmail(email) != null;
     }
 
 
@@ -63,10 +126,20 @@ public class CustomerManager {
     /**
      * Optional: Returns all registered customers.
      * Can be used for listing or reporting.
+     * <p>
+     * The map is a read-only live view (no copy), so later registrations show up in it.
      *
      * @return map of all customers
      */
     public Map<Integer, Customer> getAllCustomers() {
-        return new HashMap<>(customers);
+        return Collections.unmodifiableMap(customers);
+    }
+
+    // Emails are compared trimmed and lower-cased; null or blank emails are not indexed
+    private static String normalizeEmail(String email) {
+        if (email == null || email.isBlank()) {
+            return null;
+        }
+        return email.trim().toLowerCase(Locale.ROOT);
     }
 }
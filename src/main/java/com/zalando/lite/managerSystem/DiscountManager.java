@@ -4,6 +4,9 @@ import com.zalando.lite.customer.Customer;
 import com.zalando.lite.annotations.VIP;
 import com.zalando.lite.discountSystem.CategoryDiscount;
 import com.zalando.lite.discountSystem.Discount;
+import com.zalando.lite.discountSystem.DiscountConfig;
+import com.zalando.lite.discountSystem.DiscountPolicy;
+import com.zalando.lite.discountSystem.DiscountRules;
 import com.zalando.lite.discountSystem.VipDiscount;
 import com.zalando.lite.products.Product;
 
@@ -16,10 +19,16 @@ import java.util.*;
  * This class uses Java Reflection to check if a customer qualifies for a discount.
  * It also supports category-specific discounts (like for "Shoes").
  * <p>
- * Discounts:
+ * Discounts (defaults, see {@link DiscountRules#defaults()}):
  * - VIP customers: 10% off
  * - Products in "Shoes" category: 20% off
  * <p>
+ * The rates come from a {@link DiscountConfig}, so they can be changed at runtime
+ * (e.g. reloaded from a properties file) without restarting or locking.
+ * <p>
+ * When several discounts apply, the rules' {@link DiscountPolicy} combines them
+ * (added up by default) and the result is capped, so a price never goes below zero.
+ * <p>
  * Concepts reinforced:
  * - Reflection
  * - Conditional logic
@@ -27,6 +36,29 @@ import java.util.*;
  */
 public class DiscountManager {
 
+    // Discounts applied to every purchase, in priority order after any running flash sales
+    // (see DiscountPolicy.PRIORITY_EXCLUSIVE)
+    private final Discount[] discounts;
+
+    // Source of the rates, the stacking policy and the cap
+    private final DiscountConfig config;
+
+    // Final prices per customer segment, for repeated price lookups (see getFinalPrice)
+    private final PriceCache priceCache = new PriceCache();
+
+    private final CategoryDiscount categoryDiscount;
+
+    // Uses the shared discount rules (DiscountConfig.SHARED)
+    public DiscountManager() {
+        this(DiscountConfig.SHARED);
+    }
+
+    public DiscountManager(DiscountConfig config) {
+        this.config = config;
+        this.categoryDiscount = new CategoryDiscount(config);
+        this.discounts = new Discount[]{new VipDiscount(config), categoryDiscount};
+    }
+
     /**
      * Applies applicable discounts based on customer VIP status and product category.
      * <p>
@@ -40,17 +72,12 @@ public class DiscountManager {
     public double applyDiscount(Customer customer, Product product) {
         double basePrice = product.getPrice();
 
-        List<Discount> discounts = List.of(new VipDiscount(), new CategoryDiscount());
-        double totalDiscount = 0.00;
-
         // check if a category discount is applicable
-        if (CategoryDiscount.isCategoryDiscounted(product)) {
+        if (categoryDiscount.isDiscounted(product)) {
             System.out.println("Category discount applicable for: " + product.getCategory());
         }
 
-        for (Discount discount : discounts){
-            totalDiscount += discount.calculate(customer, product);
-        }
+        double totalDiscount = calculateDiscountRate(customer, product);
 
         double finalPrice = basePrice * (1 - totalDiscount);
 
@@ -60,6 +87,55 @@ public class DiscountManager {
         return finalPrice;
     }
 
+    /**
+     * Calculates the combined discount rate for a customer and product without printing anything.
+     * <p>
+     * Used by {@link #applyDiscount} and by bulk reporting, where console output per item is not wanted.
+     *
+     * @param customer the customer making the purchase
+     * @param product the product being purchased
+     * @return the total discount rate (e.g., 0.3 for 30% off)
+     */
+    public double calculateDiscountRate(Customer customer, Product product) {
+        return calculateDiscountRate(customer, product, config.current());
+    }
+
+    /**
+     * Returns the final price of a product for a customer, without printing anything.
+     * <p>
+     * Prices are cached per customer segment (VIP or not) and product, so listing
+     * the same catalog page again does not evaluate any discount rules. A cached
+     * price is recomputed after the product's price or category changes, and all
+     * cached prices are dropped when new discount rules are published.
+     *
+     * @param customer the customer viewing or buying the product
+     * @param product  the product
+     * @return the price after discount
+     */
+    public double getFinalPrice(Customer customer, Product product) {
+        return priceCache.get(config.current(), customer.isVip(), product,
+                (rules, p) -> p.getPrice() * (1 - calculateDiscountRate(customer, p, rules)));
+    }
+
+    // Evaluates all discounts against one rule snapshot; running flash sales come first
+    private double calculateDiscountRate(Customer customer, Product product, DiscountRules rules) {
+        DiscountPolicy policy = rules.getPolicy();
+        int flashSales = rules.getFlashSaleCount();
+        double totalDiscount = 0.00;
+
+        for (int i = 0; i < flashSales + discounts.length; i++) {
+            Discount discount = i < flashSales ? rules.getFlashSale(i) : discounts[i - flashSales];
+            double rate = discount.calculate(customer, product, rules);
+            if (rate > 0.0) {
+                totalDiscount = policy.combine(totalDiscount, rate);
+                if (policy.isSettled(totalDiscount)) {
+                    break;
+                }
+            }
+        }
+        return Math.min(totalDiscount, rules.getMaxTotalRate());
+    }
+
     /**
      * Checks if a customer has a @VIP annotation.
      * <p>
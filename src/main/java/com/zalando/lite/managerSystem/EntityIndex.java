@@ -0,0 +1,161 @@
+package com.zalando.lite.managerSystem;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.Function;
+
+/**
+ * A secondary index of an {@link EntityManager}: maps a key extracted from each
+ * entity (e.g. an email or a category) to the IDs of the entities with that key.
+ * <p>
+ * - A unique index maps each key to exactly one ID. Claiming a key is a single
+ *   {@code putIfAbsent}, so two concurrent inserts with the same key can never both win.
+ * - A non-unique index maps each key to a sorted set of IDs; a key's set is changed
+ *   atomically through {@code compute}, and empty sets are dropped.
+ * <p>
+ * Entities whose key is null are not indexed.
+ * <p>
+ * The index remembers the key each ID was committed under. Dropping an old key
+ * uses that stored key, never a key recomputed from the entity: the entity may
+ * have been changed in place since it was indexed.
+ * <p>
+ * {@link #commit} and {@link #remove} for the same ID must not run concurrently:
+ * the {@link EntityManager} calls them under the ID's write lock, after the slot
+ * was changed. Otherwise a commit racing a removal could record a key for a dead
+ * ID and keep its unique key taken forever.
+ *
+ * @param <T> the entity type
+ */
+class EntityIndex<T> {
+
+    private final String name;
+    private final Function<? super T, ?> keyExtractor;
+    private final boolean unique;
+
+    // Unique index: key -> owning ID
+    private final Map<Object, Integer> owners = new ConcurrentHashMap<>();
+
+    // Non-unique index: key -> IDs in ascending order
+    private final Map<Object, NavigableSet<Integer>> members = new ConcurrentHashMap<>();
+
+    // Committed key per indexed ID
+    private final Map<Integer, Object> keysById = new ConcurrentHashMap<>();
+
+    EntityIndex(String name, Function<? super T, ?> keyExtractor, boolean unique) {
+        this.name = name;
+        this.keyExtractor = keyExtractor;
+        this.unique = unique;
+    }
+
+    // Returns the index name
+    String getName() {
+        return name;
+    }
+
+    // Returns true if every key may belong to one entity only
+    boolean isUnique() {
+        return unique;
+    }
+
+    /**
+     * Claims an entity's key for an ID. Call {@link #commit} once the entity is
+     * stored, or {@link #withdraw} if it is not.
+     *
+     * @param entity the entity
+     * @param id     the entity's ID
+     * @return false if this is a unique index and another entity already owns the key
+     */
+    boolean add(T entity, int id) {
+        Object key = keyExtractor.apply(entity);
+        if (key == null) {
+            return true;
+        }
+        if (unique) {
+            Integer owner = owners.putIfAbsent(key, id);
+            return owner == null || owner == id;
+        }
+        members.compute(key, (k, ids) -> {
+            NavigableSet<Integer> set = ids != null ? ids : new ConcurrentSkipListSet<>();
+            set.add(id);
+            return set;
+        });
+        return true;
+    }
+
+    /**
+     * Records the key of a stored entity as the ID's key and drops the key the
+     * ID was committed under before, if it differs.
+     *
+     * @param entity the stored entity (its key must already be claimed with {@link #add})
+     * @param id     the entity's ID
+     */
+    void commit(T entity, int id) {
+        Object key = keyExtractor.apply(entity);
+        Object previous = key != null ? keysById.put(id, key) : keysById.remove(id);
+        if (previous != null && !previous.equals(key)) {
+            release(previous, id);
+        }
+    }
+
+    /**
+     * Drops a key claimed with {@link #add} for an entity that was not stored,
+     * unless it is the ID's committed key.
+     *
+     * @param entity the entity that was not stored
+     * @param id     the ID it was claimed for
+     */
+    void withdraw(T entity, int id) {
+        Object key = keyExtractor.apply(entity);
+        if (key != null && !key.equals(keysById.get(id))) {
+            release(key, id);
+        }
+    }
+
+    /**
+     * Removes the committed key of an ID from the index.
+     *
+     * @param id the removed entity's ID
+     */
+    void remove(int id) {
+        Object key = keysById.remove(id);
+        if (key != null) {
+            release(key, id);
+        }
+    }
+
+    // Drops a key from the index (only if it still points to this ID)
+    private void release(Object key, int id) {
+        if (unique) {
+            owners.remove(key, id);
+            return;
+        }
+        members.computeIfPresent(key, (k, ids) -> {
+            ids.remove(id);
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+
+    /**
+     * Returns the IDs of the entities with the given key, in ascending order.
+     *
+     * @param key the key to look up
+     * @return the matching IDs (empty if none)
+     */
+    Collection<Integer> idsFor(Object key) {
+        if (key == null) {
+            return Collections.emptyList();
+        }
+        if (unique) {
+            Integer owner = owners.get(key);
+            return owner == null ? Collections.emptyList() : List.of(owner);
+        }
+        NavigableSet<Integer> ids = members.get(key);
+        return ids == null ? Collections.emptyList() : ids;
+    }
+
+    // Returns the key of an entity, for error messages
+    Object keyOf(T entity) {
+        return keyExtractor.apply(entity);
+    }
+}
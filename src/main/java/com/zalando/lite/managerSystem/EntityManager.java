@@ -12,46 +12,186 @@ package com.zalando.lite.managerSystem;
  * *******************************************************
  */
 
+import com.zalando.lite.persistence.StorageBackend;
+import com.zalando.lite.util.IdAllocator;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.ObjIntConsumer;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * A generic manager for handling CRUD operations on any entity type.
+ * <p>
+ * Entities are stored in an array indexed directly by their int ID (split into
+ * fixed-size chunks), so there is no {@code Integer} boxing and no hashing.
+ * The manager is thread-safe:
+ * - IDs come from an {@link IdAllocator} (atomic, per-thread blocks)
+ * - Reads never lock; slots are read and written with acquire/release semantics
+ * - Writes to one ID (add, update, remove) hold that ID's lock stripe, so the
+ *   storage backend receives them in the same order as memory
+ * - Growing the chunk directory takes a short lock
+ * <p>
+ * {@link #forEach} and {@link #stream} walk the slots directly without copying.
+ * The query methods ({@link #find}, {@link #findFirst}, {@link #count}) filter while
+ * scanning and switch to a parallel scan on the common fork/join pool once the
+ * manager holds at least {@link #PARALLEL_THRESHOLD} entities.
+ * <p>
+ * Secondary indexes ({@link #addIndex}, {@link #addUniqueIndex}) map a key such as
+ * an email or a category to the matching IDs, so {@link #findByIndex} answers
+ * lookups in O(1) instead of scanning. Indexes are kept up to date on every add,
+ * update and remove; unique indexes reject duplicate keys atomically, even for
+ * concurrent inserts.
+ * <p>
+ * Optionally, a {@link StorageBackend} receives every change and restores all
+ * entities when the manager is created, so data can outlive the JVM. Without a
+ * backend the manager is purely in memory.
  *
  * @param <T> The entity type to manage (e.g., Product, Customer, Order)
  */
 
-public class EntityManager<T> {  private final Map<Integer, T> entityMap = new HashMap<>();
-    private int nextId = 1;
+public class EntityManager<T> {
+
+    // Number of slots per chunk (a power of two)
+    private static final int CHUNK_SHIFT = 10;
+    private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    // Entity count from which queries scan in parallel
+    public static final int PARALLEL_THRESHOLD = 10_000;
+
+    // Number of write lock stripes (a power of two)
+    private static final int WRITE_STRIPES = 64;
+
+    // Atomic access to single array slots
+    private static final VarHandle SLOT = MethodHandles.arrayElementVarHandle(Object[].class);
+
+    // Chunk directory: chunks[id >>> CHUNK_SHIFT][id & CHUNK_MASK] holds the entity with that ID
+    private volatile Object[][] chunks = new Object[4][];
+
+    // Number of stored entities
+    private final AtomicInteger count = new AtomicInteger();
+
+    private final IdAllocator ids = new IdAllocator();
+
+    // Write locks by ID (id & (WRITE_STRIPES - 1)); readers never take them
+    private final Object[] writeLocks = new Object[WRITE_STRIPES];
+
+    // Receives every change; null when the manager is purely in memory
+    private final StorageBackend<T> backend;
+
+    // Secondary indexes by name (iterated on every change, registered rarely)
+    private final Map<String, EntityIndex<T>> indexesByName = new ConcurrentHashMap<>();
+    private final List<EntityIndex<T>> indexes = new CopyOnWriteArrayList<>();
+
+    /**
+     * Creates an in-memory entity manager.
+     */
+    public EntityManager() {
+        this.backend = null;
+        initWriteLocks();
+    }
+
+    /**
+     * Creates an entity manager backed by the given storage.
+     * All entities already stored in the backend are loaded, and new IDs
+     * continue after the highest loaded ID.
+     *
+     * @param backend the storage backend
+     */
+    public EntityManager(StorageBackend<T> backend) {
+        this.backend = Objects.requireNonNull(backend, "backend");
+        initWriteLocks();
+        backend.loadAll(this::restore);
+    }
 
     /**
      * Adds an entity to the manager and assigns a unique ID.
      *
      * @param entity The entity to add
      * @return The assigned ID
+     * @throws IllegalArgumentException if a unique index already holds the entity's key
      */
     public int addEntity(T entity) {
-        int id = nextId++;
-        entityMap.put(id, entity);
+        Objects.requireNonNull(entity, "entity");
+        int id = ids.nextId();
+        indexNew(entity, id);
+        synchronized (writeLockFor(id)) {
+            SLOT.setRelease(chunkFor(id), id & CHUNK_MASK, entity);
+            count.incrementAndGet();
+            if (backend != null) {
+                backend.put(id, entity);
+            }
+        }
         return id;
     }
 
+    /**
+     * Replaces a stored entity, e.g. after it was modified.
+     * Also passes the new state to the storage backend, if there is one.
+     *
+     * @param id     The entity's ID
+     * @param entity The new entity
+     * @return true if replaced, false if no entity has this ID
+     * @throws IllegalArgumentException if a unique index already holds the new key for another entity
+     */
+    @SuppressWarnings("unchecked")
+    public boolean updateEntity(int id, T entity) {
+        Objects.requireNonNull(entity, "entity");
+        Object[] chunk = existingChunk(id);
+        if (chunk == null) {
+            return false;
+        }
+        synchronized (writeLockFor(id)) {
+            T previous = (T) SLOT.getAcquire(chunk, id & CHUNK_MASK);
+            if (previous == null) {
+                return false;
+            }
+            indexUpdate(entity, id);
+            SLOT.setRelease(chunk, id & CHUNK_MASK, entity);
+            for (EntityIndex<T> index : indexes) {
+                index.commit(entity, id);
+            }
+            if (backend != null) {
+                backend.put(id, entity);
+            }
+        }
+        return true;
+    }
+
     /**
      * Retrieves an entity by ID.
      *
      * @param id The entity's ID
      * @return The entity, or null if not found
      */
+    @SuppressWarnings("unchecked")
     public T getEntityById(int id) {
-        return entityMap.get(id);
+        Object[] chunk = existingChunk(id);
+        return chunk == null ? null : (T) SLOT.getAcquire(chunk, id & CHUNK_MASK);
     }
 
     /**
      * Lists all stored entities.
+     * <p>
+     * This copies every entity into a new list; prefer {@link #forEach} or
+     * {@link #stream} when a copy is not needed.
      *
      * @return A list of all entities
      */
     public List<T> getAllEntities() {
-        return new ArrayList<>(entityMap.values());
+        List<T> all = new ArrayList<>(count.get());
+        forEach(all::add);
+        return all;
     }
 
     /**
@@ -61,7 +201,35 @@ public class EntityManager<T> {  private final Map<Integer, T> entityMap = new H
      * @return true if removed successfully, false if not found
      */
     public boolean removeEntity(int id) {
-        return entityMap.remove(id) != null;
+        Object[] chunk = existingChunk(id);
+        if (chunk == null) {
+            return false;
+        }
+        synchronized (writeLockFor(id)) {
+            @SuppressWarnings("unchecked")
+            T previous = (T) SLOT.getAndSet(chunk, id & CHUNK_MASK, null);
+            if (previous == null) {
+                return false;
+            }
+            count.decrementAndGet();
+            for (EntityIndex<T> index : indexes) {
+                index.remove(id);
+            }
+            if (backend != null) {
+                backend.remove(id);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Blocks until all changes are durable in the storage backend.
+     * Does nothing for a purely in-memory manager.
+     */
+    public void flush() {
+        if (backend != null) {
+            backend.flush();
+        }
     }
 
     /**
@@ -70,6 +238,351 @@ public class EntityManager<T> {  private final Map<Integer, T> entityMap = new H
      * @return true if empty, false otherwise
      */
     public boolean isEmpty() {
-        return entityMap.isEmpty();
+        return count.get() == 0;
+    }
+
+    /**
+     * Returns the number of stored entities.
+     *
+     * @return the entity count
+     */
+    public int size() {
+        return count.get();
+    }
+
+    /**
+     * Runs an action for every stored entity, in ID order, without copying.
+     * Entities added or removed concurrently may or may not be seen.
+     *
+     * @param action the action to run
+     */
+    public void forEach(Consumer<? super T> action) {
+        Spliterator<T> slots = new SlotSpliterator(0, capacity());
+        while (slots.tryAdvance(action)) {
+            // tryAdvance runs the action
+        }
+    }
+
+    /**
+     * Returns a stream over all stored entities, in ID order, without copying.
+     *
+     * @return a sequential stream of entities
+     */
+    public Stream<T> stream() {
+        return StreamSupport.stream(new SlotSpliterator(0, capacity()), false);
+    }
+
+    // Puts a loaded entity back into its original slot
+    private void restore(T entity, int id) {
+        if (SLOT.getAndSet(chunkFor(id), id & CHUNK_MASK, entity) == null) {
+            count.incrementAndGet();
+        }
+        ids.advancePast(id);
+    }
+
+    /**
+     * Returns a parallel stream over all stored entities, without copying.
+     * The scan is split on chunk boundaries across the common fork/join pool.
+     *
+     * @return a parallel stream of entities
+     */
+    public Stream<T> parallelStream() {
+        return StreamSupport.stream(new SlotSpliterator(0, capacity()), true);
+    }
+
+    /**
+     * Finds all entities matching a condition, in ID order.
+     *
+     * @param condition the filter
+     * @return the matching entities
+     */
+    public List<T> find(Predicate<? super T> condition) {
+        return scan().filter(condition).collect(Collectors.toList());
+    }
+
+    /**
+     * Finds up to {@code limit} entities matching a condition, in ID order.
+     * The scan stops as soon as enough matches are found.
+     *
+     * @param condition the filter
+     * @param limit     maximum number of results
+     * @return at most {@code limit} matching entities
+     * @throws IllegalArgumentException if limit is negative
+     */
+    public List<T> find(Predicate<? super T> condition, int limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("Limit must not be negative: " + limit);
+        }
+        return scan().filter(condition).limit(limit).collect(Collectors.toList());
+    }
+
+    /**
+     * Finds the entity with the lowest ID that matches a condition.
+     * The scan stops at the first match.
+     *
+     * @param condition the filter
+     * @return the first match, or empty if none
+     */
+    public Optional<T> findFirst(Predicate<? super T> condition) {
+        return stream().filter(condition).findFirst();
+    }
+
+    /**
+     * Counts the entities matching a condition, without collecting them.
+     *
+     * @param condition the filter
+     * @return the number of matches
+     */
+    public long count(Predicate<? super T> condition) {
+        return scan().filter(condition).count();
+    }
+
+    /**
+     * Registers a non-unique secondary index and fills it with all stored entities.
+     *
+     * @param name         the index name used for lookups
+     * @param keyExtractor extracts the key from an entity (null keys are not indexed)
+     * @throws IllegalArgumentException if an index with this name already exists
+     */
+    public void addIndex(String name, Function<? super T, ?> keyExtractor) {
+        registerIndex(new EntityIndex<>(name, keyExtractor, false));
+    }
+
+    /**
+     * Registers a unique secondary index and fills it with all stored entities.
+     * From now on, adding an entity whose key is already taken fails.
+     *
+     * @param name         the index name used for lookups
+     * @param keyExtractor extracts the key from an entity (null keys are not indexed)
+     * @throws IllegalArgumentException if an index with this name already exists,
+     *                                  or if stored entities already share a key
+     */
+    public void addUniqueIndex(String name, Function<? super T, ?> keyExtractor) {
+        registerIndex(new EntityIndex<>(name, keyExtractor, true));
+    }
+
+    /**
+     * Checks if an index with the given name exists.
+     *
+     * @param name the index name
+     * @return true if registered
+     */
+    public boolean hasIndex(String name) {
+        return indexesByName.containsKey(name);
+    }
+
+    /**
+     * Looks up entities by an index key, in ID order.
+     *
+     * @param name the index name
+     * @param key  the key to look up
+     * @return the entities with that key (empty if none)
+     * @throws IllegalArgumentException if no index with this name exists
+     */
+    public List<T> findByIndex(String name, Object key) {
+        List<T> result = new ArrayList<>();
+        for (int id : index(name).idsFor(key)) {
+            T entity = getEntityById(id);
+            if (entity != null) {
+                result.add(entity);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Looks up a single entity by a unique index key.
+     *
+     * @param name the name of a unique index
+     * @param key  the key to look up
+     * @return the entity, or null if no entity has this key
+     * @throws IllegalArgumentException if no unique index with this name exists
+     */
+    public T findUnique(String name, Object key) {
+        EntityIndex<T> index = index(name);
+        if (!index.isUnique()) {
+            throw new IllegalArgumentException("Index is not unique: " + name);
+        }
+        for (int id : index.idsFor(key)) {
+            return getEntityById(id);
+        }
+        return null;
+    }
+
+    private EntityIndex<T> index(String name) {
+        EntityIndex<T> index = indexesByName.get(name);
+        if (index == null) {
+            throw new IllegalArgumentException("Unknown index: " + name);
+        }
+        return index;
+    }
+
+    private void registerIndex(EntityIndex<T> index) {
+        if (indexesByName.putIfAbsent(index.getName(), index) != null) {
+            throw new IllegalArgumentException("Index already exists: " + index.getName());
+        }
+        // Register first, so entities added during the backfill are indexed as well
+        indexes.add(index);
+        try {
+            forEachWithId((entity, id) -> {
+                synchronized (writeLockFor(id)) {
+                    if (getEntityById(id) != entity) {
+                        return; // updated or removed meanwhile; that write indexed it already
+                    }
+                    if (!index.add(entity, id)) {
+                        throw new IllegalArgumentException("Duplicate key for unique index '"
+                                + index.getName() + "': " + index.keyOf(entity));
+                    }
+                    index.commit(entity, id);
+                }
+            });
+        } catch (IllegalArgumentException e) {
+            indexes.remove(index);
+            indexesByName.remove(index.getName());
+            throw e;
+        }
+    }
+
+    // Claims the keys of a new entity in every index; all or nothing
+    private void indexNew(T entity, int id) {
+        List<EntityIndex<T>> done = new ArrayList<>(indexes.size());
+        for (EntityIndex<T> index : indexes) {
+            if (!index.add(entity, id)) {
+                done.forEach(added -> added.withdraw(entity, id));
+                throw new IllegalArgumentException("Duplicate key for unique index '"
+                        + index.getName() + "': " + index.keyOf(entity));
+            }
+            done.add(index);
+        }
+        done.forEach(added -> added.commit(entity, id));
+    }
+
+    // Claims the keys of an updated entity in every index; all or nothing
+    private void indexUpdate(T entity, int id) {
+        List<EntityIndex<T>> done = new ArrayList<>(indexes.size());
+        for (EntityIndex<T> index : indexes) {
+            if (!index.add(entity, id)) {
+                done.forEach(added -> added.withdraw(entity, id));
+                throw new IllegalArgumentException("Duplicate key for unique index '"
+                        + index.getName() + "': " + index.keyOf(entity));
+            }
+            done.add(index);
+        }
+    }
+
+    private void initWriteLocks() {
+        for (int i = 0; i < WRITE_STRIPES; i++) {
+            writeLocks[i] = new Object();
+        }
+    }
+
+    // Returns the lock that orders all writes to an ID
+    private Object writeLockFor(int id) {
+        return writeLocks[id & (WRITE_STRIPES - 1)];
+    }
+
+    // Runs an action for every stored entity together with its ID
+    private void forEachWithId(ObjIntConsumer<T> action) {
+        int end = capacity();
+        for (int id = 0; id < end; id++) {
+            T entity = getEntityById(id);
+            if (entity != null) {
+                action.accept(entity, id);
+            }
+        }
+    }
+
+    // Sequential for small managers, parallel once splitting the scan pays off
+    private Stream<T> scan() {
+        return count.get() >= PARALLEL_THRESHOLD ? parallelStream() : stream();
+    }
+
+    // Number of slots currently covered by the chunk directory
+    private int capacity() {
+        long slots = (long) chunks.length << CHUNK_SHIFT;
+        return (int) Math.min(slots, Integer.MAX_VALUE);
+    }
+
+    private Object[] existingChunk(int id) {
+        if (id < 0) {
+            return null;
+        }
+        Object[][] directory = chunks;
+        int chunk = id >>> CHUNK_SHIFT;
+        return chunk < directory.length ? directory[chunk] : null;
+    }
+
+    private Object[] chunkFor(int id) {
+        Object[] chunk = existingChunk(id);
+        return chunk != null ? chunk : createChunk(id >>> CHUNK_SHIFT);
+    }
+
+    private synchronized Object[] createChunk(int chunk) {
+        Object[][] directory = chunks;
+        if (chunk >= directory.length) {
+            directory = Arrays.copyOf(directory, Math.max(directory.length * 2, chunk + 1));
+        }
+        if (directory[chunk] == null) {
+            directory[chunk] = new Object[CHUNK_SIZE];
+        }
+        chunks = directory;
+        return directory[chunk];
+    }
+
+    /**
+     * Walks a range of ID slots, skipping empty ones. Splits in half (on chunk
+     * boundaries) so parallel streams can process ranges independently.
+     */
+    private final class SlotSpliterator implements Spliterator<T> {
+
+        // Next slot to visit and end of the range (exclusive)
+        private int next;
+        private final int end;
+
+        SlotSpliterator(int from, int to) {
+            this.next = from;
+            this.end = to;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            Object[][] directory = chunks;
+            while (next < end) {
+                int id = next++;
+                int chunk = id >>> CHUNK_SHIFT;
+                if (chunk >= directory.length || directory[chunk] == null) {
+                    next = (int) Math.min(end, ((long) chunk + 1) << CHUNK_SHIFT); // skip a missing chunk at once
+                    continue;
+                }
+                @SuppressWarnings("unchecked")
+                T entity = (T) SLOT.getAcquire(directory[chunk], id & CHUNK_MASK);
+                if (entity != null) {
+                    action.accept(entity);
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public Spliterator<T> trySplit() {
+            int middle = ((next + (end - next) / 2) >>> CHUNK_SHIFT) << CHUNK_SHIFT;
+            if (middle <= next || middle >= end) {
+                return null;
+            }
+            Spliterator<T> prefix = new SlotSpliterator(next, middle);
+            next = middle;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return end - next;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | NONNULL | CONCURRENT;
+        }
     }
-}
\ No newline at end of file
+}
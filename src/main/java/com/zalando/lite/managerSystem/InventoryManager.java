@@ -1,9 +1,16 @@
 package com.zalando.lite.managerSystem;
 
+import com.zalando.lite.order.OrderItem;
+import com.zalando.lite.persistence.WriteAheadLog;
+import com.zalando.lite.products.CategoryDictionary;
+import com.zalando.lite.products.PriceColumn;
 import com.zalando.lite.products.Product;
+import com.zalando.lite.products.SizeAvailabilityIndex;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Manages the store's inventory by storing and modifying products.
@@ -17,6 +24,17 @@ import java.util.List;
  * It acts as a middle layer between the product data and other services
  * such as order creation or delivery processing.
  * <p>
+ * With a {@link WriteAheadLog}, every stock reduction is logged before it is
+ * acknowledged, so stock levels can be rebuilt after a crash
+ * (see {@link OrderManager#recover}).
+ * <p>
+ * Products can be added while orders reduce stock on other threads: the product
+ * list is copy-on-write, so adding is O(n) per call (use {@link #addProducts} for
+ * batches) while lookups never lock.
+ * <p>
+ * A {@link SizeAvailabilityIndex} tracks which products are in stock in which size,
+ * so "available in my size" listings do not walk every product's size stock.
+ * <p>
  * Concepts reinforced:
  * - Collection handling
  * - Looping and search logic
@@ -24,11 +42,25 @@ import java.util.List;
  */
 public class InventoryManager {
 
-    // Stores all products currently available in the inventory
-    private List<Product> products;
+    // Stores all products currently available in the inventory; lookups iterate a
+    // snapshot, so products may be added while orders are being placed
+    private final List<Product> products = new CopyOnWriteArrayList<>();
+
+    // Receives stock changes before they are applied; null when running in memory only
+    private final WriteAheadLog writeAheadLog;
+
+    // Per-size availability bitsets over all products
+    private final SizeAvailabilityIndex sizeAvailability = new SizeAvailabilityIndex();
+
+    // Prices grouped by category for bulk repricing; products are appended as they are added
+    private final PriceColumn priceColumn = new PriceColumn();
 
     public InventoryManager() {
-        this.products = new ArrayList<>();
+        this(null);
+    }
+
+    public InventoryManager(WriteAheadLog writeAheadLog) {
+        this.writeAheadLog = writeAheadLog;
     }
 
     /**
@@ -54,17 +86,58 @@ public class InventoryManager {
 
 
         products.add(product);
+        sizeAvailability.add(product);
+        priceColumn.add(product);
+    }
+
+    /**
+     * Adds several products at once, e.g. a batch from {@link CatalogImporter}.
+     * <p>
+     * The product list is copied once for the whole batch instead of once per product.
+     *
+     * @param batch the products to add, in order
+     */
+    public void addProducts(Collection<Product> batch) {
+        products.addAll(batch);
+        for (Product product : batch) {
+            sizeAvailability.add(product);
+        }
+        priceColumn.addAll(batch);
     }
 
-    // Helper methods
+    /**
+     * Puts every product of a category on sale, e.g. when a category-wide sale starts.
+     * <p>
+     * The sale prices are computed in one pass over the category's slice of a
+     * {@link PriceColumn}; the products' regular prices are not changed. Repricing
+     * with rate 0 ends the sale.
+     *
+     * @param category the category (case-insensitive)
+     * @param rate     the discount rate (0.0 to 1.0)
+     * @return the number of products repriced
+     * @throws IllegalArgumentException if the rate is out of range
+     */
+    public int repriceCategory(String category, double rate) {
+        return priceColumn.reprice(category, rate);
+    }
+
+    /**
+     * Returns a product's price after any category-wide sale (see {@link #repriceCategory}).
+     *
+     * @param product the product
+     * @return the sale price, or the regular price if its category is not on sale
+     */
+    public double getSalePrice(Product product) {
+        return priceColumn.getSalePrice(product);
+    }
+
+    // Helper methods (case-insensitive, compared by interned category ID)
     public boolean isClothingCategory(String category) {
-        String lowerCaseCategory = category.toLowerCase();
-        return lowerCaseCategory.equals("clothing");
+        return CategoryDictionary.CATEGORIES.find(category) == CategoryDictionary.CLOTHING;
     }
 
     public boolean isShoesCategory(String category) {
-        String lowerCaseCategory = category.toLowerCase();
-        return lowerCaseCategory.equals("Shoes");
+        return CategoryDictionary.CATEGORIES.find(category) == CategoryDictionary.SHOES;
     }
 
     /**
@@ -98,6 +171,28 @@ public class InventoryManager {
         return products;
     }
 
+    /**
+     * Lists the products that have a clothing size in stock.
+     *
+     * @param size     the size the customer wears
+     * @param category restrict to this category (case-insensitive), or null for all
+     * @return matching products, in the order they were added
+     */
+    public List<Product> findAvailableInSize(Product.CLOTH_SIZE size, String category) {
+        return sizeAvailability.findAvailable(size, category);
+    }
+
+    /**
+     * Lists the products that have a shoe size in stock.
+     *
+     * @param size     the size the customer wears
+     * @param category restrict to this category (case-insensitive), or null for all
+     * @return matching products, in the order they were added
+     */
+    public List<Product> findAvailableInSize(Product.SHOE_SIZE size, String category) {
+        return sizeAvailability.findAvailable(size, category);
+    }
+
     /**
      * Reduces the stock of a product after a purchase.
      * <p>
@@ -108,11 +203,29 @@ public class InventoryManager {
      * @return true if successful, false if insufficient stock or not found
      */
     public boolean reduceStock(int productId, int quantity) {
+        return reduceStock(productId, quantity, true);
+    }
+
+    /**
+     * Reduces stock, optionally writing the change to the write-ahead log first.
+     * Orders log their stock changes as part of the order record, so they pass false.
+     */
+    boolean reduceStock(int productId, int quantity, boolean logged) {
         for (Product product : products) {
             if (product.getId() == productId) {
-                if (product.getStock() >= quantity) {
-                    product.setStock(product.getStock() - quantity);
+                if (product.tryReduceStock(quantity)) {
+                    if (logged && writeAheadLog != null) {
+                        try {
+                            writeAheadLog.logStockDelta(productId, -quantity);
+                        } catch (RuntimeException e) {
+                            product.addStock(quantity); // not durable: undo, like an order whose log write failed
+                            throw e;
+                        }
+                    }
                     return true;
+                } else if (product.isSoldBySize()) {
+                    System.err.println("Product ID " + productId + " is sold by size; reduce the stock of a size.");
+                    return false;
                 } else {
                     System.err.println("Not enough stock for product ID: " + productId);
                     return false;
@@ -123,6 +236,57 @@ public class InventoryManager {
         return false;// product not found
     }
 
+    /**
+     * Atomically reserves the stock for one order item.
+     * <p>
+     * Items with a size reserve stock of that size (which also lowers the
+     * aggregate stock); items without a size reserve aggregate stock only, and
+     * are rejected for products sold by size.
+     * Nothing is written to the write-ahead log (orders log themselves).
+     *
+     * @param item the item to reserve
+     * @return true if reserved, false if there is not enough stock
+     */
+    boolean reserveItem(OrderItem item) {
+        Product product = item.getProduct();
+        if (item.getClothSize() != null) {
+            return product.reserve(item.getClothSize(), item.getQuantity());
+        }
+        if (item.getShoeSize() != null) {
+            return product.reserve(item.getShoeSize(), item.getQuantity());
+        }
+        return product.tryReduceStock(item.getQuantity());
+    }
+
+    /**
+     * Changes the stock targeted by an order item without checking or logging it.
+     * Used to undo reservations and while replaying the write-ahead log.
+     *
+     * @param item  the item whose product (and size) to change
+     * @param delta the signed change in stock
+     */
+    void applyItemDelta(OrderItem item, int delta) {
+        Product product = item.getProduct();
+        if (item.getClothSize() != null) {
+            product.adjustStock(item.getClothSize(), delta);
+        } else if (item.getShoeSize() != null) {
+            product.adjustStock(item.getShoeSize(), delta);
+        } else {
+            product.addStock(delta);
+        }
+    }
+
+    /**
+     * Applies a recovered stock change without checking or logging it.
+     * Used while replaying the write-ahead log.
+     *
+     * @param product the product
+     * @param delta   the signed change in stock
+     */
+    void applyStockDelta(Product product, int delta) {
+        product.addStock(delta);
+    }
+
     public List<Product> getAllProducts() {
         return new ArrayList<>(this.products); // assuming products is a List<Product>
     }
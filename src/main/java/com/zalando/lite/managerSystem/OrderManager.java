@@ -3,9 +3,17 @@ package com.zalando.lite.managerSystem;
 import com.zalando.lite.customer.Customer;
 import com.zalando.lite.order.Order;
 import com.zalando.lite.order.OrderItem;
+import com.zalando.lite.persistence.WriteAheadLog;
 import com.zalando.lite.products.Product;
+import com.zalando.lite.util.IdAllocator;
 
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntFunction;
 
 
 /**
@@ -19,10 +27,26 @@ import java.util.*;
  * <p>
  * Serves as the glue between the inventory and customer layers.
  * <p>
+ * With a {@link WriteAheadLog}, each new order (including its stock reductions) is
+ * written to the log before it is stored and returned. {@link #recover} replays the log on
+ * startup to rebuild the order history and the stock levels.
+ * <p>
+ * The log shares one fsync among all orders written at the same time, so the
+ * cost of durability drops with the number of threads placing orders. A single
+ * caller placing orders one after another still waits for one fsync per order.
+ * Bulk callers (e.g. an import) should open the log with
+ * {@code new WriteAheadLog(file, false)} and call {@link WriteAheadLog#flush()}
+ * once at the end: orders are then acknowledged before they are durable, and
+ * the whole batch shares a few fsyncs.
+ * <p>
+ * Orders can be created from several threads; each customer's order list is
+ * created once and appended to under its own lock.
+ * <p>
  * Concepts reinforced:
  * - Aggregation and system coordination
  * - Control flow with validation
  * - Data structure usage (Map for customer orders)
+ * - Concurrent maps and synchronized lists
  */
 public class OrderManager {
 
@@ -32,9 +56,17 @@ public class OrderManager {
     // Used to update inventory after order placement
     private InventoryManager inventoryManager;
 
+    // Receives new orders before they are applied; null when running in memory only
+    private final WriteAheadLog writeAheadLog;
+
     public OrderManager(InventoryManager inventoryManager) {
+        this(inventoryManager, null);
+    }
+
+    public OrderManager(InventoryManager inventoryManager, WriteAheadLog writeAheadLog) {
         this.inventoryManager = inventoryManager;
-        this.customerOrders = new HashMap<>();
+        this.customerOrders = new ConcurrentHashMap<>();
+        this.writeAheadLog = writeAheadLog;
     }
 
     /**
@@ -58,34 +90,183 @@ public class OrderManager {
             return null; // validation failed
         }
 
-        // If the validation passes, reduce stock
-        updateInventory(items);
+        // If the validation passes, reserve stock (all items or none)
+        if (!updateInventory(items)) {
+            System.err.println("Stock changed while ordering; order not created");
+            return null;
+        }
 
-        // Create and save Order
         Order order = new Order(customer, items);
 
-        List<Order> orders = customerOrders.get(customer.getId());
-        if (orders == null) {
-            orders = new ArrayList<>();
-            customerOrders.put(customer.getId(), orders);
+        // Write ahead: the order is durable before it is stored and returned
+        if (writeAheadLog != null) {
+            try {
+                logOrder(order);
+            } catch (RuntimeException e) {
+                releaseInventory(items, items.size());
+                throw e;
+            }
         }
-        orders.add(order);
+
+        // Save Order
+        storeOrder(order);
 
         System.out.println("Order created for " + customer.getName());
         return order;
 
     }
 
+    /**
+     * Rebuilds orders and stock levels from a write-ahead log.
+     * <p>
+     * Call once on startup, after the product catalog has been loaded with its
+     * initial stock and before new orders are taken. Order IDs continue after
+     * the highest recovered ID.
+     *
+     * @param logFile        the write-ahead log file
+     * @param customerLookup finds a customer by ID (returns null if unknown)
+     * @return the number of orders recovered
+     */
+    public int recover(Path logFile, IntFunction<Customer> customerLookup) {
+        return recover(logFile, 0, customerLookup);
+    }
+
+    /**
+     * Rebuilds the orders and stock changes logged after a snapshot was taken.
+     * <p>
+     * Call after {@link SnapshotManager#load} with the log position the snapshot
+     * recorded ({@link SnapshotManager#getLogPosition()}): earlier records are
+     * already part of the snapshot and are skipped, so no order is restored twice
+     * and no stock is reduced twice.
+     *
+     * @param logFile        the write-ahead log file
+     * @param fromPosition   the log position to start at (0 replays the whole log)
+     * @param customerLookup finds a customer by ID (returns null if unknown)
+     * @return the number of orders recovered
+     */
+    public int recover(Path logFile, long fromPosition, IntFunction<Customer> customerLookup) {
+        int[] recovered = {0};
+
+        // One lookup table for the whole replay instead of a catalog scan per item
+        Map<Integer, Product> productsById = new HashMap<>();
+        for (Product product : inventoryManager.getAllProducts()) {
+            productsById.put(product.getId(), product);
+        }
+
+        WriteAheadLog.replay(logFile, fromPosition, new WriteAheadLog.Listener() {
+            @Override
+            public void orderCreated(int orderId, int customerId, long epochMillis,
+                                     int[] productIds, int[] quantities, int[] sizeCodes) {
+                IdAllocator.ORDERS.advancePast(orderId);
+
+                List<OrderItem> items = new ArrayList<>(productIds.length);
+                for (int i = 0; i < productIds.length; i++) {
+                    Product product = productsById.get(productIds[i]);
+                    if (product == null) {
+                        System.err.println("Product with ID " + productIds[i] + " not found during recovery.");
+                        continue;
+                    }
+                    OrderItem item = OrderItem.withSizeCode(product, quantities[i], sizeCodes[i]);
+                    inventoryManager.applyItemDelta(item, -quantities[i]);
+                    items.add(item);
+                }
+
+                Customer customer = customerLookup.apply(customerId);
+                if (customer == null) {
+                    System.err.println("Customer with ID " + customerId + " not found; order " + orderId + " skipped.");
+                    return;
+                }
+
+                Order order = new Order();
+                order.setOrderId(orderId);
+                order.setCustomer(customer);
+                order.setItems(items);
+                order.setOrderDate(LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneOffset.UTC));
+                storeOrder(order);
+                recovered[0]++;
+            }
+
+            @Override
+            public void stockDelta(int productId, int delta) {
+                Product product = productsById.get(productId);
+                if (product == null) {
+                    System.err.println("Product with ID " + productId + " not found during recovery.");
+                    return;
+                }
+                inventoryManager.applyStockDelta(product, delta);
+            }
+        });
+        return recovered[0];
+    }
+
     /**
      * Retrieves all orders placed by a specific customer.
      *
      * @param customerId the ID of the customer
-     * @return a list of their orders, or an empty list if none exist
+     * @return a copy of their orders, or an empty list if none exist
      */
     public List<Order> getOrdersForCustomer(int customerId) {
-        return customerOrders.getOrDefault(
-                customerId, new ArrayList<>()
-        );
+        List<Order> orders = customerOrders.get(customerId);
+        if (orders == null) {
+            return new ArrayList<>();
+        }
+        synchronized (orders) {
+            return new ArrayList<>(orders);
+        }
+    }
+
+    /**
+     * Returns every order across all customers as one flat list.
+     * <p>
+     * Used by reporting code that needs to partition the full order history.
+     *
+     * @return a new list containing all stored orders
+     */
+    public List<Order> getAllOrders() {
+        List<Order> allOrders = new ArrayList<>();
+        for (List<Order> orders : customerOrders.values()) {
+            synchronized (orders) {
+                allOrders.addAll(orders);
+            }
+        }
+        return allOrders;
+    }
+
+    // Returns the write-ahead log orders are written to (null when running in memory only)
+    WriteAheadLog getWriteAheadLog() {
+        return writeAheadLog;
+    }
+
+    /**
+     * Adds a previously created order (e.g. loaded from a snapshot) without
+     * touching stock or the write-ahead log.
+     *
+     * @param order the restored order
+     */
+    void restoreOrder(Order order) {
+        storeOrder(order);
+    }
+
+    // Adds an order to its customer's order list
+    private void storeOrder(Order order) {
+        customerOrders.computeIfAbsent(order.getCustomer().getId(),
+                id -> Collections.synchronizedList(new ArrayList<>())).add(order);
+    }
+
+    // Writes an order and its items to the write-ahead log
+    private void logOrder(Order order) {
+        List<OrderItem> items = order.getItems();
+        int[] productIds = new int[items.size()];
+        int[] quantities = new int[items.size()];
+        int[] sizeCodes = new int[items.size()];
+        for (int i = 0; i < items.size(); i++) {
+            productIds[i] = items.get(i).getProduct().getId();
+            quantities[i] = items.get(i).getQuantity();
+            sizeCodes[i] = items.get(i).getSizeCode();
+        }
+        long epochMillis = order.getOrderDate().toInstant(ZoneOffset.UTC).toEpochMilli();
+        writeAheadLog.logOrderCreated(order.getOrderId(), order.getCustomer().getId(), epochMillis,
+                productIds, quantities, sizeCodes);
     }
 
     /**
@@ -99,7 +280,11 @@ public class OrderManager {
             Product product = item.getProduct();
             int orderedQty = item.getQuantity();
 
-            if (product.getStock() < orderedQty) {
+            if (product.isSoldBySize() && item.getSizeCode() == OrderItem.NO_SIZE) {
+                System.err.println("Choose a size for " + product.getName());
+                return false;
+            }
+            if (availableStock(item) < orderedQty) {
                 System.err.println("Not enough " + product.getName() + " in stock ");
                 return false;
             }
@@ -107,17 +292,41 @@ public class OrderManager {
         return true;
     }
 
+    // Stock available for an item: of its size if it has one, otherwise overall
+    private static int availableStock(OrderItem item) {
+        Product product = item.getProduct();
+        if (item.getClothSize() != null) {
+            return product.getStock(item.getClothSize());
+        }
+        if (item.getShoeSize() != null) {
+            return product.getStock(item.getShoeSize());
+        }
+        return product.getStock();
+    }
+
     /**
      * Optional helper: Updates inventory after successful order.
+     * <p>
+     * Each item is reserved atomically; if one fails (another order took the
+     * stock in the meantime), the items reserved so far are released again.
      *
      * @param items the list of items whose stock should be reduced
+     * @return true if every item was reserved
      */
-    private void updateInventory(List<OrderItem> items) {
-        for (OrderItem item : items) {
-            Product product = item.getProduct();
-            int orderedQty = item.getQuantity();
+    private boolean updateInventory(List<OrderItem> items) {
+        for (int i = 0; i < items.size(); i++) {
+            if (!this.inventoryManager.reserveItem(items.get(i))) {
+                releaseInventory(items, i);
+                return false;
+            }
+        }
+        return true;
+    }
 
-            this.inventoryManager.reduceStock(product.getId(), orderedQty);
+    // Gives back the stock of the first {@code count} items
+    private void releaseInventory(List<OrderItem> items, int count) {
+        for (int i = 0; i < count; i++) {
+            this.inventoryManager.applyItemDelta(items.get(i), items.get(i).getQuantity());
         }
     }
 
@@ -0,0 +1,140 @@
+package com.zalando.lite.managerSystem;
+
+import com.zalando.lite.discountSystem.DiscountRules;
+import com.zalando.lite.products.Product;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.ToDoubleBiFunction;
+
+/**
+ * Memoizes final (discounted) prices per customer segment and product.
+ * <p>
+ * The discount of a product only depends on the customer's segment (VIP or not),
+ * the product's price and category, and the discount rules. So for each segment
+ * the cache keeps a {@code double[]} of final prices indexed by product ID, plus an
+ * {@code int[]} of stamps recording which {@link Product#getPricingVersion()} each
+ * price was computed for. A slot also remembers the product object it was computed
+ * for: two objects may share an ID (e.g. every no-arg {@code Product} has ID 0, or a
+ * restored copy replaces the original) and their versions may match by chance.
+ * <p>
+ * Invalidation:
+ * - {@link Product#setPrice} and {@link Product#setCategory} bump the product's
+ *   pricing version, so its cached prices no longer match and are recomputed
+ * - The arrays belong to one {@link DiscountRules} snapshot; when other rules are
+ *   published, the next lookup starts over with empty arrays
+ * <p>
+ * Each slot works like a small sequence lock: a writer first claims the slot's
+ * stamp with a compare-and-set, writes the price and then publishes the stamp;
+ * a reader checks the stamp before and after reading the price. Readers never
+ * block, and a slot that is being written simply counts as a miss.
+ * <p>
+ * Concepts reinforced:
+ * - Memoization
+ * - Version stamps
+ * - VarHandle memory ordering
+ */
+class PriceCache {
+
+    // Segments: index 0 = regular customers, 1 = VIP customers
+    private static final int SEGMENTS = 2;
+
+    // Stamp of a slot that was never filled, and of a slot being written
+    private static final int EMPTY = 0;
+    private static final int LOCKED = -1;
+
+    private static final VarHandle PRICE = MethodHandles.arrayElementVarHandle(double[].class);
+    private static final VarHandle STAMP = MethodHandles.arrayElementVarHandle(int[].class);
+    private static final VarHandle OWNER = MethodHandles.arrayElementVarHandle(Product[].class);
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final AtomicReference<Table> table = new AtomicReference<>();
+
+    /**
+     * Returns the cached final price, computing and caching it on a miss.
+     *
+     * @param rules   the rules currently in effect
+     * @param vip     the customer's segment
+     * @param product the product
+     * @param compute computes the final price of the product under the given rules
+     * @return the final price
+     */
+    double get(DiscountRules rules, boolean vip, Product product,
+               ToDoubleBiFunction<DiscountRules, Product> compute) {
+        int id = product.getId();
+        if (id < 0) {
+            return compute.applyAsDouble(rules, product);
+        }
+        Table current = tableFor(rules, id);
+        int segment = vip ? 1 : 0;
+        double[] prices = current.prices[segment];
+        int[] stamps = current.stamps[segment];
+        Product[] owners = current.owners[segment];
+
+        // Read the version before the price, so a price read after it is at least as new
+        int stamp = product.getPricingVersion() + 1; // never EMPTY
+        if ((int) STAMP.getAcquire(stamps, id) == stamp) {
+            double price = (double) PRICE.getOpaque(prices, id);
+            Object owner = OWNER.getOpaque(owners, id);
+            VarHandle.acquireFence();
+            if ((int) STAMP.getOpaque(stamps, id) == stamp && owner == product) {
+                return price;
+            }
+        }
+
+        double price = compute.applyAsDouble(rules, product);
+        int previous = (int) STAMP.getVolatile(stamps, id);
+        if (previous != LOCKED && STAMP.compareAndSet(stamps, id, previous, LOCKED)) {
+            PRICE.setOpaque(prices, id, price);
+            OWNER.setOpaque(owners, id, product);
+            STAMP.setRelease(stamps, id, stamp);
+        }
+        return price;
+    }
+
+    // Returns the number of product slots per segment (for tests and diagnostics)
+    int capacity() {
+        Table current = table.get();
+        return current == null ? 0 : current.prices[0].length;
+    }
+
+    // Returns a table for the rules that has a slot for the ID, replacing stale or small tables
+    private Table tableFor(DiscountRules rules, int id) {
+        while (true) {
+            Table current = table.get();
+            if (current != null && current.rules == rules && id < current.prices[0].length) {
+                return current;
+            }
+            int capacity = current == null ? INITIAL_CAPACITY : current.prices[0].length;
+            while (capacity <= id) {
+                capacity = capacity > Integer.MAX_VALUE / 2 ? Integer.MAX_VALUE - 8 : capacity * 2;
+            }
+            // Cached prices are not carried over; they are recomputed on demand
+            Table fresh = new Table(rules, capacity);
+            if (table.compareAndSet(current, fresh)) {
+                return fresh;
+            }
+        }
+    }
+
+    /**
+     * Price and stamp arrays of all segments for one rule snapshot.
+     */
+    private static final class Table {
+        final DiscountRules rules;
+        final double[][] prices = new double[SEGMENTS][];
+        final int[][] stamps = new int[SEGMENTS][];
+        final Product[][] owners = new Product[SEGMENTS][];
+
+        Table(DiscountRules rules, int capacity) {
+            this.rules = rules;
+            for (int segment = 0; segment < SEGMENTS; segment++) {
+                prices[segment] = new double[capacity];
+                stamps[segment] = new int[capacity]; // all EMPTY
+                owners[segment] = new Product[capacity];
+            }
+        }
+    }
+}
@@ -1,12 +1,21 @@
 package com.zalando.lite.managerSystem;
 
+import com.zalando.lite.courier.Courier;
 import com.zalando.lite.delivery.Delivery;
+import com.zalando.lite.delivery.DeliveryService;
+import com.zalando.lite.order.Order;
+import com.zalando.lite.order.OrderItem;
+import com.zalando.lite.products.CategoryDictionary;
+import com.zalando.lite.products.Product;
 
 import java.io.FileWriter;
 import java.io.IOException;
 import java.time.*;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Collectors;
 
 /**
  * Handles writing delivery reports to a text file.
@@ -26,6 +35,12 @@ import java.util.*;
  */
 public class ReportManager {
 
+    // Number of products listed in the "top products" section of a business report
+    private static final int TOP_PRODUCTS_LIMIT = 10;
+
+    // High-water mark: change sequence of the newest delivery already exported
+    private long lastExportedSequence = 0;
+
     /**
      * Writes a list of deliveries to a text file.
      *
@@ -50,6 +65,165 @@ public class ReportManager {
         }
     }
 
+    /**
+     * Writes only the deliveries created or changed since the last delta export.
+     * <p>
+     * The report manager remembers the highest change sequence it has exported
+     * (its high-water mark). Each call asks the delivery service for the journal tail
+     * after that mark, writes those deliveries, and moves the mark forward.
+     * The mark only moves if the file was written successfully.
+     *
+     * @param deliveryService the service journaling delivery changes
+     * @param filePath        path to the file where the delta report should be saved
+     * @return the number of deliveries exported
+     */
+    public int exportDeltaReport(DeliveryService deliveryService, String filePath) {
+        NavigableMap<Long, Delivery> changed = deliveryService.getChangesSince(lastExportedSequence);
+
+        if (changed.isEmpty()) {
+            System.out.println("No new or changed deliveries since last export.");
+            return 0;
+        }
+
+        // The mark comes from the journal entries read above: a delivery changed
+        // while writing has a higher sequence and is exported next time
+        long newMark = changed.lastKey();
+        try (FileWriter writer = new FileWriter(filePath)) {
+            for (Delivery delivery : changed.values()) {
+                writer.write(delivery.toString());
+                writer.write(System.lineSeparator());
+            }
+        } catch (IOException e) {
+            System.out.println(" Failed to write delta report " + e.getMessage());
+            return 0;
+        }
+
+        lastExportedSequence = newMark;
+        System.out.println("Delta report (" + changed.size() + " deliveries) exported to: " + filePath);
+        return changed.size();
+    }
+
+    // Returns the change sequence of the newest delivery already exported
+    public long getLastExportedSequence() {
+        return lastExportedSequence;
+    }
+
+    // Forgets the high-water mark so the next delta export contains everything
+    public void resetExportMark() {
+        lastExportedSequence = 0;
+    }
+
+    /**
+     * Builds a consolidated business report from all managers.
+     * <p>
+     * Each section is computed as its own task on the common fork/join pool, and each
+     * task uses a parallel stream over the (partitioned) order or product list.
+     * The partial results are merged with concurrent collectors, so the whole report
+     * scales with the number of available cores.
+     *
+     * @param orderManager     source of all orders
+     * @param inventoryManager source of the product catalog
+     * @param reviewManager    source of product reviews
+     * @param deliveryService  source of courier information
+     * @return the merged report
+     */
+    public BusinessReport generateBusinessReport(OrderManager orderManager,
+                                                 InventoryManager inventoryManager,
+                                                 ReviewManager reviewManager,
+                                                 DeliveryService deliveryService) {
+        List<Order> orders = orderManager.getAllOrders();
+        List<Product> products = inventoryManager.getAllProducts();
+        List<Courier> couriers = new ArrayList<>(deliveryService.getAllCouriers());
+        DiscountManager discountManager = new DiscountManager();
+
+        // Revenue per customer
+        CompletableFuture<Map<Integer, Double>> revenue = CompletableFuture.supplyAsync(() ->
+                orders.parallelStream()
+                        .filter(order -> order.getCustomer() != null)
+                        .collect(Collectors.groupingByConcurrent(
+                                order -> order.getCustomer().getId(),
+                                Collectors.summingDouble(Order::calculateTotal))));
+
+        // Units sold per product, sorted best-selling first
+        CompletableFuture<Map<Integer, Integer>> topProducts = CompletableFuture.supplyAsync(() -> {
+            ConcurrentMap<Integer, Integer> unitsSold = orders.parallelStream()
+                    .flatMap(order -> order.getItems().stream())
+                    .collect(Collectors.groupingByConcurrent(
+                            item -> item.getProduct().getId(),
+                            Collectors.summingInt(OrderItem::getQuantity)));
+
+            return unitsSold.entrySet().stream()
+                    .sorted(Map.Entry.<Integer, Integer>comparingByValue().reversed())
+                    .limit(TOP_PRODUCTS_LIMIT)
+                    .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue,
+                            (a, b) -> a, LinkedHashMap::new));
+        });
+
+        // Discount amount per category (total is summed from it afterwards), grouped by
+        // interned category ID and keyed by the normalized category name at the end
+        CompletableFuture<Map<String, Double>> discounts = CompletableFuture.supplyAsync(() ->
+                orders.parallelStream()
+                        .filter(order -> order.getCustomer() != null)
+                        .flatMap(order -> order.getItems().stream()
+                                .map(item -> Map.entry(item, discountManager.calculateDiscountRate(
+                                        order.getCustomer(), item.getProduct()))))
+                        .collect(Collectors.groupingByConcurrent(
+                                entry -> entry.getKey().getProduct().getCategoryId(),
+                                Collectors.summingDouble(entry ->
+                                        entry.getKey().getSubtotal() * Math.min(1.0, entry.getValue()))))
+                        .entrySet().stream()
+                        .collect(Collectors.toMap(
+                                entry -> CategoryDictionary.CATEGORIES.nameOf(entry.getKey()),
+                                Map.Entry::getValue)));
+
+        // Orders handled per courier
+        CompletableFuture<Map<Integer, Long>> ordersPerCourier = CompletableFuture.supplyAsync(() ->
+                orders.parallelStream()
+                        .filter(order -> order.getCourier() != null)
+                        .collect(Collectors.groupingByConcurrent(
+                                order -> order.getCourier().getId(),
+                                Collectors.counting())));
+
+        // Average rating per catalog product
+        CompletableFuture<Map<Integer, Double>> ratings = CompletableFuture.supplyAsync(() ->
+                products.parallelStream()
+                        .filter(product -> reviewManager.getReviewCount(product.getId()) > 0)
+                        .collect(Collectors.toConcurrentMap(
+                                Product::getId,
+                                product -> reviewManager.getAverageRating(product.getId()),
+                                (a, b) -> a)));
+
+        int busyCouriers = (int) couriers.stream().filter(courier -> !courier.isAvailable()).count();
+
+        Map<String, Double> discountPerCategory = discounts.join();
+        double totalDiscount = discountPerCategory.values().stream().mapToDouble(Double::doubleValue).sum();
+
+        return new BusinessReport(
+                new TreeMap<>(revenue.join()),
+                topProducts.join(),
+                totalDiscount,
+                new TreeMap<>(discountPerCategory),
+                couriers.size(),
+                busyCouriers,
+                new TreeMap<>(ordersPerCourier.join()),
+                new TreeMap<>(ratings.join()));
+    }
+
+    /**
+     * Writes a business report to a text file.
+     *
+     * @param report   the report to write
+     * @param filePath path to the file where the report should be saved
+     */
+    public void exportBusinessReport(BusinessReport report, String filePath) {
+        try (FileWriter writer = new FileWriter(filePath)) {
+            writer.write(report.toString());
+            System.out.println("Business report exported to: " + filePath);
+        } catch (IOException e) {
+            System.out.println(" Failed to write business report " + e.getMessage());
+        }
+    }
+
     /**
      * Optional: Helper to generate a default file path based on timestamp.
      *
@@ -1,8 +1,17 @@
 package com.zalando.lite.managerSystem;
 
+import com.zalando.lite.review.ProductReviews;
 import com.zalando.lite.review.Review;
+import com.zalando.lite.review.ReviewPage;
+import com.zalando.lite.review.ReviewRanking;
+import com.zalando.lite.review.ReviewRanking.RankedProduct;
+import com.zalando.lite.review.ReviewSearchIndex;
+import com.zalando.lite.review.ReviewSortOrder;
+import com.zalando.lite.review.ReviewStats;
+import com.zalando.lite.review.ReviewStore;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 
 /**
@@ -12,80 +21,277 @@ import java.util.*;
  * - Adding new reviews to a product
  * - Retrieving all reviews for a given product
  * <p>
- * Internally, it uses a map where each key is a product ID, and the value is
- * a list of reviews associated with that product.
+ * Internally, it uses a concurrent map where each key is a product ID, and the value is
+ * an append-only {@link ProductReviews} segment holding that product's reviews.
  * <p>
  * This design allows fast lookup and supports multiple reviews per product.
+ * Many threads can add reviews at the same time: writers for different products
+ * never contend, and readers get stable snapshots without locking.
+ * <p>
+ * Each segment also keeps a {@link ReviewStats} object with running counts (number
+ * of reviews, rating sum, 1–5 star histogram), so average rating and rating
+ * distribution queries are O(1) without iterating the reviews.
+ * <p>
+ * A {@link ReviewRanking} is updated on every added review, so "top rated products"
+ * queries (optionally per category) only read the head of a sorted index.
+ * <p>
+ * For popular products, {@link #getReviewsPage} pages through reviews newest first
+ * or highest rated first using a cursor, touching only the reviews on the page.
+ * <p>
+ * Review data is kept in a compact, column-oriented {@link ReviewStore} that gives
+ * every review a global ID; segments and indexes only hold these int IDs, and
+ * {@code Review} objects are materialized when read. Reviews are therefore
+ * immutable once added: changing a returned {@code Review} does not change the store.
+ * <p>
+ * Every comment is also added to a {@link ReviewSearchIndex}, so {@link #searchReviews}
+ * finds reviews by words across all products without scanning them.
  * <p>
  * Concepts reinforced:
- * - Nested collections (`Map<Integer, List<Review>>`)
+ * - Nested collections (`Map<Integer, ProductReviews>`)
+ * - Concurrent collections
  * - Data retrieval patterns
  * - Collection initialization and null checks
  */
 public class ReviewManager {
 
-    // Stores reviews by product ID
-    private Map<Integer, List<Review>> reviewMap;
+    // Stores review segments by product ID
+    private final Map<Integer, ProductReviews> reviewMap;
+
+    // All review data (column store), by global review ID
+    private final ReviewStore reviewStore = new ReviewStore();
+
+    // Full-text index over review comments
+    private final ReviewSearchIndex searchIndex = new ReviewSearchIndex();
+
+    // Top-rated products index, updated incrementally on every review
+    private final ReviewRanking ranking = new ReviewRanking();
+
+    // Number of reviews printed per page on the console
+    private static final int PRINT_PAGE_SIZE = 20;
+
+    // Shared stats returned for products without reviews; callers cannot record into it
+    private static final ReviewStats NO_REVIEWS = new ReviewStats();
 
     public ReviewManager() {
-        this.reviewMap = new HashMap<>();
+        this.reviewMap = new ConcurrentHashMap<>();
     }
 
     /**
      * Adds a review to the map, linked by the product's ID.
-     * Initializes a new list if it's the first review for the product.
+     * Atomically creates a new segment if it's the first review for the product.
+     * Safe to call from many threads at once.
      *
      * @param review the review to add
      */
 
 
     public void addReview(Review review) {
+        if (!ReviewStats.isValidRating(review.getRating())) {
+            System.err.println("Invalid rating (" + review.getRating() + "). Rating must be between 1 and 5.");
+            return;
+        }
+
         // Get product ID from review
         int productId = review.getProduct().getId();
 
-        // Check if review list exists for this product
-        // If not, create a new list
-        List<Review> reviews = reviewMap.get(productId);
+        // Give the review its global ID
+        int reviewId = reviewStore.append(review);
 
-        if (reviews == null) {
-            reviews = new ArrayList<>();
-            reviewMap.put(productId, reviews);
-        }
-        //Add review to the list
-        reviews.add(review);
+        // Get or atomically create the segment for this product,
+        // then append the review (this also updates the running statistics)
+        ProductReviews reviews = reviewMap.computeIfAbsent(productId, id -> new ProductReviews(reviewStore));
+        reviews.append(reviewId);
+
+        // Re-rank the product with its new statistics
+        ranking.update(productId, review.getProduct().getCategory(), reviews.getStats());
+
+        // Make the comment searchable
+        searchIndex.add(reviewId, review.getComment());
     }
 
     /**
      * Retrieves all reviews for a specific product by ID.
      *
+     * The returned list is a read-only snapshot: reviews added afterwards are not
+     * included, and it is safe to iterate while other threads keep adding reviews.
+     *
      * @param productId the ID of the product to look up
      * @return list of reviews or empty list if none exist
      */
     public List<Review> getReviewsForProduct(int productId) {
-        // Return the list from the map
-        List<Review> reviews = reviewMap.get(productId);
+        // Return a snapshot of the segment from the map
+        ProductReviews reviews = reviewMap.get(productId);
         // If no reviews exist, return an empty list instead of null
         if (reviews == null) {
-            return new ArrayList<>();
+            return Collections.emptyList();
         }
-        return reviews;
+        return reviews.snapshot();
     }
 
     /**
-     * Optional: Print all reviews in a formatted way for CLI.
+     * Retrieves one page of a product's reviews.
+     * <p>
+     * Start with {@link ReviewPage#FIRST_PAGE} and pass each page's
+     * {@link ReviewPage#getNextCursor()} back in to get the following page.
+     * The cost is proportional to the page size, not to the number of reviews.
+     *
+     * @param productId the ID of the product to look up
+     * @param order     newest first or highest rated first
+     * @param cursor    where to continue from
+     * @param pageSize  maximum number of reviews to return
+     * @return the requested page (empty if the product has no reviews)
+     */
+    public ReviewPage getReviewsPage(int productId, ReviewSortOrder order, int cursor, int pageSize) {
+        ProductReviews reviews = reviewMap.get(productId);
+        if (reviews == null) {
+            return ReviewPage.empty();
+        }
+        return reviews.page(order, cursor, pageSize);
+    }
+
+    /**
+     * Searches review comments across all products.
+     * <p>
+     * The query is split into words (case-insensitive). Matching reviews come from the
+     * inverted index, and only the best {@code limit} of them are kept while ranking
+     * (a bounded heap), so large result sets are cheap to rank.
+     *
+     * @param query    free text, e.g. "runs small"
+     * @param matchAll true = review must contain all words (AND), false = any word (OR)
+     * @param order    rank by recency or by rating
+     * @param limit    maximum number of reviews to return
+     * @return matching reviews, best match first
+     */
+    public List<Review> searchReviews(String query, boolean matchAll, ReviewSortOrder order, int limit) {
+        int[] matches = matchAll ? searchIndex.searchAll(query) : searchIndex.searchAny(query);
+        if (matches.length == 0 || limit <= 0) {
+            return Collections.emptyList();
+        }
+
+        Comparator<Integer> bestFirst = searchOrder(order);
+
+        // Keep the best `limit` IDs; the heap's head is the worst of them
+        PriorityQueue<Integer> best = new PriorityQueue<>(Math.min(limit, matches.length) + 1, bestFirst.reversed());
+        for (int reviewId : matches) {
+            best.add(reviewId);
+            if (best.size() > limit) {
+                best.poll();
+            }
+        }
+
+        List<Integer> ids = new ArrayList<>(best);
+        ids.sort(bestFirst);
+
+        List<Review> result = new ArrayList<>(ids.size());
+        for (int reviewId : ids) {
+            result.add(reviewStore.get(reviewId));
+        }
+        return result;
+    }
+
+    // Best-first ordering of review IDs for search results
+    private Comparator<Integer> searchOrder(ReviewSortOrder order) {
+        Comparator<Integer> newestFirst = Comparator.<Integer>comparingLong(reviewStore::timeOf).reversed()
+                .thenComparing(Comparator.reverseOrder());
+        if (order == ReviewSortOrder.HIGHEST_RATED_FIRST) {
+            return Comparator.<Integer>comparingInt(reviewStore::ratingOf).reversed().thenComparing(newestFirst);
+        }
+        return newestFirst;
+    }
+
+    /**
+     * Returns the running rating statistics for a product.
+     * <p>
+     * The returned object is live and read-only (ratings are only recorded by the review package).
+     *
+     * @param productId the ID of the product
+     * @return the product's statistics, or an empty statistics object if there are no reviews
+     */
+    public ReviewStats getReviewStats(int productId) {
+        ProductReviews reviews = reviewMap.get(productId);
+        return reviews == null ? NO_REVIEWS : reviews.getStats();
+    }
+
+    /**
+     * Returns the average rating of a product in O(1).
+     *
+     * @param productId the ID of the product
+     * @return the average rating, or 0.0 if there are no reviews
+     */
+    public double getAverageRating(int productId) {
+        return getReviewStats(productId).getAverage();
+    }
+
+    /**
+     * Returns the number of reviews of a product in O(1).
+     *
+     * @param productId the ID of the product
+     * @return the review count
+     */
+    public int getReviewCount(int productId) {
+        return getReviewStats(productId).getCount();
+    }
+
+    /**
+     * Returns how many reviews of a product gave exactly the given number of stars.
+     *
+     * @param productId the ID of the product
+     * @param stars     a star rating between 1 and 5
+     * @return the number of matching reviews
+     */
+    public int getRatingCount(int productId, int stars) {
+        return getReviewStats(productId).getRatingCount(stars);
+    }
+
+    /**
+     * Returns the best rated products across the whole catalog.
+     *
+     * @param limit      maximum number of products to return
+     * @param minReviews minimum number of reviews a product needs to be ranked
+     * @return up to {@code limit} products, highest average rating first
+     */
+    public List<RankedProduct> getTopRatedProducts(int limit, int minReviews) {
+        return ranking.top(limit, minReviews, null);
+    }
+
+    /**
+     * Returns the best rated products of one category (case-insensitive).
+     *
+     * @param limit      maximum number of products to return
+     * @param minReviews minimum number of reviews a product needs to be ranked
+     * @param category   the category to rank, e.g. "Shoes"
+     * @return up to {@code limit} products, highest average rating first
+     */
+    public List<RankedProduct> getTopRatedProducts(int limit, int minReviews, String category) {
+        return ranking.top(limit, minReviews, category);
+    }
+
+    // Returns the column store holding every review (used for snapshots)
+    ReviewStore getReviewStore() {
+        return reviewStore;
+    }
+
+    /**
+     * Optional: Print the newest reviews in a formatted way for CLI.
      * Useful for menus or reports.
+     * <p>
+     * Only the first page is printed, so popular products don't flood the console.
      */
     public void printReviewsForProduct(int productId) {
-        // Get and print each review from the list
-        List<Review> reviews = reviewMap.get(productId);
+        // Get and print each review from the first page
+        ReviewPage page = getReviewsPage(productId, ReviewSortOrder.NEWEST_FIRST, ReviewPage.FIRST_PAGE, PRINT_PAGE_SIZE);
 
-        if (reviews == null || reviews.isEmpty()) {
+        if (page.getReviews().isEmpty()) {
             System.out.println("No reviews found for product ID: " + productId);
+            return;
         }
 
-        System.out.println("Reviews for product ID " + productId + ":");
-        for (Review review : reviews) {
+        System.out.println("Reviews for product ID " + productId + " (newest first):");
+        for (Review review : page.getReviews()) {
             System.out.println(review);
         }
+        if (page.hasMore()) {
+            System.out.println("... " + (getReviewCount(productId) - page.getReviews().size()) + " more");
+        }
     }
 }
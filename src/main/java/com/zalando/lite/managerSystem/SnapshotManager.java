@@ -0,0 +1,517 @@
+package com.zalando.lite.managerSystem;
+
+import com.zalando.lite.customer.Customer;
+import com.zalando.lite.order.Order;
+import com.zalando.lite.order.OrderItem;
+import com.zalando.lite.persistence.WriteAheadLog;
+import com.zalando.lite.products.Product;
+import com.zalando.lite.review.Review;
+import com.zalando.lite.review.ReviewStore;
+import com.zalando.lite.util.IdAllocator;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+
+/**
+ * Saves and restores the whole store (customers, products, orders and reviews)
+ * as one compact binary snapshot file.
+ * <p>
+ * Writing goes through a {@link FileChannel} with one large direct buffer, and the
+ * file is first written under a temporary name and then atomically renamed, so a
+ * crash never leaves a half-written snapshot behind.
+ * Loading memory-maps the file and decodes it in a single sequential pass, which
+ * is much faster than replaying every operation that built the state.
+ * <p>
+ * File layout (big-endian):
+ * - Header: magic number, format version, write-ahead log position
+ * - Customers: count, then ID, name, email, VIP flag, favorite categories
+ * - Products: count, then ID, name, category, price, stock, clothing stock, shoe stock
+ * - Orders: count, then ID, customer ID, order time, items (product ID, quantity, size code)
+ * - Reviewers: count, then the same fields as customers, for reviewers that are not
+ *   registered customers (e.g. a no-arg {@code Customer})
+ * - Reviews: count, then product ID, reviewer kind (none, customer ID or reviewer index)
+ *   and value, rating, time, comment
+ * <p>
+ * Strings are stored as length + UTF-8 bytes (length -1 means null). Orders and
+ * reviews refer to customers and products by ID. Snapshot files are limited to 2 GB
+ * (one mapped buffer).
+ * <p>
+ * If the {@link OrderManager} writes to a {@link WriteAheadLog}, the snapshot records
+ * the log position it covers. After loading, pass {@link #getLogPosition()} to
+ * {@link OrderManager#recover(Path, long, java.util.function.IntFunction)} so only
+ * the records written after the snapshot are replayed.
+ * <p>
+ * Concepts reinforced:
+ * - NIO channels and memory-mapped files
+ * - Binary file formats
+ */
+public class SnapshotManager {
+
+    // "ZLS1" — identifies snapshot files
+    private static final int MAGIC = 0x5A4C5331;
+    private static final int VERSION = 3;
+
+    // Version 1 files have no log position (their log is replayed from the start)
+    private static final int VERSION_WITHOUT_LOG_POSITION = 1;
+
+    // Version 2 files refer to reviewers by customer ID only and have no reviewer section
+    private static final int VERSION_WITHOUT_REVIEWERS = 2;
+
+    // How a review refers to its customer
+    private static final byte NO_REVIEWER = 0;
+    private static final byte REGISTERED_REVIEWER = 1;
+    private static final byte LISTED_REVIEWER = 2;
+
+    // Size of the write buffer
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    // Marks null strings, collections and timestamps
+    private static final int NULL_LENGTH = -1;
+    private static final long NO_TIME = Long.MIN_VALUE;
+    private static final int NO_CUSTOMER = -1;
+
+    private final CustomerManager customerManager;
+    private final InventoryManager inventoryManager;
+    private final OrderManager orderManager;
+    private final ReviewManager reviewManager;
+
+    // Write-ahead log position covered by the last saved or loaded snapshot
+    private long logPosition;
+
+    public SnapshotManager(CustomerManager customerManager, InventoryManager inventoryManager,
+                           OrderManager orderManager, ReviewManager reviewManager) {
+        this.customerManager = customerManager;
+        this.inventoryManager = inventoryManager;
+        this.orderManager = orderManager;
+        this.reviewManager = reviewManager;
+    }
+
+    /**
+     * Writes a snapshot of the whole store.
+     * <p>
+     * Should be called while no other thread is changing the store, so the
+     * snapshot is consistent and covers exactly the write-ahead log records
+     * written so far.
+     *
+     * @param file the snapshot file (replaced if it exists)
+     * @return true if the snapshot was written, false if writing failed
+     */
+    public boolean save(Path file) {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        WriteAheadLog log = orderManager.getWriteAheadLog();
+        long position;
+
+        try (FileChannel channel = FileChannel.open(temp,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            position = log != null ? log.position() : 0; // everything logged so far is in the state below
+            Writer out = new Writer(channel);
+            out.ensure(16).putInt(MAGIC).putInt(VERSION).putLong(position);
+
+            List<Customer> customers = List.copyOf(customerManager.getAllCustomers().values()); // stable count
+            writeCustomers(out, customers);
+            writeProducts(out, inventoryManager.getAllProducts());
+            writeOrders(out, orderManager.getAllOrders());
+            writeReviews(out, reviewManager.getReviewStore(), customers);
+
+            out.flush();
+            channel.force(true);
+        } catch (IOException | UncheckedIOException e) {
+            System.err.println("Failed to write snapshot " + file + ": " + e.getMessage());
+            return false;
+        }
+
+        try {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            logPosition = position;
+            return true;
+        } catch (IOException e) {
+            System.err.println("Failed to replace snapshot " + file + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    // Returns the write-ahead log position covered by the last saved or loaded snapshot (0 if none)
+    public long getLogPosition() {
+        return logPosition;
+    }
+
+    /**
+     * Restores a snapshot into the (empty) managers.
+     * <p>
+     * ID allocators are advanced past every restored ID, so new entities do not
+     * collide with restored ones.
+     *
+     * @param file the snapshot file
+     * @return true if the snapshot was loaded, false if it is missing or invalid
+     */
+    public boolean load(Path file) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                System.err.println("Snapshot " + file + " is too large to map.");
+                return false;
+            }
+            MappedByteBuffer in = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+            int version = in.remaining() < 8 || in.getInt() != MAGIC ? 0 : in.getInt();
+            if (version < VERSION_WITHOUT_LOG_POSITION || version > VERSION) {
+                System.err.println("Not a snapshot file (or unsupported version): " + file);
+                return false;
+            }
+            long position = version == VERSION_WITHOUT_LOG_POSITION ? 0 : in.getLong();
+
+            Map<Integer, Customer> customers = readCustomers(in);
+            Map<Integer, Product> products = readProducts(in);
+            readOrders(in, customers, products);
+            if (version == VERSION) {
+                readReviews(in, customers, readReviewers(in), products);
+            } else {
+                readReviewsByCustomerId(in, customers, products);
+            }
+            logPosition = position;
+            return true;
+        } catch (IOException e) {
+            System.err.println("Failed to read snapshot " + file + ": " + e.getMessage());
+            return false;
+        } catch (BufferUnderflowException e) {
+            System.err.println("Snapshot " + file + " is truncated.");
+            return false;
+        }
+    }
+
+    // -----------------------------------------------------
+    // ---- Writing
+    // -----------------------------------------------------
+
+    private static void writeCustomers(Writer out, Collection<Customer> customers) throws IOException {
+        out.ensure(4).putInt(customers.size());
+        for (Customer customer : customers) {
+            writeCustomer(out, customer);
+        }
+    }
+
+    private static void writeCustomer(Writer out, Customer customer) throws IOException {
+        out.ensure(4).putInt(customer.getId());
+        out.putString(customer.getName());
+        out.putString(customer.getEmail());
+        out.ensure(1).put((byte) (customer.isVip() ? 1 : 0));
+
+        List<String> favorites = customer.getFavoriteCategories();
+        out.ensure(4).putInt(favorites.size());
+        for (String category : favorites) {
+            out.putString(category);
+        }
+    }
+
+    private static void writeProducts(Writer out, List<Product> products) throws IOException {
+        out.ensure(4).putInt(products.size());
+        for (Product product : products) {
+            out.ensure(4).putInt(product.getId());
+            out.putString(product.getName());
+            out.putString(product.getCategory());
+            out.ensure(12).putDouble(product.getPrice()).putInt(product.getStock());
+            writeSizeStock(out, product.getClothingStock());
+            writeSizeStock(out, product.getShoeStock());
+        }
+    }
+
+    // Size stock as: entry count (or -1), then size ordinal and quantity per entry
+    private static <S extends Enum<S>> void writeSizeStock(Writer out, Map<S, Integer> stock) throws IOException {
+        if (stock == null) {
+            out.ensure(4).putInt(NULL_LENGTH);
+            return;
+        }
+        out.ensure(4 + stock.size() * 5).putInt(stock.size());
+        for (Map.Entry<S, Integer> entry : stock.entrySet()) {
+            out.buffer.put((byte) entry.getKey().ordinal()).putInt(entry.getValue());
+        }
+    }
+
+    private static void writeOrders(Writer out, List<Order> orders) throws IOException {
+        out.ensure(4).putInt(orders.size());
+        for (Order order : orders) {
+            List<OrderItem> items = order.getItems();
+            ByteBuffer buffer = out.ensure(20 + items.size() * 12)
+                    .putInt(order.getOrderId())
+                    .putInt(order.getCustomer().getId())
+                    .putLong(order.getOrderDate() == null
+                            ? NO_TIME
+                            : order.getOrderDate().toInstant(ZoneOffset.UTC).toEpochMilli())
+                    .putInt(items.size());
+            for (OrderItem item : items) {
+                buffer.putInt(item.getProduct().getId()).putInt(item.getQuantity()).putInt(item.getSizeCode());
+            }
+        }
+    }
+
+    // Reviewers that are not among the written customers go to their own section, once each
+    private static void writeReviews(Writer out, ReviewStore store, List<Customer> customers) throws IOException {
+        Map<Integer, Customer> registered = new HashMap<>(customers.size() * 2);
+        for (Customer customer : customers) {
+            registered.put(customer.getId(), customer);
+        }
+        int count = store.size();
+        Map<Customer, Integer> reviewerIndexes = new IdentityHashMap<>();
+        List<Customer> reviewers = new ArrayList<>();
+        for (int id = 0; id < count; id++) {
+            Customer customer = store.customerOf(id);
+            if (customer != null && registered.get(customer.getId()) != customer
+                    && reviewerIndexes.putIfAbsent(customer, reviewers.size()) == null) {
+                reviewers.add(customer);
+            }
+        }
+        out.ensure(4).putInt(reviewers.size());
+        for (Customer reviewer : reviewers) {
+            writeCustomer(out, reviewer);
+        }
+
+        out.ensure(4).putInt(count);
+        for (int id = 0; id < count; id++) {
+            Review review = store.get(id);
+            Customer customer = review.getCustomer();
+            Integer reviewerIndex = customer == null ? null : reviewerIndexes.get(customer);
+            out.ensure(18)
+                    .putInt(review.getProduct().getId())
+                    .put(customer == null ? NO_REVIEWER : reviewerIndex != null ? LISTED_REVIEWER : REGISTERED_REVIEWER)
+                    .putInt(customer == null ? 0 : reviewerIndex != null ? reviewerIndex : customer.getId())
+                    .put((byte) review.getRating())
+                    .putLong(review.getTimestamp() == null
+                            ? NO_TIME
+                            : review.getTimestamp().toEpochSecond(ZoneOffset.UTC));
+            out.putString(review.getComment());
+        }
+    }
+
+    // -----------------------------------------------------
+    // ---- Reading
+    // -----------------------------------------------------
+
+    private Map<Integer, Customer> readCustomers(ByteBuffer in) {
+        int count = in.getInt();
+        Map<Integer, Customer> customers = new HashMap<>(count * 2);
+        for (int i = 0; i < count; i++) {
+            Customer customer = readCustomer(in);
+            customerManager.registerCustomer(customer);
+            customers.put(customer.getId(), customer);
+        }
+        return customers;
+    }
+
+    // Reads the reviewers that are not registered customers; they are not registered on load either
+    private static List<Customer> readReviewers(ByteBuffer in) {
+        int count = in.getInt();
+        List<Customer> reviewers = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            reviewers.add(readCustomer(in));
+        }
+        return reviewers;
+    }
+
+    private static Customer readCustomer(ByteBuffer in) {
+        int id = in.getInt();
+        String name = getString(in);
+        String email = getString(in);
+        boolean vip = in.get() == 1;
+
+        int favoriteCount = in.getInt();
+        List<String> favorites = new ArrayList<>(favoriteCount);
+        for (int f = 0; f < favoriteCount; f++) {
+            favorites.add(getString(in));
+        }
+
+        Customer customer = new Customer(id, name, email, vip, favorites);
+        customer.setFavoriteCategories(favorites);
+        return customer;
+    }
+
+    private Map<Integer, Product> readProducts(ByteBuffer in) {
+        int count = in.getInt();
+        Map<Integer, Product> products = new HashMap<>(count * 2);
+        for (int i = 0; i < count; i++) {
+            Product product = new Product();
+            product.setId(in.getInt());
+            product.setName(getString(in));
+            product.setCategory(getString(in));
+            product.setPrice(in.getDouble());
+            int stock = in.getInt();
+
+            Map<Product.CLOTH_SIZE, Integer> clothingStock = readSizeStock(in, Product.CLOTH_SIZE.class);
+            if (clothingStock != null) {
+                product.setClothingStock(clothingStock);
+            }
+            Map<Product.SHOE_SIZE, Integer> shoeStock = readSizeStock(in, Product.SHOE_SIZE.class);
+            if (shoeStock != null) {
+                product.setShoeStock(shoeStock);
+            }
+            product.setStock(stock); // after the size stock, which resets the aggregate to its sum
+
+            inventoryManager.addProduct(product);
+            products.put(product.getId(), product);
+        }
+        return products;
+    }
+
+    private static <S extends Enum<S>> Map<S, Integer> readSizeStock(ByteBuffer in, Class<S> sizes) {
+        int count = in.getInt();
+        if (count == NULL_LENGTH) {
+            return null;
+        }
+        S[] values = sizes.getEnumConstants();
+        Map<S, Integer> stock = new EnumMap<>(sizes);
+        for (int i = 0; i < count; i++) {
+            S size = values[in.get()];
+            stock.put(size, in.getInt());
+        }
+        return stock;
+    }
+
+    private void readOrders(ByteBuffer in, Map<Integer, Customer> customers, Map<Integer, Product> products) {
+        int count = in.getInt();
+        for (int i = 0; i < count; i++) {
+            int orderId = in.getInt();
+            int customerId = in.getInt();
+            long epochMillis = in.getLong();
+            int itemCount = in.getInt();
+
+            List<OrderItem> items = new ArrayList<>(itemCount);
+            for (int item = 0; item < itemCount; item++) {
+                Product product = products.get(in.getInt());
+                int quantity = in.getInt();
+                int sizeCode = in.getInt();
+                if (product != null) {
+                    items.add(OrderItem.withSizeCode(product, quantity, sizeCode));
+                }
+            }
+
+            IdAllocator.ORDERS.advancePast(orderId);
+            Customer customer = customers.get(customerId);
+            if (customer == null) {
+                System.err.println("Customer with ID " + customerId + " not in snapshot; order " + orderId + " skipped.");
+                continue;
+            }
+
+            Order order = new Order();
+            order.setOrderId(orderId);
+            order.setCustomer(customer);
+            order.setItems(items);
+            order.setOrderDate(epochMillis == NO_TIME
+                    ? null
+                    : LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneOffset.UTC));
+            orderManager.restoreOrder(order);
+        }
+    }
+
+    private void readReviews(ByteBuffer in, Map<Integer, Customer> customers, List<Customer> reviewers,
+                             Map<Integer, Product> products) {
+        int count = in.getInt();
+        for (int i = 0; i < count; i++) {
+            Product product = products.get(in.getInt());
+            byte kind = in.get();
+            int reviewer = in.getInt();
+            Customer customer = kind == REGISTERED_REVIEWER ? customers.get(reviewer)
+                    : kind == LISTED_REVIEWER ? reviewers.get(reviewer)
+                    : null;
+            restoreReview(in, product, customer);
+        }
+    }
+
+    // Version 2 and older: reviewers that were not registered customers cannot be restored
+    private void readReviewsByCustomerId(ByteBuffer in, Map<Integer, Customer> customers, Map<Integer, Product> products) {
+        int count = in.getInt();
+        int skipped = 0;
+        for (int i = 0; i < count; i++) {
+            Product product = products.get(in.getInt());
+            int customerId = in.getInt();
+            Customer customer = customers.get(customerId);
+            if (customer == null && customerId != NO_CUSTOMER) {
+                restoreReview(in, null, null); // consume the record
+                skipped++;
+                continue;
+            }
+            restoreReview(in, product, customer);
+        }
+        if (skipped > 0) {
+            System.err.println(skipped + " reviews by customers not in the snapshot skipped.");
+        }
+    }
+
+    // Reads the rest of a review record and adds the review (skipped if its product is gone)
+    private void restoreReview(ByteBuffer in, Product product, Customer customer) {
+        int rating = in.get();
+        long epochSeconds = in.getLong();
+        String comment = getString(in);
+
+        if (product == null) {
+            return; // product no longer in the catalog
+        }
+        LocalDateTime timestamp = epochSeconds == NO_TIME
+                ? null
+                : LocalDateTime.ofEpochSecond(epochSeconds, 0, ZoneOffset.UTC);
+        Review review = new Review(product, rating, customer, comment, timestamp);
+        review.setTimestamp(timestamp);
+        reviewManager.addReview(review);
+    }
+
+    private static String getString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length == NULL_LENGTH) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Buffered writer on top of a file channel.
+     */
+    private static final class Writer {
+
+        private final FileChannel channel;
+        private ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+        Writer(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        // Returns the buffer with room for at least the given number of bytes
+        ByteBuffer ensure(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                flush();
+                if (buffer.capacity() < bytes) {
+                    buffer = ByteBuffer.allocateDirect(bytes); // one oversized record
+                }
+            }
+            return buffer;
+        }
+
+        void putString(String value) throws IOException {
+            if (value == null) {
+                ensure(4).putInt(NULL_LENGTH);
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            ensure(4 + bytes.length).putInt(bytes.length).put(bytes);
+        }
+
+        void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+}
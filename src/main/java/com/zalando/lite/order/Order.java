@@ -2,6 +2,7 @@ package com.zalando.lite.order;
 
 import com.zalando.lite.courier.Courier;
 import com.zalando.lite.customer.Customer;
+import com.zalando.lite.util.IdAllocator;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -41,7 +42,7 @@ public class Order {
 
     // ADDING COURIER
     private Courier courier;
-    private static int nextId = 1;
+
     /**
      * Constructor to initialize an order with a customer and list of items.
      * <p>
@@ -55,7 +56,7 @@ public class Order {
         this.orderDate = LocalDateTime.now();
         this.courier = courier;
         this.orderId = orderId;
-        this.orderId = nextId++;
+        this.orderId = IdAllocator.ORDERS.nextId();
     }
 
 
@@ -66,7 +67,7 @@ public class Order {
         this.customer = customer;
         this.items = new ArrayList<>(items);
         this.orderDate = LocalDateTime.now();
-        this.orderId = nextId++;
+        this.orderId = IdAllocator.ORDERS.nextId();
     }
 
 
@@ -75,9 +76,10 @@ public class Order {
         return orderId;
     }
 
-    // Sets the order ID (may be used when generating orders manually)
+    // Sets the order ID (may be used when generating orders manually); generated IDs never collide with it
     public void setOrderId(int orderId) {
         this.orderId = orderId;
+        IdAllocator.ORDERS.advancePast(orderId);
     }
 
     // Returns the customer who placed the order
@@ -107,7 +109,7 @@ public class Order {
 
     // Sets the order timestamp (usually auto-generated)
     public void setOrderDate(LocalDateTime orderDate) {
-        this.orderDate = LocalDateTime.now();
+        this.orderDate = orderDate;
     }
 
     // ADDING COURIER -setter and Getter (for assigning courier to order)
@@ -128,7 +130,7 @@ public class Order {
     public double calculateTotal() {
         double total = 0.00;
         for (OrderItem item : items){
-            total = item.getSubtotal();
+            total += item.getSubtotal();
         }
         return total;
     }
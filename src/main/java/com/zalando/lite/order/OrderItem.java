@@ -6,6 +6,8 @@ import com.zalando.lite.products.Product;
  * Represents a single line item in an {@link Order}.
  * <p>
  * Each OrderItem connects a specific {@link Product} with the quantity purchased.
+ * An item may also target one clothing or shoe size; the order then reserves
+ * stock of exactly that size.
  * This class helps calculate the total price for the order and allows the system
  * to break down orders into granular, trackable components.
  * <p>
@@ -21,6 +23,13 @@ public class OrderItem {
     // Quantity of the product ordered
     private int quantity;
 
+    // Size ordered, if any (at most one of the two is set)
+    private Product.CLOTH_SIZE clothSize;
+    private Product.SHOE_SIZE shoeSize;
+
+    // Size code for binary formats: no size, a clothing size ordinal, or offset + shoe size ordinal
+    public static final int NO_SIZE = -1;
+    private static final int SHOE_SIZE_CODE_OFFSET = 100;
 
     /**
      * Constructor to create an OrderItem.
@@ -32,9 +41,39 @@ public class OrderItem {
         this.quantity = quantity;
     }
 
+    // Creates an item for one clothing size
+    public OrderItem(Product product, int quantity, Product.CLOTH_SIZE clothSize) {
+        this(product, quantity);
+        this.clothSize = clothSize;
+    }
+
+    // Creates an item for one shoe size
+    public OrderItem(Product product, int quantity, Product.SHOE_SIZE shoeSize) {
+        this(product, quantity);
+        this.shoeSize = shoeSize;
+    }
+
     public OrderItem() {
     }
 
+    /**
+     * Creates an item from a size code returned by {@link #getSizeCode()}.
+     *
+     * @param product  the product
+     * @param quantity the quantity
+     * @param sizeCode the encoded size, or {@link #NO_SIZE}
+     * @return the item
+     */
+    public static OrderItem withSizeCode(Product product, int quantity, int sizeCode) {
+        if (sizeCode == NO_SIZE) {
+            return new OrderItem(product, quantity);
+        }
+        if (sizeCode >= SHOE_SIZE_CODE_OFFSET) {
+            return new OrderItem(product, quantity, Product.SHOE_SIZE.values()[sizeCode - SHOE_SIZE_CODE_OFFSET]);
+        }
+        return new OrderItem(product, quantity, Product.CLOTH_SIZE.values()[sizeCode]);
+    }
+
     // Returns the product associated with this item
     public Product getProduct() {
         return product;
@@ -55,6 +94,24 @@ public class OrderItem {
         this.quantity = quantity;
     }
 
+    // Returns the clothing size ordered, or null
+    public Product.CLOTH_SIZE getClothSize() {
+        return clothSize;
+    }
+
+    // Returns the shoe size ordered, or null
+    public Product.SHOE_SIZE getShoeSize() {
+        return shoeSize;
+    }
+
+    // Returns the size as a single int for binary formats (see withSizeCode)
+    public int getSizeCode() {
+        if (clothSize != null) {
+            return clothSize.ordinal();
+        }
+        return shoeSize != null ? SHOE_SIZE_CODE_OFFSET + shoeSize.ordinal() : NO_SIZE;
+    }
+
     /**
      * Calculates the subtotal (product price × quantity).
      * <p>
@@ -74,6 +131,8 @@ public class OrderItem {
         return "OrderItem{" +
                 "product=" + product +
                 ", quantity=" + quantity +
+                (clothSize != null ? ", size=" + clothSize : "") +
+                (shoeSize != null ? ", size=" + shoeSize : "") +
                 '}';
     }
 }
@@ -0,0 +1,31 @@
+package com.zalando.lite.persistence;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Converts an entity to and from bytes for file-based storage.
+ *
+ * @param <T> the entity type
+ */
+public interface EntityCodec<T> {
+
+    /**
+     * Writes the entity's fields.
+     *
+     * @param entity the entity to write
+     * @param out    the destination
+     * @throws IOException if writing fails
+     */
+    void write(T entity, DataOutput out) throws IOException;
+
+    /**
+     * Reads an entity written by {@link #write}.
+     *
+     * @param in the source
+     * @return the entity
+     * @throws IOException if reading fails
+     */
+    T read(DataInput in) throws IOException;
+}
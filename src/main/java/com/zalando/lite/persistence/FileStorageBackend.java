@@ -0,0 +1,271 @@
+package com.zalando.lite.persistence;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Storage backend that keeps entities in a data directory.
+ * <p>
+ * Two files are used:
+ * - {@code entities.log}: an append-only log of every put/remove, written with
+ *   group commit ({@link GroupCommitLog}), so many changes share one fsync
+ * - {@code snapshot.dat}: a compacted image holding only the latest version of each entity
+ * <p>
+ * Every {@code compactEvery} changes, a background thread writes a new snapshot
+ * (to a temporary file that is then atomically renamed) and empties the log, so the
+ * log never grows without bound and startup only replays recent changes.
+ * On startup the snapshot is loaded and the log is replayed on top of it.
+ * <p>
+ * Durability: {@link #put} and {@link #remove} return before the change is on disk.
+ * A change is durable once {@link #flush()} returns, and in any case shortly after
+ * (when the writer thread has committed its current batch).
+ *
+ * @param <T> the entity type
+ */
+public class FileStorageBackend<T> implements StorageBackend<T> {
+
+    // Default number of logged changes between two snapshots
+    public static final int DEFAULT_COMPACT_EVERY = 10_000;
+
+    // Log record types
+    private static final byte PUT = 1;
+    private static final byte REMOVE = 2;
+
+    private static final String SNAPSHOT_FILE = "snapshot.dat";
+    private static final String SNAPSHOT_TEMP_FILE = "snapshot.tmp";
+    private static final String LOG_FILE = "entities.log";
+
+    private final Path directory;
+    private final EntityCodec<T> codec;
+    private final int compactEvery;
+
+    // Encoded latest version of every stored entity (source for snapshots)
+    private final Map<Integer, byte[]> live = new ConcurrentHashMap<>();
+
+    private final GroupCommitLog log;
+
+    // Changes take the read lock (they run in parallel); compaction takes the write lock
+    private final ReadWriteLock compactionLock = new ReentrantReadWriteLock();
+
+    // Changes logged since the last snapshot
+    private final AtomicInteger changesSinceSnapshot = new AtomicInteger();
+
+    private final ExecutorService compactor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "snapshot-compactor");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Opens a data directory with the default compaction interval.
+     *
+     * @param directory the data directory (created if missing)
+     * @param codec     converts entities to and from bytes
+     */
+    public FileStorageBackend(Path directory, EntityCodec<T> codec) {
+        this(directory, codec, DEFAULT_COMPACT_EVERY);
+    }
+
+    /**
+     * Opens a data directory, loading the snapshot and replaying the log.
+     *
+     * @param directory    the data directory (created if missing)
+     * @param codec        converts entities to and from bytes
+     * @param compactEvery number of changes between two snapshots
+     * @throws IllegalArgumentException if {@code compactEvery} is not positive
+     * @throws UncheckedIOException     if the directory cannot be read
+     */
+    public FileStorageBackend(Path directory, EntityCodec<T> codec, int compactEvery) {
+        if (compactEvery <= 0) {
+            throw new IllegalArgumentException("Compaction interval must be positive: " + compactEvery);
+        }
+        this.directory = directory;
+        this.codec = codec;
+        this.compactEvery = compactEvery;
+
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create data directory " + directory, e);
+        }
+
+        GroupCommitLog.replay(directory.resolve(SNAPSHOT_FILE), this::applyRecord);
+        int replayed = GroupCommitLog.replay(directory.resolve(LOG_FILE), this::applyRecord);
+        changesSinceSnapshot.set(replayed);
+
+        this.log = new GroupCommitLog(directory.resolve(LOG_FILE));
+    }
+
+    @Override
+    public void put(int id, T entity) {
+        byte[] encoded = encode(entity);
+        byte[] record = ByteBuffer.allocate(5 + encoded.length).put(PUT).putInt(id).put(encoded).array();
+
+        compactionLock.readLock().lock();
+        try {
+            // compute keeps the map and the log in the same order for one ID
+            live.compute(id, (key, previous) -> {
+                log.append(record);
+                return encoded;
+            });
+        } finally {
+            compactionLock.readLock().unlock();
+        }
+        changeLogged();
+    }
+
+    @Override
+    public void remove(int id) {
+        byte[] record = ByteBuffer.allocate(5).put(REMOVE).putInt(id).array();
+
+        compactionLock.readLock().lock();
+        try {
+            live.compute(id, (key, previous) -> {
+                if (previous != null) {
+                    log.append(record);
+                }
+                return null;
+            });
+        } finally {
+            compactionLock.readLock().unlock();
+        }
+        changeLogged();
+    }
+
+    @Override
+    public void loadAll(ObjIntConsumer<T> loader) {
+        live.forEach((id, encoded) -> loader.accept(decode(encoded), id));
+    }
+
+    @Override
+    public void flush() {
+        log.flush();
+    }
+
+    /**
+     * Writes a new snapshot of all entities and empties the log.
+     * Changes wait while the snapshot is written.
+     *
+     * @throws UncheckedIOException if the snapshot cannot be written
+     */
+    public void compact() {
+        compactionLock.writeLock().lock();
+        try {
+            log.flush();
+            writeSnapshot();
+            log.truncate();
+            changesSinceSnapshot.set(0);
+        } finally {
+            compactionLock.writeLock().unlock();
+        }
+    }
+
+    // Returns the number of stored entities
+    public int size() {
+        return live.size();
+    }
+
+    // Returns the data directory
+    public Path getDirectory() {
+        return directory;
+    }
+
+    @Override
+    public void close() {
+        compactor.shutdown();
+        try {
+            compactor.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        log.close();
+    }
+
+    // Schedules a background compaction once enough changes have piled up
+    private void changeLogged() {
+        if (changesSinceSnapshot.incrementAndGet() % compactEvery == 0) {
+            try {
+                compactor.execute(this::compactInBackground);
+            } catch (RejectedExecutionException e) {
+                // backend is closing; the log still holds every change
+            }
+        }
+    }
+
+    private void compactInBackground() {
+        try {
+            compact();
+        } catch (RuntimeException e) {
+            System.err.println("Snapshot compaction failed in " + directory + ": " + e.getMessage());
+        }
+    }
+
+    private void writeSnapshot() {
+        Path temp = directory.resolve(SNAPSHOT_TEMP_FILE);
+        try (FileChannel out = FileChannel.open(temp,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (Map.Entry<Integer, byte[]> entry : live.entrySet()) {
+                byte[] encoded = entry.getValue();
+                byte[] record = ByteBuffer.allocate(5 + encoded.length)
+                        .put(PUT).putInt(entry.getKey()).put(encoded).array();
+                ByteBuffer framed = GroupCommitLog.frame(record);
+                while (framed.hasRemaining()) {
+                    out.write(framed);
+                }
+            }
+            out.force(true);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write snapshot in " + directory, e);
+        }
+
+        try {
+            Files.move(temp, directory.resolve(SNAPSHOT_FILE),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot replace snapshot in " + directory, e);
+        }
+    }
+
+    // Applies one snapshot or log record to the in-memory image
+    private void applyRecord(ByteBuffer record) {
+        byte type = record.get();
+        int id = record.getInt();
+        if (type == PUT) {
+            byte[] encoded = new byte[record.remaining()];
+            record.get(encoded);
+            live.put(id, encoded);
+        } else if (type == REMOVE) {
+            live.remove(id);
+        }
+    }
+
+    private byte[] encode(T entity) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            codec.write(entity, out);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot encode entity", e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private T decode(byte[] encoded) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(encoded))) {
+            return codec.read(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot decode entity", e);
+        }
+    }
+}
@@ -0,0 +1,342 @@
+package com.zalando.lite.persistence;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only log file with group commit.
+ * <p>
+ * Callers hand records to {@link #append} and continue immediately. A single
+ * background writer thread collects everything that was queued meanwhile, writes
+ * the whole batch with one {@link FileChannel#write} and makes it durable with one
+ * {@link FileChannel#force}. Under load many records share one fsync, so durability
+ * costs little per record.
+ * <p>
+ * Each record is framed as {@code [int length][int crc32][payload]}. When reading
+ * the log back ({@link #replay}), a torn or corrupted tail (e.g. after a crash in
+ * the middle of a write) is detected and ignored.
+ * <p>
+ * If writing a batch fails, every record of the batch is reported as failed and
+ * the file is truncated back to its length before the batch, so none of them is
+ * replayed and later records are not hidden behind a torn frame. If even that
+ * truncation fails, the log rejects every later operation.
+ */
+public class GroupCommitLog implements AutoCloseable {
+
+    // Maximum number of queued operations written in one batch
+    private static final int MAX_BATCH = 4096;
+
+    // Bytes of framing before each payload
+    private static final int HEADER_BYTES = 8;
+
+    private final Path path;
+    private final FileChannel channel;
+    private final long initialLength;
+    private final LinkedBlockingQueue<Operation> queue = new LinkedBlockingQueue<>();
+    private final Thread writer;
+    private volatile boolean closed;
+
+    /**
+     * Opens (or creates) the log file and starts the writer thread.
+     *
+     * @param path the log file
+     * @throws UncheckedIOException if the file cannot be opened
+     */
+    public GroupCommitLog(Path path) {
+        this.path = path;
+        try {
+            this.channel = FileChannel.open(path,
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            this.initialLength = channel.size();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open log " + path, e);
+        }
+        this.writer = new Thread(this::writeLoop, "log-writer-" + path.getFileName());
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Queues a record for writing.
+     *
+     * @param payload the record bytes
+     * @return a future completed once the record is durable
+     */
+    public CompletableFuture<Void> append(byte[] payload) {
+        return enqueue(new Operation(Operation.APPEND, payload));
+    }
+
+    /**
+     * Blocks until every record appended before this call is durable.
+     *
+     * @throws UncheckedIOException if writing failed
+     */
+    public void flush() {
+        await(enqueue(new Operation(Operation.BARRIER, null)));
+    }
+
+    /**
+     * Blocks until every record appended before this call is durable and returns
+     * the length of the log at that point. Passing it to
+     * {@link #replay(Path, long, Consumer)} skips every record written before this call.
+     *
+     * @return the log position in bytes
+     * @throws UncheckedIOException if writing failed
+     */
+    public long position() {
+        Operation barrier = new Operation(Operation.BARRIER, null);
+        await(enqueue(barrier));
+        return barrier.position;
+    }
+
+    /**
+     * Empties the log file once every record queued before this call has been written.
+     * Used after the log's content has been captured in a snapshot.
+     *
+     * @throws UncheckedIOException if truncating failed
+     */
+    public void truncate() {
+        await(enqueue(new Operation(Operation.TRUNCATE, null)));
+    }
+
+    // Returns the path of the log file
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * Writes all pending records, stops the writer thread and closes the file.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        CompletableFuture<Void> stopped = enqueue(new Operation(Operation.STOP, null));
+        closed = true;
+        try {
+            await(stopped);
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                System.err.println("Failed to close log " + path + ": " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Frames a payload the same way log records are framed.
+     * Also used for snapshot files, so they can be read with {@link #replay}.
+     *
+     * @param payload the record bytes
+     * @return the framed bytes
+     */
+    public static ByteBuffer frame(byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        ByteBuffer framed = ByteBuffer.allocate(HEADER_BYTES + payload.length);
+        framed.putInt(payload.length).putInt((int) crc.getValue()).put(payload).flip();
+        return framed;
+    }
+
+    /**
+     * Reads every intact record of a log (or snapshot) file in order.
+     * Reading stops at the first torn or corrupted record.
+     *
+     * @param path     the file to read (a missing file has no records)
+     * @param consumer receives each record's payload
+     * @return the number of records read
+     * @throws UncheckedIOException if the file cannot be read
+     */
+    public static int replay(Path path, Consumer<ByteBuffer> consumer) {
+        return replay(path, 0, consumer);
+    }
+
+    /**
+     * Reads the intact records of a log file that start at or after a position
+     * (see {@link #position()}). Reading stops at the first torn or corrupted record.
+     *
+     * @param path     the file to read (a missing file has no records)
+     * @param from     the position of the first record to read
+     * @param consumer receives each record's payload
+     * @return the number of records read
+     * @throws UncheckedIOException if the file cannot be read
+     */
+    public static int replay(Path path, long from, Consumer<ByteBuffer> consumer) {
+        if (!Files.exists(path)) {
+            return 0;
+        }
+        try (FileChannel in = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (from >= in.size()) {
+                return 0; // nothing written after the position
+            }
+            MappedByteBuffer data = in.map(FileChannel.MapMode.READ_ONLY, from, in.size() - from);
+            CRC32 crc = new CRC32();
+            int records = 0;
+
+            while (data.remaining() >= HEADER_BYTES) {
+                int length = data.getInt();
+                int checksum = data.getInt();
+                if (length < 0 || length > data.remaining()) {
+                    break; // torn write at the end of the file
+                }
+                ByteBuffer payload = data.slice(data.position(), length);
+                crc.reset();
+                crc.update(payload.duplicate());
+                if ((int) crc.getValue() != checksum) {
+                    break; // corrupted record
+                }
+                data.position(data.position() + length);
+                consumer.accept(payload);
+                records++;
+            }
+            return records;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read " + path, e);
+        }
+    }
+
+    private CompletableFuture<Void> enqueue(Operation operation) {
+        if (closed) {
+            throw new IllegalStateException("Log is closed: " + path);
+        }
+        queue.add(operation);
+        return operation.done;
+    }
+
+    private static void await(CompletableFuture<Void> future) {
+        try {
+            future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the log", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof UncheckedIOException unchecked) {
+                throw unchecked;
+            }
+            throw new IllegalStateException("Log write failed", cause);
+        }
+    }
+
+    /**
+     * Writer thread: takes whatever is queued, writes it in one go and fsyncs once.
+     */
+    private void writeLoop() {
+        List<Operation> batch = new ArrayList<>();
+        List<ByteBuffer> buffers = new ArrayList<>();
+        boolean running = true;
+        long end = initialLength; // length of the log once the pending buffers are written
+        UncheckedIOException broken = null; // set once the log could not be repaired
+
+        while (running) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                return;
+            }
+            queue.drainTo(batch, MAX_BATCH - 1);
+
+            if (broken != null) {
+                for (Operation operation : batch) {
+                    if (operation.kind == Operation.STOP) {
+                        running = false;
+                        operation.done.complete(null);
+                    } else {
+                        operation.done.completeExceptionally(broken);
+                    }
+                }
+                batch.clear();
+                continue;
+            }
+
+            long intact = end; // length of the log before this batch
+            try {
+                for (Operation operation : batch) {
+                    switch (operation.kind) {
+                        case Operation.APPEND -> {
+                            buffers.add(frame(operation.payload));
+                            end += HEADER_BYTES + operation.payload.length;
+                        }
+                        case Operation.TRUNCATE -> {
+                            writeBuffers(buffers);
+                            channel.truncate(0);
+                            end = 0;
+                            intact = 0;
+                        }
+                        case Operation.STOP -> running = false;
+                        default -> operation.position = end; // barrier: nothing to write
+                    }
+                }
+                writeBuffers(buffers);
+                channel.force(false);
+                batch.forEach(operation -> operation.done.complete(null));
+            } catch (IOException e) {
+                UncheckedIOException failure = new UncheckedIOException("Write to " + path + " failed", e);
+                batch.forEach(operation -> operation.done.completeExceptionally(failure));
+                // Cut off whatever part of the batch was written: its records were reported as failed,
+                // and a torn frame would hide every later record from replay
+                try {
+                    channel.truncate(intact);
+                    channel.force(false);
+                    end = intact;
+                } catch (IOException repairFailed) {
+                    broken = failure; // reject everything from now on
+                }
+            }
+            batch.clear();
+            buffers.clear();
+        }
+    }
+
+    private void writeBuffers(List<ByteBuffer> buffers) throws IOException {
+        ByteBuffer[] pending = buffers.toArray(new ByteBuffer[0]);
+        long remaining = 0;
+        for (ByteBuffer buffer : pending) {
+            remaining += buffer.remaining();
+        }
+        while (remaining > 0) {
+            remaining -= channel.write(pending);
+        }
+        buffers.clear();
+    }
+
+    /**
+     * A queued request for the writer thread.
+     */
+    private static final class Operation {
+        static final int APPEND = 0;
+        static final int BARRIER = 1;
+        static final int TRUNCATE = 2;
+        static final int STOP = 3;
+
+        final int kind;
+        final byte[] payload;
+        final CompletableFuture<Void> done = new CompletableFuture<>();
+
+        // Log length at a barrier, read after done completes
+        long position;
+
+        Operation(int kind, byte[] payload) {
+            this.kind = kind;
+            this.payload = payload;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.zalando.lite.persistence;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Storage backend that keeps entities in a map on the heap.
+ * <p>
+ * Nothing survives a JVM restart, but the stored entities outlive the entity
+ * manager that wrote them, so a new manager on the same backend sees them again.
+ * Useful for tests and for running without a data directory.
+ *
+ * @param <T> the entity type
+ */
+public class InMemoryStorageBackend<T> implements StorageBackend<T> {
+
+    // Stored entities by ID
+    private final Map<Integer, T> entities = new ConcurrentHashMap<>();
+
+    @Override
+    public void put(int id, T entity) {
+        entities.put(id, entity);
+    }
+
+    @Override
+    public void remove(int id) {
+        entities.remove(id);
+    }
+
+    @Override
+    public void loadAll(ObjIntConsumer<T> loader) {
+        entities.forEach((id, entity) -> loader.accept(entity, id));
+    }
+
+    @Override
+    public void flush() {
+        // Changes are applied immediately
+    }
+
+    @Override
+    public void close() {
+        // Nothing to release
+    }
+}
@@ -0,0 +1,49 @@
+package com.zalando.lite.persistence;
+
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Storage backend used by {@code EntityManager} to keep entities beyond the JVM's lifetime.
+ * <p>
+ * The entity manager always keeps all entities in memory; a backend only receives
+ * every change (put/remove) and hands all stored entities back on startup.
+ * Implementations may apply changes asynchronously: a change is guaranteed to be
+ * durable once {@link #flush()} has returned.
+ *
+ * @param <T> the entity type
+ */
+public interface StorageBackend<T> extends AutoCloseable {
+
+    /**
+     * Stores (or replaces) the entity with the given ID.
+     *
+     * @param id     the entity's ID
+     * @param entity the entity
+     */
+    void put(int id, T entity);
+
+    /**
+     * Removes the entity with the given ID (no-op if it is not stored).
+     *
+     * @param id the entity's ID
+     */
+    void remove(int id);
+
+    /**
+     * Hands every stored entity to the loader. Used once when an entity manager starts.
+     *
+     * @param loader receives each entity together with its ID
+     */
+    void loadAll(ObjIntConsumer<T> loader);
+
+    /**
+     * Blocks until all previous changes are durable.
+     */
+    void flush();
+
+    /**
+     * Flushes pending changes and releases resources (files, threads).
+     */
+    @Override
+    void close();
+}
@@ -0,0 +1,207 @@
+package com.zalando.lite.persistence;
+
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Write-ahead log for orders and stock changes.
+ * <p>
+ * Every order creation and every stock change outside of an order is written here
+ * before it is acknowledged to the caller. After a crash, {@link #replay} hands the records
+ * back in their original order, so the order history and the stock levels can be
+ * rebuilt on top of the product catalog.
+ * <p>
+ * Records are written through a {@link GroupCommitLog}: concurrent writers share
+ * one fsync per batch, which keeps order throughput high even when every commit
+ * waits for the disk.
+ * - In synchronous mode (the default) a log call returns once its record is durable
+ * - In asynchronous mode it returns immediately; records are durable after {@link #flush()}
+ * <p>
+ * Record layout (inside the log's CRC frame):
+ * - ORDER_CREATED: type, order ID, customer ID, order time (epoch millis, UTC),
+ *   item count, then product ID, quantity and size code per item
+ * - STOCK_DELTA: type, product ID, signed stock change
+ */
+public class WriteAheadLog implements AutoCloseable {
+
+    // Record types
+    private static final byte ORDER_CREATED = 1;
+    private static final byte STOCK_DELTA = 2;
+
+    private final GroupCommitLog log;
+    private final boolean synchronous;
+
+    /**
+     * Opens a write-ahead log whose log calls wait until the record is durable.
+     *
+     * @param file the log file (created if missing)
+     */
+    public WriteAheadLog(Path file) {
+        this(file, true);
+    }
+
+    /**
+     * Opens a write-ahead log.
+     *
+     * @param file        the log file (created if missing)
+     * @param synchronous true to wait for durability on every log call
+     */
+    public WriteAheadLog(Path file, boolean synchronous) {
+        this.log = new GroupCommitLog(file);
+        this.synchronous = synchronous;
+    }
+
+    /**
+     * Logs the creation of an order. Replaying this record also re-applies
+     * the stock reduction of every item.
+     *
+     * @param orderId     the order's ID
+     * @param customerId  the ID of the customer who placed it
+     * @param epochMillis the order time in epoch milliseconds (UTC)
+     * @param productIds  the product ID of each item
+     * @param quantities  the quantity of each item
+     * @param sizeCodes   the size code of each item (see {@code OrderItem.getSizeCode()})
+     * @throws IllegalArgumentException if the item arrays differ in length
+     */
+    public void logOrderCreated(int orderId, int customerId, long epochMillis,
+                                int[] productIds, int[] quantities, int[] sizeCodes) {
+        if (productIds.length != quantities.length || productIds.length != sizeCodes.length) {
+            throw new IllegalArgumentException("Item arrays differ in length");
+        }
+        ByteBuffer record = ByteBuffer.allocate(1 + 4 + 4 + 8 + 4 + productIds.length * 12)
+                .put(ORDER_CREATED)
+                .putInt(orderId)
+                .putInt(customerId)
+                .putLong(epochMillis)
+                .putInt(productIds.length);
+        for (int i = 0; i < productIds.length; i++) {
+            record.putInt(productIds[i]).putInt(quantities[i]).putInt(sizeCodes[i]);
+        }
+        commit(record.array());
+    }
+
+    /**
+     * Logs a stock change that is not part of an order (e.g. a manual reduction or a restock).
+     *
+     * @param productId the product's ID
+     * @param delta     the signed change in stock
+     */
+    public void logStockDelta(int productId, int delta) {
+        commit(ByteBuffer.allocate(1 + 4 + 4).put(STOCK_DELTA).putInt(productId).putInt(delta).array());
+    }
+
+    /**
+     * Blocks until every record logged so far is durable.
+     */
+    public void flush() {
+        log.flush();
+    }
+
+    /**
+     * Blocks until every record logged so far is durable and returns the log
+     * position after them (see {@link #replay(Path, long, Listener)}).
+     *
+     * @return the log position in bytes
+     */
+    public long position() {
+        return log.position();
+    }
+
+    // Returns the path of the log file
+    public Path getPath() {
+        return log.getPath();
+    }
+
+    @Override
+    public void close() {
+        log.close();
+    }
+
+    /**
+     * Replays all intact records of a log file in order.
+     *
+     * @param file     the log file (a missing file has no records)
+     * @param listener receives each record
+     * @return the number of records replayed
+     */
+    public static int replay(Path file, Listener listener) {
+        return replay(file, 0, listener);
+    }
+
+    /**
+     * Replays the intact records logged after a position, e.g. the position
+     * recorded in a snapshot that already contains the earlier records.
+     *
+     * @param file     the log file (a missing file has no records)
+     * @param from     the position returned by {@link #position()}
+     * @param listener receives each record
+     * @return the number of records replayed
+     */
+    public static int replay(Path file, long from, Listener listener) {
+        return GroupCommitLog.replay(file, from, record -> {
+            byte type = record.get();
+            if (type == ORDER_CREATED) {
+                int orderId = record.getInt();
+                int customerId = record.getInt();
+                long epochMillis = record.getLong();
+                int items = record.getInt();
+                int[] productIds = new int[items];
+                int[] quantities = new int[items];
+                int[] sizeCodes = new int[items];
+                for (int i = 0; i < items; i++) {
+                    productIds[i] = record.getInt();
+                    quantities[i] = record.getInt();
+                    sizeCodes[i] = record.getInt();
+                }
+                listener.orderCreated(orderId, customerId, epochMillis, productIds, quantities, sizeCodes);
+            } else if (type == STOCK_DELTA) {
+                listener.stockDelta(record.getInt(), record.getInt());
+            }
+        });
+    }
+
+    private void commit(byte[] record) {
+        CompletableFuture<Void> durable = log.append(record);
+        if (!synchronous) {
+            return;
+        }
+        try {
+            durable.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof UncheckedIOException failure) {
+                throw failure;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Receives the records of a write-ahead log during {@link #replay}.
+     */
+    public interface Listener {
+
+        /**
+         * Called for a logged order creation.
+         *
+         * @param orderId     the order's ID
+         * @param customerId  the customer's ID
+         * @param epochMillis the order time in epoch milliseconds (UTC)
+         * @param productIds  the product ID of each item
+         * @param quantities  the quantity of each item
+         * @param sizeCodes   the size code of each item
+         */
+        void orderCreated(int orderId, int customerId, long epochMillis,
+                          int[] productIds, int[] quantities, int[] sizeCodes);
+
+        /**
+         * Called for a logged stock change outside of an order.
+         *
+         * @param productId the product's ID
+         * @param delta     the signed change in stock
+         */
+        void stockDelta(int productId, int delta);
+    }
+}
@@ -0,0 +1,126 @@
+package com.zalando.lite.products;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Interns category names to small, dense int IDs.
+ * <p>
+ * Categories are compared case-insensitively: "Shoes", "shoes" and "SHOES" all
+ * get the same ID. A product looks its category up once when it is created
+ * (see {@link Product#getCategoryId()}); after that, grouping, filtering and
+ * discount lookups compare ints and index arrays instead of lower-casing and
+ * hashing strings on every call.
+ * <p>
+ * How it works:
+ * - IDs are handed out in order 0, 1, 2, ... and never change or get reused
+ * - Both the spelling that was passed in and the normalized (lower-case) name map
+ *   to the ID, so repeated lookups of the same spelling do not allocate
+ * - The name per ID is kept in an array that is replaced (copy-on-write) when it grows,
+ *   so {@link #nameOf} needs no lock
+ * <p>
+ * One shared dictionary is used for all products, so category IDs can be used
+ * as array indexes anywhere in the store.
+ * <p>
+ * Concepts reinforced:
+ * - String interning
+ * - Concurrent maps
+ * - Copy-on-write arrays
+ */
+public class CategoryDictionary {
+
+    // Shared dictionary used by all products
+    public static final CategoryDictionary CATEGORIES = new CategoryDictionary();
+
+    // ID of a missing (null) category
+    public static final int NO_CATEGORY = -1;
+
+    // Well-known categories with special handling
+    public static final int CLOTHING = CATEGORIES.idOf("clothing");
+    public static final int SHOES = CATEGORIES.idOf("shoes");
+
+    // Spelling (as passed in, and normalized) -> ID
+    private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+
+    // Normalized name per ID; replaced as a whole when a new ID is added
+    private volatile String[] names = new String[0];
+
+    /**
+     * Returns the ID of a category, assigning a new one if the category is new.
+     *
+     * @param category the category name (any case), or null
+     * @return the category's ID, or {@link #NO_CATEGORY} for null
+     */
+    public int idOf(String category) {
+        if (category == null) {
+            return NO_CATEGORY;
+        }
+        Integer id = ids.get(category);
+        if (id != null) {
+            return id;
+        }
+        return intern(category);
+    }
+
+    /**
+     * Returns the ID of a category without assigning a new one.
+     *
+     * @param category the category name (any case), or null
+     * @return the category's ID, or {@link #NO_CATEGORY} if null or never seen
+     */
+    public int find(String category) {
+        if (category == null) {
+            return NO_CATEGORY;
+        }
+        Integer id = ids.get(category);
+        if (id == null) {
+            id = ids.get(normalize(category));
+        }
+        return id == null ? NO_CATEGORY : id;
+    }
+
+    /**
+     * Returns the normalized (lower-case) name of a category ID.
+     *
+     * @param id the category ID
+     * @return the name, or an empty string for {@link #NO_CATEGORY}
+     * @throws IllegalArgumentException if the ID was never assigned
+     */
+    public String nameOf(int id) {
+        if (id == NO_CATEGORY) {
+            return "";
+        }
+        String[] current = names;
+        if (id < 0 || id >= current.length) {
+            throw new IllegalArgumentException("Unknown category ID: " + id);
+        }
+        return current[id];
+    }
+
+    // Returns the number of categories known so far (valid IDs are 0 to size() - 1)
+    public int size() {
+        return names.length;
+    }
+
+    // Slow path: new spelling, maybe a new category. New IDs are assigned one at a time.
+    private synchronized int intern(String category) {
+        String normalized = normalize(category);
+        Integer id = ids.get(normalized);
+        if (id == null) {
+            String[] current = names;
+            id = current.length;
+            String[] grown = Arrays.copyOf(current, id + 1);
+            grown[id] = normalized;
+            names = grown; // publish the name before the ID becomes visible
+            ids.put(normalized, id);
+        }
+        ids.put(category, id);
+        return id;
+    }
+
+    private static String normalize(String category) {
+        return category.toLowerCase(Locale.ROOT);
+    }
+}
@@ -1,7 +1,6 @@
 package com.zalando.lite.products;
 
 
-import java.util.HashMap;
 import java.util.Map;
 
 /**
@@ -16,7 +15,40 @@ import java.util.Map;
  */
 
 
+/**
+ * Factory methods for creating products.
+ * <p>
+ * Products sold by size get their size stock set right away; their aggregate
+ * stock is then the sum over all sizes (see {@link Product#setClothingStock}).
+ */
 public class FactoryMethods {
+
+    /**
+     * Creates a product that is not sold by size.
+     *
+     * @param name     product name
+     * @param category product category
+     * @param price    product price
+     * @param stock    units in stock
+     * @return the new product
+     * @throws IllegalArgumentException if price or stock is negative
+     */
+    public static Product createProduct(String name, String category, double price, int stock) {
+        validate(price, stock);
+        return new Product(name, category, price, stock);
+    }
+
+    /**
+     * Creates a product sold by clothing size.
+     *
+     * @param name          product name
+     * @param category      product category
+     * @param price         product price
+     * @param stock         units in stock; only used if no size stock is given
+     * @param clothingStock units in stock per size (may be null or empty)
+     * @return the new product
+     * @throws IllegalArgumentException if price or any stock is negative
+     */
     public static Product createClothingProduct(
             String name,
             String category,
@@ -24,10 +56,54 @@ public class FactoryMethods {
             int stock,
             Map<Product.CLOTH_SIZE, Integer> clothingStock ) {
 
-     Product product = new Product(name, category, price, stock);
-     //product.clothingStock() = new HashMap<>(clothingStock);
+        Product product = createProduct(name, category, price, stock);
+        if (clothingStock != null && !clothingStock.isEmpty()) {
+            validateSizes(clothingStock);
+            product.setClothingStock(clothingStock);
+        }
+        return product;
+    }
+
+    /**
+     * Creates a product sold by shoe size.
+     *
+     * @param name      product name
+     * @param category  product category
+     * @param price     product price
+     * @param stock     units in stock; only used if no size stock is given
+     * @param shoeStock units in stock per size (may be null or empty)
+     * @return the new product
+     * @throws IllegalArgumentException if price or any stock is negative
+     */
+    public static Product createShoeProduct(
+            String name,
+            String category,
+            double price,
+            int stock,
+            Map<Product.SHOE_SIZE, Integer> shoeStock) {
 
-        return null;
+        Product product = createProduct(name, category, price, stock);
+        if (shoeStock != null && !shoeStock.isEmpty()) {
+            validateSizes(shoeStock);
+            product.setShoeStock(shoeStock);
+        }
+        return product;
+    }
+
+    private static void validate(double price, int stock) {
+        if (price < 0) {
+            throw new IllegalArgumentException("Price must not be negative: " + price);
+        }
+        if (stock < 0) {
+            throw new IllegalArgumentException("Stock must not be negative: " + stock);
+        }
+    }
 
+    private static void validateSizes(Map<?, Integer> sizeStock) {
+        for (Map.Entry<?, Integer> entry : sizeStock.entrySet()) {
+            if (entry.getValue() == null || entry.getValue() < 0) {
+                throw new IllegalArgumentException("Invalid stock for size " + entry.getKey() + ": " + entry.getValue());
+            }
+        }
     }
 }
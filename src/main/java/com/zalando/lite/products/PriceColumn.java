@@ -0,0 +1,232 @@
+package com.zalando.lite.products;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Column store of catalog prices for category-wide repricing (e.g. a sale on all jackets).
+ * <p>
+ * Every category has its own slice: a {@code double[]} of base prices and a parallel
+ * {@code double[]} of sale prices. Repricing a category is then a single tight loop
+ * {@code sale[i] = base[i] * (1 - rate)} over its slice, which the JIT compiles to
+ * SIMD instructions, instead of one {@link Product#setPrice} call (and object
+ * access) per product. Base prices are not changed, so ending the sale is just
+ * repricing with rate 0.
+ * <p>
+ * New products are appended to their category's slice (amortized O(1); a full
+ * slice is copied into one twice its size), so adding products never rebuilds
+ * the column. A product added to a category on sale gets the sale price right away.
+ * <p>
+ * Base prices are captured when a product is added. If its price changes
+ * later (detected through {@link Product#getPricingVersion()}), {@link #getSalePrice}
+ * falls back to the product's current price and its category's rate.
+ * <p>
+ * Thread safety: adding and repricing are serialized by a lock on the column.
+ * {@link #getSalePrice} never locks; it finds everything through volatile fields
+ * that writers update last.
+ * <p>
+ * Concepts reinforced:
+ * - Columnar (struct-of-arrays) layout
+ * - Safe publication through volatile fields
+ * - Loops the JIT can vectorize
+ */
+public class PriceColumn {
+
+    // Capacity of a new category slice
+    private static final int INITIAL_CAPACITY = 16;
+
+    // Slot per product ID: no slot yet
+    private static final long NO_SLOT = -1L;
+
+    // Slice per category (index = category ID + 1; 0 is "no category"); entries may be null
+    private volatile Slice[] slices = new Slice[CategoryDictionary.CATEGORIES.size() + 1];
+
+    // Slot per product ID, packed as (slice index << 32 | index within the slice)
+    private volatile long[] slotById = new long[0];
+
+    // Number of products in the column
+    private int size;
+
+    /**
+     * Creates an empty column.
+     */
+    public PriceColumn() {
+    }
+
+    /**
+     * Creates a column over the given products, with no discount applied.
+     *
+     * @param catalog the products
+     */
+    public PriceColumn(Collection<Product> catalog) {
+        addAll(catalog);
+    }
+
+    /**
+     * Adds a product at its current price. If its category is on sale, the
+     * category's rate applies to it right away.
+     *
+     * @param product the product (not yet in the column)
+     */
+    public synchronized void add(Product product) {
+        int bucket = product.getCategoryId() + 1;
+        Slice slice = bucket < slices.length ? slices[bucket] : null;
+        if (slice == null) {
+            slice = replaceSlice(bucket, new Slice(INITIAL_CAPACITY, 0.0));
+        } else if (slice.size == slice.products.length) {
+            slice = replaceSlice(bucket, slice.grow());
+        }
+
+        int index = slice.size;
+        slice.products[index] = product;
+        slice.versions[index] = product.getPricingVersion(); // before the price, like PriceCache
+        slice.basePrices[index] = product.getPrice();
+        slice.salePrices[index] = slice.basePrices[index] * (1.0 - slice.rate);
+        slice.size = index + 1; // publish the slot
+
+        int id = product.getId();
+        if (id >= 0) {
+            long[] slots = slotById;
+            if (id >= slots.length) {
+                int length = slots.length;
+                slots = Arrays.copyOf(slots, Math.max(id + 1, length * 2));
+                Arrays.fill(slots, length, slots.length, NO_SLOT);
+            }
+            slots[id] = (long) bucket << 32 | index;
+            slotById = slots;
+        }
+        size++;
+    }
+
+    /**
+     * Adds several products, in order (see {@link #add}).
+     *
+     * @param products the products
+     */
+    public synchronized void addAll(Collection<Product> products) {
+        for (Product product : products) {
+            add(product);
+        }
+    }
+
+    /**
+     * Applies a discount rate to every product of a category, replacing any earlier rate.
+     * Products added to the category later get the rate as well.
+     *
+     * @param category the category (case-insensitive)
+     * @param rate     the discount rate (0.0 to 1.0; 0.0 ends a sale)
+     * @return the number of products repriced
+     * @throws IllegalArgumentException if the rate is out of range
+     */
+    public synchronized int reprice(String category, double rate) {
+        if (!(rate >= 0.0 && rate <= 1.0)) {
+            throw new IllegalArgumentException("Rate must be between 0.0 and 1.0: " + rate);
+        }
+        int bucket = category == null ? 0 : CategoryDictionary.CATEGORIES.find(category) + 1;
+        if (bucket == 0) {
+            return 0; // no product has this category
+        }
+        Slice slice = bucket < slices.length ? slices[bucket] : null;
+        if (slice == null) {
+            replaceSlice(bucket, new Slice(INITIAL_CAPACITY, rate)); // for products added later
+            return 0;
+        }
+
+        int count = slice.size;
+        scale(slice.basePrices, slice.salePrices, 0, count, 1.0 - rate);
+        slice.rate = rate; // publish the new sale prices
+        return count;
+    }
+
+    /**
+     * Returns a product's price after the category rate applied by {@link #reprice}.
+     *
+     * @param product the product
+     * @return the sale price (the regular price if its category is not repriced or it is not in the column)
+     */
+    public double getSalePrice(Product product) {
+        long[] slots = slotById;
+        int id = product.getId();
+        long slot = id >= 0 && id < slots.length ? slots[id] : NO_SLOT;
+        Slice slice = slot == NO_SLOT ? null : sliceAt((int) (slot >>> 32));
+        int index = (int) slot;
+
+        // The volatile reads of size and rate come first, so the slot and the latest repricing are visible
+        if (slice == null || index >= slice.size || slice.products[index] != product) {
+            return product.getPrice(); // not in the column
+        }
+        double rate = slice.rate;
+        if (slice.versions[index] == product.getPricingVersion()) {
+            return slice.salePrices[index];
+        }
+        // Price or category changed since the product was added
+        Slice current = sliceAt(product.getCategoryId() + 1);
+        if (current != slice) {
+            rate = current != null ? current.rate : 0.0;
+        }
+        return product.getPrice() * (1.0 - rate);
+    }
+
+    // Returns the number of products in the column
+    public synchronized int size() {
+        return size;
+    }
+
+    // Returns the slice of a category bucket, or null if it has none
+    private Slice sliceAt(int bucket) {
+        Slice[] directory = slices;
+        return bucket >= 0 && bucket < directory.length ? directory[bucket] : null;
+    }
+
+    // Publishes a new or grown slice in a copy of the directory; called under the lock
+    private Slice replaceSlice(int bucket, Slice slice) {
+        Slice[] directory = Arrays.copyOf(slices, Math.max(slices.length, bucket + 1));
+        directory[bucket] = slice;
+        slices = directory;
+        return slice;
+    }
+
+    // Multiplies a slice element-wise; kept as a plain counted loop so C2 auto-vectorizes it
+    static void scale(double[] source, double[] target, int from, int to, double factor) {
+        for (int i = from; i < to; i++) {
+            target[i] = source[i] * factor;
+        }
+    }
+
+    /**
+     * The products of one category and their prices. Grows by copying into a
+     * bigger slice; slots below {@code size} are never changed except for sale prices.
+     */
+    private static final class Slice {
+        final Product[] products;
+        final double[] basePrices;
+        final double[] salePrices;
+        final int[] versions;
+
+        // Number of published slots; written after the slot
+        volatile int size;
+
+        // Rate last applied; written after the sale prices
+        volatile double rate;
+
+        Slice(int capacity, double rate) {
+            this.products = new Product[capacity];
+            this.basePrices = new double[capacity];
+            this.salePrices = new double[capacity];
+            this.versions = new int[capacity];
+            this.rate = rate;
+        }
+
+        // Returns a copy with twice the capacity
+        Slice grow() {
+            Slice bigger = new Slice(products.length * 2, rate);
+            int count = size;
+            System.arraycopy(products, 0, bigger.products, 0, count);
+            System.arraycopy(basePrices, 0, bigger.basePrices, 0, count);
+            System.arraycopy(salePrices, 0, bigger.salePrices, 0, count);
+            System.arraycopy(versions, 0, bigger.versions, 0, count);
+            bigger.size = count;
+            return bigger;
+        }
+    }
+}
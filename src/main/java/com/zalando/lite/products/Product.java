@@ -1,8 +1,12 @@
 package com.zalando.lite.products;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import com.zalando.lite.annotations.Featured;
+import com.zalando.lite.util.IdAllocator;
 
 /**
  * Represents a product in the ZalandoLite fashion store.
@@ -14,6 +18,12 @@ import com.zalando.lite.annotations.Featured;
  * - Current stock level
  * - A list of available sizes (e.g., S, M, L)
  * <p>
+ * Stock per size is kept in a dense {@code int[]} indexed by the size's ordinal
+ * (no boxed values, no map entries). Reserving a size is a lock-free compare-and-set
+ * on that one array slot, followed by an atomic update of the aggregate stock, so
+ * the aggregate always reflects size-level reservations. Setting the size stock
+ * also sets the aggregate stock to the sum over all sizes.
+ * <p>
  * Some products may also be marked with the {@link Featured} annotation
  * to indicate they are promoted or highlighted in the catalog.
  * <p>
@@ -34,29 +44,46 @@ public class Product {
     // Category for grouping (e.g., "Shoes", "Accessories", "Jackets")
     private String category;
 
+    // Interned ID of the category (see CategoryDictionary), kept in sync with category
+    private int categoryId = CategoryDictionary.NO_CATEGORY;
+
     // Price of the product
     private double price;
 
-    // Quantity in stock -General stock (used by InventoryManager and OrderManager)
-    private int stock;
+    // Bumped whenever the price or the category changes, so cached prices can be recognized as stale
+    private final AtomicInteger pricingVersion = new AtomicInteger();
 
-    private static int nextId = 1;
+    // Quantity in stock -General stock (used by InventoryManager and OrderManager)
+    private final AtomicInteger stock = new AtomicInteger();
     // -------------------------------------------------------------
 
-    // List of clothing size options
-    private Map<CLOTH_SIZE, Integer> clothingStock;
+    // Atomic access to single size slots
+    private static final VarHandle SIZE_SLOT = MethodHandles.arrayElementVarHandle(int[].class);
+
+    // Stock per clothing size, indexed by CLOTH_SIZE.ordinal() (null if not sold by clothing size)
+    private volatile int[] clothingStock;
 
     public enum CLOTH_SIZE {
         XS, S, M, L, XL, XXL
     }
 
 
-    // List of shoes size options
-    private Map<SHOE_SIZE, Integer> shoeStock;
+    // Stock per shoe size, indexed by SHOE_SIZE.ordinal() (null if not sold by shoe size)
+    private volatile int[] shoeStock;
 
     public enum SHOE_SIZE {
         EU36, EU37, EU38, EU39, EU40, EU41, EU42, EU43, EU44, EU45, EU46, EU47
     }
+
+    // Notified when a size goes in or out of stock (e.g. an availability index)
+    private volatile SizeStockListener sizeStockListener;
+
+    /**
+     * Receives a callback whenever one of a product's sizes goes in or out of stock.
+     */
+    public interface SizeStockListener {
+        void sizeStockChanged(Product product);
+    }
     // -------------------------------------------------------------
 
     /**
@@ -65,11 +92,12 @@ public class Product {
      */
     // Constructor for general products
     public Product(String name, String category, double price, int stock) {
-        this.id = nextId++;  // Auto-generate id
+        this.id = IdAllocator.PRODUCTS.nextId();  // Auto-generate id (thread-safe)
         this.name = name;
         this.category = category;
+        this.categoryId = CategoryDictionary.CATEGORIES.idOf(category);
         this.price = price;
-        this.stock = stock;
+        this.stock.set(stock);
     }
 
     // Empty Constructor
@@ -86,6 +114,7 @@ public class Product {
 
     public void setId(int id) {
         this.id = id;
+        IdAllocator.PRODUCTS.advancePast(id); // generated IDs never collide with this one
     }
 
     // Getter and setter for name
@@ -104,6 +133,13 @@ public class Product {
 
     public void setCategory(String category) {
         this.category = category;
+        this.categoryId = CategoryDictionary.CATEGORIES.idOf(category);
+        pricingVersion.incrementAndGet(); // category discounts depend on it
+    }
+
+    // Returns the interned category ID (CategoryDictionary.NO_CATEGORY if there is no category)
+    public int getCategoryId() {
+        return categoryId;
     }
 
     // Getter and setter for price
@@ -113,34 +149,207 @@ public class Product {
 
     public void setPrice(double price) {
         this.price = price;
+        pricingVersion.incrementAndGet();
+    }
+
+    // Returns the pricing version (changes with every setPrice and setCategory call)
+    public int getPricingVersion() {
+        return pricingVersion.get();
     }
 
     // Getter and setter for stock quantity
     public int getStock() {
-        return stock;
+        return stock.get();
     }
 
     public void setStock(int stock) {
-        this.stock = stock;
+        this.stock.set(stock);
     }
 
-    // Getter and setter for size options
+    // Atomically adds a signed amount to the aggregate stock (no availability check)
+    public void addStock(int delta) {
+        stock.addAndGet(delta);
+    }
 
+    /**
+     * Atomically reduces the aggregate stock if enough is available.
+     * <p>
+     * Products sold by size are rejected: their aggregate stock is the sum over
+     * their sizes, so stock must be taken from one size (see {@link #reserve}).
+     * Reducing only the aggregate would let a later size reservation oversell.
+     *
+     * @param quantity amount to subtract
+     * @return true if reduced, false if not enough stock or the product is sold by size
+     */
+    public boolean tryReduceStock(int quantity) {
+        if (isSoldBySize()) {
+            return false;
+        }
+        int current;
+        do {
+            current = stock.get();
+            if (current < quantity) {
+                return false;
+            }
+        } while (!stock.compareAndSet(current, current - quantity));
+        return true;
+    }
+
+    // Returns true if the product's stock is kept per clothing or shoe size
+    public boolean isSoldBySize() {
+        return clothingStock != null || shoeStock != null;
+    }
+
+    // Getter and setter for size options
 
+    // Returns a copy of the clothing size stock, or null if not sold by clothing size
     public Map<CLOTH_SIZE, Integer> getClothingStock() {
-        return clothingStock;
+        return toMap(clothingStock, CLOTH_SIZE.class);
     }
 
+    // Sets the stock per clothing size; the aggregate stock becomes the sum over all sizes
     public void setClothingStock(Map<CLOTH_SIZE, Integer> clothingStock) {
-        this.clothingStock = new HashMap<>(clothingStock);
+        this.clothingStock = toArray(clothingStock, CLOTH_SIZE.values().length);
+        sizeStockChanged();
     }
 
+    // Returns a copy of the shoe size stock, or null if not sold by shoe size
     public Map<SHOE_SIZE, Integer> getShoeStock() {
-        return shoeStock;
+        return toMap(shoeStock, SHOE_SIZE.class);
     }
 
+    // Sets the stock per shoe size; the aggregate stock becomes the sum over all sizes
     public void setShoeStock(Map<SHOE_SIZE, Integer> shoeStock) {
-        this.shoeStock = shoeStock;
+        this.shoeStock = toArray(shoeStock, SHOE_SIZE.values().length);
+        sizeStockChanged();
+    }
+
+    // Sets the listener notified when a size goes in or out of stock (null to remove)
+    public void setSizeStockListener(SizeStockListener listener) {
+        this.sizeStockListener = listener;
+    }
+
+    // Returns the stock of one clothing size (0 if not sold by clothing size)
+    public int getStock(CLOTH_SIZE size) {
+        return slot(clothingStock, size.ordinal());
+    }
+
+    // Returns the stock of one shoe size (0 if not sold by shoe size)
+    public int getStock(SHOE_SIZE size) {
+        return slot(shoeStock, size.ordinal());
+    }
+
+    /**
+     * Atomically reserves units of one clothing size (and of the aggregate stock).
+     *
+     * @param size     the size to reserve
+     * @param quantity number of units
+     * @return true if reserved, false if the size has too little stock
+     */
+    public boolean reserve(CLOTH_SIZE size, int quantity) {
+        return reserve(clothingStock, size.ordinal(), quantity);
+    }
+
+    /**
+     * Atomically reserves units of one shoe size (and of the aggregate stock).
+     *
+     * @param size     the size to reserve
+     * @param quantity number of units
+     * @return true if reserved, false if the size has too little stock
+     */
+    public boolean reserve(SHOE_SIZE size, int quantity) {
+        return reserve(shoeStock, size.ordinal(), quantity);
+    }
+
+    /**
+     * Adds (or, with a negative delta, removes) stock of one clothing size without
+     * checking availability, e.g. for restocking or replaying a log.
+     *
+     * @param size  the size to change
+     * @param delta the signed change
+     * @return false if the product is not sold by clothing size
+     */
+    public boolean adjustStock(CLOTH_SIZE size, int delta) {
+        return adjust(clothingStock, size.ordinal(), delta);
+    }
+
+    /**
+     * Adds (or, with a negative delta, removes) stock of one shoe size without
+     * checking availability, e.g. for restocking or replaying a log.
+     *
+     * @param size  the size to change
+     * @param delta the signed change
+     * @return false if the product is not sold by shoe size
+     */
+    public boolean adjustStock(SHOE_SIZE size, int delta) {
+        return adjust(shoeStock, size.ordinal(), delta);
+    }
+
+    private boolean reserve(int[] sizes, int index, int quantity) {
+        if (sizes == null) {
+            return false;
+        }
+        int current;
+        do {
+            current = (int) SIZE_SLOT.getVolatile(sizes, index);
+            if (current < quantity) {
+                return false;
+            }
+        } while (!SIZE_SLOT.compareAndSet(sizes, index, current, current - quantity));
+        stock.addAndGet(-quantity);
+        if (current > 0 && current == quantity) {
+            sizeStockChanged(); // this size just sold out
+        }
+        return true;
+    }
+
+    private boolean adjust(int[] sizes, int index, int delta) {
+        if (sizes == null) {
+            return false;
+        }
+        int previous = (int) SIZE_SLOT.getAndAdd(sizes, index, delta);
+        stock.addAndGet(delta);
+        if ((previous > 0) != (previous + delta > 0)) {
+            sizeStockChanged(); // the size went in or out of stock
+        }
+        return true;
+    }
+
+    private void sizeStockChanged() {
+        SizeStockListener listener = sizeStockListener;
+        if (listener != null) {
+            listener.sizeStockChanged(this);
+        }
+    }
+
+    private static int slot(int[] sizes, int index) {
+        return sizes == null ? 0 : (int) SIZE_SLOT.getVolatile(sizes, index);
+    }
+
+    // Builds the dense per-size array and sets the aggregate stock to its sum
+    private int[] toArray(Map<? extends Enum<?>, Integer> sizeStock, int sizeCount) {
+        if (sizeStock == null) {
+            return null;
+        }
+        int[] sizes = new int[sizeCount];
+        int total = 0;
+        for (Map.Entry<? extends Enum<?>, Integer> entry : sizeStock.entrySet()) {
+            sizes[entry.getKey().ordinal()] = entry.getValue();
+            total += entry.getValue();
+        }
+        stock.set(total);
+        return sizes;
+    }
+
+    private static <S extends Enum<S>> Map<S, Integer> toMap(int[] sizes, Class<S> type) {
+        if (sizes == null) {
+            return null;
+        }
+        Map<S, Integer> map = new EnumMap<>(type);
+        for (S size : type.getEnumConstants()) {
+            map.put(size, (int) SIZE_SLOT.getVolatile(sizes, size.ordinal()));
+        }
+        return map;
     }
 
 
@@ -163,9 +372,9 @@ public class Product {
                 ", name='" + name + '\'' +
                 ", category='" + category + '\'' +
                 ", price=" + price +
-                ", stock=" + stock +
-                ", clothingStock=" + (clothingStock != null ? clothingStock : "N/A") +
-                ", shoeStock=" + (shoeStock != null ? shoeStock : "N/A") +
+                ", stock=" + getStock() +
+                ", clothingStock=" + (clothingStock != null ? getClothingStock() : "N/A") +
+                ", shoeStock=" + (shoeStock != null ? getShoeStock() : "N/A") +
                 '}';
     }
 }
@@ -0,0 +1,166 @@
+package com.zalando.lite.products;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Availability matrix answering "which products are in stock in size X" without
+ * looking at any product's stock.
+ * <p>
+ * Every indexed product gets a dense slot number. The index keeps:
+ * - one {@link BitSet} per {@link Product.CLOTH_SIZE} and per {@link Product.SHOE_SIZE},
+ *   with a bit set for every product slot that has that size in stock
+ * - one {@link BitSet} per category, indexed by the interned category ID
+ *   (see {@link CategoryDictionary})
+ * <p>
+ * A size query, optionally restricted to a category, is a single bitset
+ * intersection followed by a walk over the set bits.
+ * <p>
+ * The index registers itself as the {@link Product.SizeStockListener} of each
+ * product, so it is updated whenever a size goes in or out of stock. On every
+ * notification it re-reads the product's current size stock, so notifications
+ * that arrive out of order still leave the index correct.
+ * <p>
+ * Categories are taken when a product is added; later category changes are not tracked.
+ * <p>
+ * Concepts reinforced:
+ * - Bitmap indexes
+ * - Read/write locking
+ */
+public class SizeAvailabilityIndex implements Product.SizeStockListener {
+
+    private static final Product.CLOTH_SIZE[] CLOTH_SIZES = Product.CLOTH_SIZE.values();
+    private static final Product.SHOE_SIZE[] SHOE_SIZES = Product.SHOE_SIZE.values();
+
+    // Product per slot, and slot per product ID
+    private final List<Product> slots = new ArrayList<>();
+    private final Map<Integer, Integer> slotById = new HashMap<>();
+
+    // Bit per product slot: size in stock
+    private final BitSet[] clothAvailability = newBitSets(CLOTH_SIZES.length);
+    private final BitSet[] shoeAvailability = newBitSets(SHOE_SIZES.length);
+
+    // Bit per product slot: product belongs to the category; indexed by category ID + 1
+    private final List<BitSet> categories = new ArrayList<>();
+
+    // BitSet is not thread-safe: queries share the read lock, updates take the write lock
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Adds a product to the index and starts tracking its size stock.
+     * Adding the same product ID again replaces the indexed product.
+     *
+     * @param product the product to index
+     */
+    public void add(Product product) {
+        lock.writeLock().lock();
+        try {
+            Integer slot = slotById.get(product.getId());
+            if (slot == null) {
+                slot = slots.size();
+                slots.add(product);
+                slotById.put(product.getId(), slot);
+            } else {
+                Product previous = slots.set(slot, product);
+                previous.setSizeStockListener(null);
+                for (BitSet categoryBits : categories) {
+                    categoryBits.clear(slot);
+                }
+            }
+            categoryBits(product.getCategoryId()).set(slot);
+            refresh(product, slot);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        product.setSizeStockListener(this);
+        sizeStockChanged(product); // catch changes made before the listener was set
+    }
+
+    @Override
+    public void sizeStockChanged(Product product) {
+        lock.writeLock().lock();
+        try {
+            Integer slot = slotById.get(product.getId());
+            if (slot != null && slots.get(slot) == product) {
+                refresh(product, slot);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Finds the products that have a clothing size in stock.
+     *
+     * @param size     the size
+     * @param category restrict to this category (case-insensitive), or null for all
+     * @return the matching products, in the order they were added
+     */
+    public List<Product> findAvailable(Product.CLOTH_SIZE size, String category) {
+        return find(clothAvailability[size.ordinal()], category);
+    }
+
+    /**
+     * Finds the products that have a shoe size in stock.
+     *
+     * @param size     the size
+     * @param category restrict to this category (case-insensitive), or null for all
+     * @return the matching products, in the order they were added
+     */
+    public List<Product> findAvailable(Product.SHOE_SIZE size, String category) {
+        return find(shoeAvailability[size.ordinal()], category);
+    }
+
+    private List<Product> find(BitSet sizeBits, String category) {
+        lock.readLock().lock();
+        try {
+            BitSet matches;
+            if (category == null) {
+                matches = sizeBits;
+            } else {
+                int categoryId = CategoryDictionary.CATEGORIES.find(category);
+                if (categoryId == CategoryDictionary.NO_CATEGORY || categoryId + 1 >= categories.size()) {
+                    return Collections.emptyList();
+                }
+                matches = (BitSet) sizeBits.clone();
+                matches.and(categories.get(categoryId + 1));
+            }
+
+            List<Product> result = new ArrayList<>(matches.cardinality());
+            for (int slot = matches.nextSetBit(0); slot >= 0; slot = matches.nextSetBit(slot + 1)) {
+                result.add(slots.get(slot));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Re-reads the product's size stock into its bits (caller holds the write lock)
+    private void refresh(Product product, int slot) {
+        for (Product.CLOTH_SIZE size : CLOTH_SIZES) {
+            clothAvailability[size.ordinal()].set(slot, product.getStock(size) > 0);
+        }
+        for (Product.SHOE_SIZE size : SHOE_SIZES) {
+            shoeAvailability[size.ordinal()].set(slot, product.getStock(size) > 0);
+        }
+    }
+
+    private static BitSet[] newBitSets(int count) {
+        BitSet[] sets = new BitSet[count];
+        for (int i = 0; i < count; i++) {
+            sets[i] = new BitSet();
+        }
+        return sets;
+    }
+
+    // Bits of a category (caller holds the write lock); slot 0 holds products without a category
+    private BitSet categoryBits(int categoryId) {
+        int index = categoryId + 1;
+        while (categories.size() <= index) {
+            categories.add(new BitSet());
+        }
+        return categories.get(index);
+    }
+}
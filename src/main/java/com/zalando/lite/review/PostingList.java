@@ -0,0 +1,91 @@
+package com.zalando.lite.review;
+
+import java.util.Arrays;
+
+/**
+ * Compressed, append-only list of ascending document numbers for one search term.
+ * <p>
+ * Instead of storing every number as a 4-byte int, each number is stored as the
+ * difference to the previous one (delta), written as a variable-length integer
+ * (7 bits per byte, high bit = "more bytes follow"). Frequent terms have small
+ * gaps, so most entries take a single byte.
+ * <p>
+ * Not thread-safe; {@link ReviewSearchIndex} guards it with the lock stripe of its term.
+ */
+class PostingList {
+
+    // Encoded deltas
+    private byte[] data = new byte[8];
+
+    // Number of used bytes in data
+    private int length;
+
+    // Number of document numbers stored
+    private int count;
+
+    // Last document number appended (-1 if none)
+    private int last = -1;
+
+    /**
+     * Appends a document number. Numbers must be appended in ascending order;
+     * appending the same number twice (a repeated word) is ignored.
+     *
+     * @param docNo the document number
+     */
+    void add(int docNo) {
+        if (docNo == last) {
+            return;
+        }
+        if (docNo < last) {
+            throw new IllegalArgumentException("Document numbers must be ascending: " + docNo + " after " + last);
+        }
+        int delta = docNo - last;
+        last = docNo;
+        count++;
+
+        if (length + 5 > data.length) {
+            data = Arrays.copyOf(data, data.length * 2);
+        }
+        while ((delta & ~0x7F) != 0) {
+            data[length++] = (byte) ((delta & 0x7F) | 0x80);
+            delta >>>= 7;
+        }
+        data[length++] = (byte) delta;
+    }
+
+    // Returns the number of document numbers stored
+    int size() {
+        return count;
+    }
+
+    /**
+     * Decodes all document numbers.
+     *
+     * @return the document numbers in ascending order
+     */
+    int[] toArray() {
+        int[] docs = new int[count];
+        int pos = 0;
+        int doc = -1;
+
+        for (int i = 0; i < count; i++) {
+            int delta = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = data[pos++];
+                delta |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+
+            doc += delta;
+            docs[i] = doc;
+        }
+        return docs;
+    }
+
+    // Returns the number of bytes used by the encoded data
+    int encodedBytes() {
+        return length;
+    }
+}
@@ -0,0 +1,201 @@
+package com.zalando.lite.review;
+
+import java.util.*;
+
+/**
+ * Append-only index of the reviews of a single product.
+ * <p>
+ * The segment stores only the global IDs of the product's reviews; the review data
+ * itself lives in the shared, column-oriented {@link ReviewStore}. IDs are kept in
+ * fixed-size int chunks, so appending never copies existing entries (only the small
+ * chunk directory is copied when it fills up).
+ * Writers for the same product are serialized by a lock on this object;
+ * writers for different products never contend because every product has
+ * its own {@code ProductReviews}.
+ * <p>
+ * {@link #snapshot()} never locks: it captures the current size and
+ * returns a read-only list of exactly those reviews. Reviews appended later
+ * are not visible in an existing snapshot.
+ * <p>
+ * Two sorted indexes over review positions (newest first and highest rated first,
+ * see {@link SortedPositions}) are maintained on insertion, so {@link #page} serves
+ * one page with binary searches and a walk over the index blocks (one per 512
+ * reviews) instead of sorting. An insert shifts at most one block.
+ * The sort keys (timestamp and rating) are read from the store's primitive columns.
+ * Each review costs 12 bytes here: its ID and one {@code int} per index.
+ * {@link #page} reads the indexes under the same short lock as {@link #append}.
+ * <p>
+ * Concepts reinforced:
+ * - Safe publication through a volatile field
+ * - Immutable snapshots instead of defensive copies
+ */
+public class ProductReviews {
+
+    // Number of reviews per chunk (a power of two, so index math is a shift and a mask)
+    private static final int CHUNK_SHIFT = 10;
+    private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    // Column store holding the review data
+    private final ReviewStore store;
+
+    // Chunk directory of review IDs; replaced by a bigger copy when it needs to grow
+    private volatile int[][] chunks = new int[4][];
+
+    // Number of published reviews. Written last on append, read first by readers.
+    private volatile int size;
+
+    // Running rating statistics for this product
+    private final ReviewStats stats = new ReviewStats();
+
+    // Review positions sorted newest first
+    private final SortedPositions newestFirst = new SortedPositions(this::compareNewestFirst);
+
+    // Review positions sorted by rating (highest first), then newest first
+    private final SortedPositions highestRatedFirst = new SortedPositions(this::compareHighestRatedFirst);
+
+    public ProductReviews(ReviewStore store) {
+        this.store = store;
+    }
+
+    /**
+     * Appends a stored review and updates the statistics.
+     *
+     * @param reviewId the review's ID in the {@link ReviewStore} (rating must already be validated)
+     */
+    public synchronized void append(int reviewId) {
+        int index = size;
+        int chunk = index >>> CHUNK_SHIFT;
+        int[][] directory = chunks;
+
+        if (chunk == directory.length) {
+            directory = Arrays.copyOf(directory, directory.length * 2);
+        }
+        if (directory[chunk] == null) {
+            directory[chunk] = new int[CHUNK_SIZE];
+        }
+        directory[chunk][index & CHUNK_MASK] = reviewId;
+        chunks = directory;
+
+        stats.record(store.ratingOf(reviewId));
+
+        // Index the new position (its sort keys are already in the store)
+        newestFirst.add(index);
+        highestRatedFirst.add(index);
+
+        // Publish: everything written above becomes visible to readers of size
+        size = index + 1;
+    }
+
+    // Returns the number of reviews stored
+    public int size() {
+        return size;
+    }
+
+    // Returns the running statistics of this product
+    public ReviewStats getStats() {
+        return stats;
+    }
+
+    /**
+     * Returns a stable, read-only view of the reviews present right now.
+     * <p>
+     * Nothing is copied; the view simply stops at the size seen when it was created.
+     * Each {@code get} materializes the review from the column store.
+     *
+     * @return an unmodifiable list of reviews in insertion order
+     */
+    public List<Review> snapshot() {
+        int snapshotSize = size;         // read the size first...
+        int[][] snapshotChunks = chunks; // ...so the directory covers at least that many reviews
+        return new Snapshot(store, snapshotChunks, snapshotSize);
+    }
+
+    /**
+     * Returns one page of reviews in the given order.
+     * <p>
+     * Only the requested page is visited: the cursor is found in the sorted index
+     * by binary search and iteration stops after {@code pageSize} reviews.
+     *
+     * @param order    the sort order
+     * @param cursor   {@link ReviewPage#FIRST_PAGE}, or the next cursor of the previous page
+     *                 ({@link ReviewPage#NO_MORE_PAGES} gives an empty last page)
+     * @param pageSize maximum number of reviews on the page
+     * @return the page and the cursor for the next one
+     */
+    public ReviewPage page(ReviewSortOrder order, int cursor, int pageSize) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("Page size must be positive: " + pageSize);
+        }
+        if (cursor == ReviewPage.NO_MORE_PAGES) {
+            return ReviewPage.empty();
+        }
+        if (cursor != ReviewPage.FIRST_PAGE && (cursor < 0 || cursor >= size)) {
+            throw new IllegalArgumentException("Invalid review cursor: " + cursor);
+        }
+
+        int[] reviewIds;
+        int next;
+        synchronized (this) {
+            SortedPositions index = order == ReviewSortOrder.HIGHEST_RATED_FIRST ? highestRatedFirst : newestFirst;
+            int from = cursor == ReviewPage.FIRST_PAGE ? 0 : index.rankOf(cursor) + 1;
+            int to = Math.min(from + pageSize, index.size());
+            int[] positions = index.range(from, to);
+            reviewIds = new int[positions.length];
+            for (int i = 0; i < positions.length; i++) {
+                reviewIds[i] = reviewIdAt(positions[i]);
+            }
+            next = to < index.size() ? positions[positions.length - 1] : ReviewPage.NO_MORE_PAGES;
+        }
+
+        // Materialize outside the lock
+        List<Review> reviews = new ArrayList<>(reviewIds.length);
+        for (int reviewId : reviewIds) {
+            reviews.add(store.get(reviewId));
+        }
+        return new ReviewPage(reviews, next);
+    }
+
+    private int reviewIdAt(int index) {
+        return chunks[index >>> CHUNK_SHIFT][index & CHUNK_MASK];
+    }
+
+    private int compareNewestFirst(int a, int b) {
+        int byTime = Long.compare(store.timeOf(reviewIdAt(b)), store.timeOf(reviewIdAt(a)));
+        return byTime != 0 ? byTime : Integer.compare(b, a); // later insert = newer on ties
+    }
+
+    private int compareHighestRatedFirst(int a, int b) {
+        int byRating = Integer.compare(store.ratingOf(reviewIdAt(b)), store.ratingOf(reviewIdAt(a)));
+        return byRating != 0 ? byRating : compareNewestFirst(a, b);
+    }
+
+    /**
+     * Read-only list over a fixed prefix of the chunk directory.
+     */
+    private static final class Snapshot extends AbstractList<Review> implements RandomAccess {
+
+        private final ReviewStore store;
+        private final int[][] chunks;
+        private final int size;
+
+        Snapshot(ReviewStore store, int[][] chunks, int size) {
+            this.store = store;
+            this.chunks = chunks;
+            this.size = size;
+        }
+
+        @Override
+        public Review get(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+            }
+            return store.get(chunks[index >>> CHUNK_SHIFT][index & CHUNK_MASK]);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.zalando.lite.review;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * One page of reviews plus the cursor needed to fetch the next page.
+ * <p>
+ * Cursors are opaque to callers: pass {@link #getNextCursor()} back to
+ * {@code ReviewManager.getReviewsPage} to continue where this page stopped.
+ * Pass {@link #FIRST_PAGE} to start from the beginning. The two sentinels are
+ * distinct, so passing the cursor of the last page back in returns an empty page
+ * instead of starting over.
+ */
+public class ReviewPage {
+
+    // Cursor value meaning "start from the beginning"
+    public static final int FIRST_PAGE = -1;
+
+    // Cursor value meaning "there are no more pages"
+    public static final int NO_MORE_PAGES = -2;
+
+    private static final ReviewPage EMPTY = new ReviewPage(Collections.emptyList(), NO_MORE_PAGES);
+
+    // Reviews on this page, in the requested order
+    private final List<Review> reviews;
+
+    // Cursor for the next page, or NO_MORE_PAGES
+    private final int nextCursor;
+
+    public ReviewPage(List<Review> reviews, int nextCursor) {
+        this.reviews = Collections.unmodifiableList(reviews);
+        this.nextCursor = nextCursor;
+    }
+
+    // Returns an empty last page
+    public static ReviewPage empty() {
+        return EMPTY;
+    }
+
+    // Returns the reviews on this page
+    public List<Review> getReviews() {
+        return reviews;
+    }
+
+    // Returns the cursor to pass in for the next page
+    public int getNextCursor() {
+        return nextCursor;
+    }
+
+    // Returns true if another page can be fetched
+    public boolean hasMore() {
+        return nextCursor != NO_MORE_PAGES;
+    }
+
+    @Override
+    public String toString() {
+        return "ReviewPage{" +
+                "reviews=" + reviews.size() +
+                ", nextCursor=" + nextCursor +
+                '}';
+    }
+}
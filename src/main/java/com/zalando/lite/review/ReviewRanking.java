@@ -0,0 +1,199 @@
+package com.zalando.lite.review;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Continuously maintained "top rated products" ranking.
+ * <p>
+ * Every product with reviews has one {@link RankedProduct} entry, kept in sorted
+ * sets (best average first) for the whole catalog and per category.
+ * When a review is added, only that product's entry is removed and re-inserted
+ * (O(log n) per set), so a top-N query just walks the head of the right set instead
+ * of scanning all reviews.
+ * <p>
+ * The sets are tiered by review count: tier {@code t} only holds products with at
+ * least 2<sup>t</sup> reviews (a product with {@code c} reviews is in about
+ * log<sub>2</sub> c tiers). A query with a minimum review count walks the highest
+ * tier that still contains every eligible product, so it skips products with far
+ * too few reviews instead of visiting (almost) every product first.
+ * <p>
+ * Updates for the same product are serialized through {@link ConcurrentHashMap#compute};
+ * updates for different products and all reads run in parallel.
+ * <p>
+ * Concepts reinforced:
+ * - Sorted concurrent collections
+ * - Incremental index maintenance
+ * - Tiered indexes for threshold queries
+ */
+public class ReviewRanking {
+
+    // Best average first; ties broken by more reviews, then by lower product ID
+    private static final Comparator<RankedProduct> BEST_FIRST =
+            Comparator.comparingDouble(RankedProduct::getAverageRating).reversed()
+                    .thenComparing(Comparator.comparingInt(RankedProduct::getReviewCount).reversed())
+                    .thenComparingInt(RankedProduct::getProductId);
+
+    // Number of review-count tiers (tier t: at least 2^t reviews)
+    private static final int TIERS = Integer.SIZE - 1;
+
+    // Current entry per product ID
+    private final Map<Integer, RankedProduct> entries = new ConcurrentHashMap<>();
+
+    // Ranking over all products
+    private final Tiers overall = new Tiers();
+
+    // Ranking per normalized category name
+    private final Map<String, Tiers> byCategory = new ConcurrentHashMap<>();
+
+    /**
+     * Re-ranks a product after its statistics changed.
+     *
+     * @param productId the product's ID
+     * @param category  the product's category (may be null)
+     * @param stats     the product's current rating statistics
+     */
+    public void update(int productId, String category, ReviewStats stats) {
+        String key = normalize(category);
+
+        entries.compute(productId, (id, previous) -> {
+            if (previous != null) {
+                overall.remove(previous);
+                categoryTiers(previous.getCategory()).remove(previous);
+            }
+
+            // Read the statistics inside compute, so the latest update always wins
+            RankedProduct current;
+            synchronized (stats) {
+                current = new RankedProduct(id, key, stats.getAverage(), stats.getCount());
+            }
+            overall.add(current);
+            categoryTiers(key).add(current);
+            return current;
+        });
+    }
+
+    /**
+     * Returns the best rated products.
+     *
+     * @param limit      maximum number of products to return
+     * @param minReviews minimum number of reviews a product needs to be ranked
+     * @param category   restrict to this category, or null for all products
+     * @return up to {@code limit} products, best average first
+     */
+    public List<RankedProduct> top(int limit, int minReviews, String category) {
+        Tiers tiers = category == null ? overall : byCategory.get(normalize(category));
+        NavigableSet<RankedProduct> ranking = tiers == null ? null : tiers.eligible(minReviews);
+        if (ranking == null || limit <= 0) {
+            return Collections.emptyList();
+        }
+
+        List<RankedProduct> result = new ArrayList<>(Math.min(limit, 64));
+        for (RankedProduct entry : ranking) {
+            if (entry.getReviewCount() >= minReviews) {
+                result.add(entry);
+                if (result.size() == limit) {
+                    break; // early termination: the rest ranks lower
+                }
+            }
+        }
+        return result;
+    }
+
+    private Tiers categoryTiers(String key) {
+        return byCategory.computeIfAbsent(key, k -> new Tiers());
+    }
+
+    // Returns the highest tier a product with this many reviews belongs to (floor of log2)
+    private static int tierOf(int reviewCount) {
+        return reviewCount <= 1 ? 0 : 31 - Integer.numberOfLeadingZeros(reviewCount);
+    }
+
+    /**
+     * One ranking per review-count tier; tier sets are created on first use.
+     */
+    private static final class Tiers {
+
+        private final AtomicReferenceArray<NavigableSet<RankedProduct>> sets = new AtomicReferenceArray<>(TIERS);
+
+        void add(RankedProduct entry) {
+            for (int tier = 0; tier <= tierOf(entry.getReviewCount()); tier++) {
+                NavigableSet<RankedProduct> set = sets.get(tier);
+                if (set == null) {
+                    sets.compareAndSet(tier, null, new ConcurrentSkipListSet<>(BEST_FIRST));
+                    set = sets.get(tier);
+                }
+                set.add(entry);
+            }
+        }
+
+        void remove(RankedProduct entry) {
+            for (int tier = 0; tier <= tierOf(entry.getReviewCount()); tier++) {
+                NavigableSet<RankedProduct> set = sets.get(tier);
+                if (set != null) {
+                    set.remove(entry);
+                }
+            }
+        }
+
+        // Returns the tier with the fewest products that still holds every product with at least minReviews reviews
+        NavigableSet<RankedProduct> eligible(int minReviews) {
+            return sets.get(tierOf(minReviews));
+        }
+    }
+
+    // Categories are compared case-insensitively; products without a category share one bucket
+    private static String normalize(String category) {
+        return category == null ? "" : category.toLowerCase();
+    }
+
+    /**
+     * Immutable ranking entry: a product with its rating at the time it was ranked.
+     */
+    public static final class RankedProduct {
+
+        private final int productId;
+        private final String category;
+        private final double averageRating;
+        private final int reviewCount;
+
+        RankedProduct(int productId, String category, double averageRating, int reviewCount) {
+            this.productId = productId;
+            this.category = category;
+            this.averageRating = averageRating;
+            this.reviewCount = reviewCount;
+        }
+
+        // Returns the ranked product's ID
+        public int getProductId() {
+            return productId;
+        }
+
+        // Returns the normalized (lower-case) category
+        public String getCategory() {
+            return category;
+        }
+
+        // Returns the average rating used for ranking
+        public double getAverageRating() {
+            return averageRating;
+        }
+
+        // Returns the number of reviews behind the average
+        public int getReviewCount() {
+            return reviewCount;
+        }
+
+        @Override
+        public String toString() {
+            return "RankedProduct{" +
+                    "productId=" + productId +
+                    ", category='" + category + '\'' +
+                    ", averageRating=" + String.format("%.2f", averageRating) +
+                    ", reviewCount=" + reviewCount +
+                    '}';
+        }
+    }
+}
@@ -0,0 +1,254 @@
+package com.zalando.lite.review;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over review comments.
+ * <p>
+ * Each comment is split into lower-case words (tokens). For every word the index
+ * keeps a {@link PostingList}: the compressed, ascending list of documents that
+ * contain the word. A query then only touches the lists of its own words:
+ * - AND ("all words"): intersect the lists, starting with the shortest one
+ * - OR ("any word"): merge the lists
+ * <p>
+ * Documents are numbered in the order they are indexed, which keeps every posting
+ * list ascending; a side table maps document numbers back to review IDs of the
+ * {@link ReviewStore}.
+ * <p>
+ * The index is updated incrementally on every added review. Terms are spread over
+ * a fixed set of lock stripes (by hash). Adding a review write-locks only the stripes
+ * of its own words, always in ascending stripe order, and takes its document number
+ * while holding them. Reviews without words in common are indexed in parallel, and
+ * every posting list still receives its document numbers in ascending order.
+ * Searches read-lock one stripe at a time while copying a term's list.
+ */
+public class ReviewSearchIndex {
+
+    // Number of lock stripes (a power of two)
+    private static final int STRIPES = 64;
+
+    // Document numbers per chunk of the review ID table (a power of two)
+    private static final int CHUNK_SHIFT = 12;
+    private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    // Word → documents containing it; a word's list is guarded by its stripe
+    private final Map<String, PostingList> postings = new ConcurrentHashMap<>();
+
+    // Document number → review ID, in fixed-size chunks; the directory grows under lock
+    private volatile int[][] reviewIds = new int[4][];
+
+    // Next document number
+    private final AtomicInteger documentCount = new AtomicInteger();
+
+    private final ReentrantReadWriteLock[] stripes = new ReentrantReadWriteLock[STRIPES];
+
+    public ReviewSearchIndex() {
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new ReentrantReadWriteLock();
+        }
+    }
+
+    /**
+     * Indexes the comment of a review.
+     *
+     * @param reviewId the review's ID in the {@link ReviewStore}
+     * @param comment  the comment text (null or blank comments are skipped)
+     */
+    public void add(int reviewId, String comment) {
+        List<String> tokens = tokenize(comment);
+        if (tokens.isEmpty()) {
+            return;
+        }
+
+        Set<String> words = new LinkedHashSet<>(tokens);
+        int[] locked = stripesOf(words);
+        for (int stripe : locked) {
+            stripes[stripe].writeLock().lock();
+        }
+        try {
+            // Taken under the locks, so each of these words' lists gets ascending numbers
+            int docNo = documentCount.getAndIncrement();
+            chunkFor(docNo)[docNo & CHUNK_MASK] = reviewId;
+
+            for (String word : words) {
+                postings.computeIfAbsent(word, t -> new PostingList()).add(docNo);
+            }
+        } finally {
+            for (int i = locked.length - 1; i >= 0; i--) {
+                stripes[locked[i]].writeLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * Finds reviews whose comment contains every word of the query (AND).
+     *
+     * @param query free text, e.g. "broken zipper"
+     * @return matching review IDs (empty if the query has no words)
+     */
+    public int[] searchAll(String query) {
+        List<String> tokens = tokenize(query);
+        if (tokens.isEmpty()) {
+            return new int[0];
+        }
+
+        List<int[]> lists = new ArrayList<>(tokens.size());
+        for (String token : new LinkedHashSet<>(tokens)) {
+            int[] docs = postingsOf(token);
+            if (docs.length == 0) {
+                return new int[0]; // a missing word means no document has all words
+            }
+            lists.add(docs);
+        }
+        lists.sort(Comparator.comparingInt(docs -> docs.length));
+
+        int[] result = lists.get(0);
+        for (int i = 1; i < lists.size() && result.length > 0; i++) {
+            result = intersect(result, lists.get(i));
+        }
+        return toReviewIds(result);
+    }
+
+    /**
+     * Finds reviews whose comment contains at least one word of the query (OR).
+     *
+     * @param query free text, e.g. "small tight"
+     * @return matching review IDs (empty if the query has no words)
+     */
+    public int[] searchAny(String query) {
+        List<String> tokens = tokenize(query);
+
+        int[] result = new int[0];
+        for (String token : new LinkedHashSet<>(tokens)) {
+            result = union(result, postingsOf(token));
+        }
+        return toReviewIds(result);
+    }
+
+    // Returns the number of distinct words in the index
+    public int termCount() {
+        return postings.size();
+    }
+
+    /**
+     * Splits text into lower-case words made of letters and digits.
+     *
+     * @param text the text to split (may be null)
+     * @return the words in order of appearance
+     */
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return Collections.emptyList();
+        }
+
+        List<String> tokens = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean wordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                tokens.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    // Copies a word's document numbers under its stripe's read lock
+    private int[] postingsOf(String word) {
+        ReentrantReadWriteLock stripe = stripes[stripeOf(word)];
+        stripe.readLock().lock();
+        try {
+            PostingList list = postings.get(word);
+            return list == null ? new int[0] : list.toArray();
+        } finally {
+            stripe.readLock().unlock();
+        }
+    }
+
+    // Returns the distinct stripes of the words, ascending (the lock order)
+    private static int[] stripesOf(Set<String> words) {
+        BitSet used = new BitSet(STRIPES);
+        for (String word : words) {
+            used.set(stripeOf(word));
+        }
+        return used.stream().toArray();
+    }
+
+    private static int stripeOf(String word) {
+        int hash = word.hashCode();
+        return (hash ^ (hash >>> 16)) & (STRIPES - 1);
+    }
+
+    // Document numbers read from a posting list were written before the list was
+    // appended to under the stripe lock, so their table entries are visible
+    private int[] toReviewIds(int[] docNos) {
+        int[][] directory = reviewIds;
+        for (int i = 0; i < docNos.length; i++) {
+            docNos[i] = directory[docNos[i] >>> CHUNK_SHIFT][docNos[i] & CHUNK_MASK];
+        }
+        return docNos;
+    }
+
+    private int[] chunkFor(int docNo) {
+        int chunk = docNo >>> CHUNK_SHIFT;
+        int[][] directory = reviewIds;
+        if (chunk < directory.length && directory[chunk] != null) {
+            return directory[chunk];
+        }
+        return createChunk(chunk);
+    }
+
+    private synchronized int[] createChunk(int chunk) {
+        int[][] directory = reviewIds;
+        if (chunk >= directory.length) {
+            directory = Arrays.copyOf(directory, Math.max(directory.length * 2, chunk + 1));
+        }
+        if (directory[chunk] == null) {
+            directory[chunk] = new int[CHUNK_SIZE];
+        }
+        reviewIds = directory;
+        return directory[chunk];
+    }
+
+    // Intersection of two ascending arrays
+    private static int[] intersect(int[] a, int[] b) {
+        int[] out = new int[Math.min(a.length, b.length)];
+        int i = 0, j = 0, n = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                out[n++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(out, n);
+    }
+
+    // Union of two ascending arrays (without duplicates)
+    private static int[] union(int[] a, int[] b) {
+        int[] out = new int[a.length + b.length];
+        int i = 0, j = 0, n = 0;
+        while (i < a.length || j < b.length) {
+            if (j == b.length || (i < a.length && a[i] < b[j])) {
+                out[n++] = a[i++];
+            } else if (i == a.length || b[j] < a[i]) {
+                out[n++] = b[j++];
+            } else {
+                out[n++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(out, n);
+    }
+}
@@ -0,0 +1,13 @@
+package com.zalando.lite.review;
+
+/**
+ * Sort orders supported when paging through a product's reviews.
+ */
+public enum ReviewSortOrder {
+
+    // Most recent review first (by review timestamp)
+    NEWEST_FIRST,
+
+    // Highest star rating first; equal ratings are shown newest first
+    HIGHEST_RATED_FIRST
+}
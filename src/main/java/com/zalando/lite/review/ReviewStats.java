@@ -0,0 +1,103 @@
+package com.zalando.lite.review;
+
+/**
+ * Running rating statistics for a single product.
+ * <p>
+ * Instead of iterating all reviews of a product every time an average or a
+ * star distribution is needed, the {@code ReviewManager} updates one of these
+ * objects whenever a review is added. All queries are then O(1) and do not
+ * allocate.
+ * <p>
+ * Tracks:
+ * - Number of reviews
+ * - Sum of all ratings
+ * - A histogram of 1–5 star ratings
+ * <p>
+ * All methods are synchronized so concurrent writers and readers always see
+ * a consistent count, sum and histogram. The lock is per product, so it is
+ * essentially never contended.
+ * <p>
+ * Only the review package records ratings; everyone else gets a read-only view.
+ */
+public class ReviewStats {
+
+    // Lowest and highest valid star rating
+    public static final int MIN_RATING = 1;
+    public static final int MAX_RATING = 5;
+
+    // Number of reviews recorded
+    private int count;
+
+    // Sum of all recorded ratings
+    private long ratingSum;
+
+    // histogram[stars] = number of reviews with that many stars (index 0 unused)
+    private final int[] histogram = new int[MAX_RATING + 1];
+
+    /**
+     * Checks whether a rating is within the accepted 1–5 star range.
+     *
+     * @param rating the rating to check
+     * @return true if valid
+     */
+    public static boolean isValidRating(int rating) {
+        return rating >= MIN_RATING && rating <= MAX_RATING;
+    }
+
+    /**
+     * Records one more rating. Package-private: stats handed out by the
+     * {@code ReviewManager} must not be changed by callers.
+     *
+     * @param rating a star rating between 1 and 5
+     */
+    synchronized void record(int rating) {
+        if (!isValidRating(rating)) {
+            throw new IllegalArgumentException("Rating must be between 1 and 5: " + rating);
+        }
+        count++;
+        ratingSum += rating;
+        histogram[rating]++;
+    }
+
+    // Returns the number of recorded reviews
+    public synchronized int getCount() {
+        return count;
+    }
+
+    // Returns the sum of all recorded ratings
+    public synchronized long getRatingSum() {
+        return ratingSum;
+    }
+
+    /**
+     * Returns the average rating.
+     *
+     * @return the mean rating, or 0.0 if there are no reviews
+     */
+    public synchronized double getAverage() {
+        return count == 0 ? 0.0 : (double) ratingSum / count;
+    }
+
+    /**
+     * Returns how many reviews gave exactly the given number of stars.
+     *
+     * @param stars a star rating between 1 and 5
+     * @return the number of reviews with that rating, or 0 for invalid ratings
+     */
+    public synchronized int getRatingCount(int stars) {
+        return isValidRating(stars) ? histogram[stars] : 0;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "ReviewStats{" +
+                "count=" + count +
+                ", average=" + String.format("%.2f", getAverage()) +
+                ", 1*=" + histogram[1] +
+                ", 2*=" + histogram[2] +
+                ", 3*=" + histogram[3] +
+                ", 4*=" + histogram[4] +
+                ", 5*=" + histogram[5] +
+                '}';
+    }
+}
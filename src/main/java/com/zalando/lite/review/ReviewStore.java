@@ -0,0 +1,230 @@
+package com.zalando.lite.review;
+
+import com.zalando.lite.customer.Customer;
+import com.zalando.lite.products.Product;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Global, append-only, column-oriented store that gives every review a unique int ID.
+ * <p>
+ * Instead of keeping one {@link Review} object per review (plus its own
+ * {@link LocalDateTime}), each field is kept in its own column:
+ * - customer (reference to the review's own {@link Customer} object)
+ * - product ID (int)
+ * - rating (byte)
+ * - timestamp (epoch seconds, long)
+ * - comment (int reference into a comment pool)
+ * <p>
+ * That is about 21 bytes per review (with compressed object references), plus
+ * 12 bytes in the product's {@link ProductReviews}. Products are kept once per ID.
+ * Short comments such as "Great!" are pooled so repeated texts are stored once;
+ * the pool costs one map entry per distinct short text, not per review.
+ * {@link #get} materializes a fresh {@code Review} object only when one is
+ * actually read, with the same customer object the review was written with (so
+ * later changes to the customer, e.g. a new name, are reflected).
+ * Timestamps are stored with second precision.
+ * <p>
+ * Columns live in fixed-size chunks; an append only reserves an ID with an atomic
+ * increment and writes into its chunk, so concurrent writers do not block each other
+ * (a short lock is taken only when a new chunk has to be created).
+ * <p>
+ * Visibility: a review written by one thread is guaranteed to be visible to
+ * another thread only after it was published through a thread-safe structure
+ * (e.g. an index that the reader then reads). {@code ReviewManager} always
+ * appends here before updating its indexes.
+ */
+public class ReviewStore {
+
+    // Number of reviews per chunk (a power of two)
+    private static final int CHUNK_SHIFT = 12;
+    private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    // Comments up to this length are pooled (longer ones are rarely repeated)
+    private static final int POOLED_COMMENT_LENGTH = 64;
+
+    // Comment reference used for reviews without a comment
+    private static final int NO_COMMENT = -1;
+
+    // Next free review ID
+    private final AtomicInteger nextId = new AtomicInteger();
+
+    // Chunk directory; grows under lock, read without locking
+    private volatile Chunk[] chunks = new Chunk[4];
+
+    // One shared object per product ID
+    private final Map<Integer, Product> products = new ConcurrentHashMap<>();
+
+    // Comment texts and the pool index for short ones
+    private final CommentPool comments = new CommentPool();
+
+    /**
+     * Stores a review and returns its ID.
+     * <p>
+     * The review object itself is not kept; later changes to it are not reflected.
+     *
+     * @param review the review to store
+     * @return the review's ID (0, 1, 2, ...)
+     */
+    public int append(Review review) {
+        Customer customer = review.getCustomer();
+        Product product = review.getProduct();
+        products.putIfAbsent(product.getId(), product);
+
+        int id = nextId.getAndIncrement();
+        int slot = id & CHUNK_MASK;
+        Chunk chunk = chunkFor(id);
+
+        chunk.customers[slot] = customer;
+        chunk.productIds[slot] = product.getId();
+        chunk.ratings[slot] = (byte) review.getRating();
+        chunk.epochSeconds[slot] = review.getTimestamp() != null
+                ? review.getTimestamp().toEpochSecond(ZoneOffset.UTC)
+                : Long.MIN_VALUE;
+        chunk.commentRefs[slot] = comments.add(review.getComment());
+        return id;
+    }
+
+    /**
+     * Materializes the review with the given ID.
+     * <p>
+     * Every call returns a new {@code Review} object built from the columns.
+     *
+     * @param id a review ID returned by {@link #append}
+     * @return the review
+     */
+    public Review get(int id) {
+        Chunk chunk = chunkAt(id);
+        int slot = id & CHUNK_MASK;
+
+        Review review = new Review(
+                products.get(chunk.productIds[slot]),
+                chunk.ratings[slot],
+                chunk.customers[slot],
+                comments.get(chunk.commentRefs[slot]),
+                null);
+
+        long seconds = chunk.epochSeconds[slot];
+        review.setTimestamp(seconds == Long.MIN_VALUE ? null : LocalDateTime.ofEpochSecond(seconds, 0, ZoneOffset.UTC));
+        return review;
+    }
+
+    // Returns the star rating of a review (no object is created)
+    public int ratingOf(int id) {
+        return chunkAt(id).ratings[id & CHUNK_MASK];
+    }
+
+    // Returns a sortable timestamp of a review in epoch seconds (missing = oldest)
+    public long timeOf(int id) {
+        return chunkAt(id).epochSeconds[id & CHUNK_MASK];
+    }
+
+    // Returns the customer of a review, or null (no object is created)
+    public Customer customerOf(int id) {
+        return chunkAt(id).customers[id & CHUNK_MASK];
+    }
+
+    // Returns the product ID of a review (no object is created)
+    public int productIdOf(int id) {
+        return chunkAt(id).productIds[id & CHUNK_MASK];
+    }
+
+    // Returns the number of IDs handed out so far
+    public int size() {
+        return nextId.get();
+    }
+
+    private Chunk chunkAt(int id) {
+        return chunks[id >>> CHUNK_SHIFT];
+    }
+
+    private Chunk chunkFor(int id) {
+        int chunk = id >>> CHUNK_SHIFT;
+        Chunk[] directory = chunks;
+        if (chunk < directory.length && directory[chunk] != null) {
+            return directory[chunk];
+        }
+        return createChunk(chunk);
+    }
+
+    private synchronized Chunk createChunk(int chunk) {
+        Chunk[] directory = chunks;
+        if (chunk >= directory.length) {
+            directory = Arrays.copyOf(directory, Math.max(directory.length * 2, chunk + 1));
+        }
+        if (directory[chunk] == null) {
+            directory[chunk] = new Chunk();
+        }
+        chunks = directory;
+        return directory[chunk];
+    }
+
+    /**
+     * One block of column values.
+     */
+    private static final class Chunk {
+        final Customer[] customers = new Customer[CHUNK_SIZE];
+        final int[] productIds = new int[CHUNK_SIZE];
+        final byte[] ratings = new byte[CHUNK_SIZE];
+        final long[] epochSeconds = new long[CHUNK_SIZE];
+        final int[] commentRefs = new int[CHUNK_SIZE];
+    }
+
+    /**
+     * Append-only list of comment texts. Short texts are looked up first,
+     * so each distinct short comment is stored only once.
+     */
+    private static final class CommentPool {
+
+        private final Map<String, Integer> pooled = new ConcurrentHashMap<>();
+        private final AtomicInteger nextRef = new AtomicInteger();
+        private volatile String[][] texts = new String[4][];
+
+        int add(String comment) {
+            if (comment == null) {
+                return NO_COMMENT;
+            }
+            if (comment.length() <= POOLED_COMMENT_LENGTH) {
+                return pooled.computeIfAbsent(comment, this::store);
+            }
+            return store(comment);
+        }
+
+        String get(int ref) {
+            return ref == NO_COMMENT ? null : texts[ref >>> CHUNK_SHIFT][ref & CHUNK_MASK];
+        }
+
+        private int store(String comment) {
+            int ref = nextRef.getAndIncrement();
+            chunkFor(ref)[ref & CHUNK_MASK] = comment;
+            return ref;
+        }
+
+        private String[] chunkFor(int ref) {
+            int chunk = ref >>> CHUNK_SHIFT;
+            String[][] directory = texts;
+            if (chunk < directory.length && directory[chunk] != null) {
+                return directory[chunk];
+            }
+            return createChunk(chunk);
+        }
+
+        private synchronized String[] createChunk(int chunk) {
+            String[][] directory = texts;
+            if (chunk >= directory.length) {
+                directory = Arrays.copyOf(directory, Math.max(directory.length * 2, chunk + 1));
+            }
+            if (directory[chunk] == null) {
+                directory[chunk] = new String[CHUNK_SIZE];
+            }
+            texts = directory;
+            return directory[chunk];
+        }
+    }
+}
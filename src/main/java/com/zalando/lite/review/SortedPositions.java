@@ -0,0 +1,174 @@
+package com.zalando.lite.review;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntBinaryOperator;
+
+/**
+ * Review positions of one product, kept sorted by a rank order (e.g. newest first).
+ * <p>
+ * Positions are stored in blocks of plain {@code int[]}s (4 bytes per review, where
+ * a sorted set of boxed positions costs a skip-list node plus an {@code Integer}
+ * object). An insert shifts entries within one block only, never the whole index,
+ * so a review that ranks first in a product with 500k reviews costs the same as
+ * any other. A full block is split in half. The first block starts small and
+ * doubles up to the block size, so products with few reviews stay cheap.
+ * <p>
+ * The blocks are stored back to front (the entry ranked first is the last element
+ * of the last block), because reviews mostly arrive in rank order (newest first):
+ * then an insert lands at the very end and shifts nothing, and a full last block
+ * is followed by a new one instead of being split, so blocks stay full.
+ * <p>
+ * Finding a block is a binary search over the blocks' last entries, then a binary
+ * search inside the block; rank arithmetic walks the block sizes. Not thread-safe:
+ * {@link ProductReviews} guards it with its own lock.
+ */
+final class SortedPositions {
+
+    // Maximum number of positions per block, and the capacity of the first block
+    private static final int BLOCK_SIZE = 512;
+    private static final int INITIAL_CAPACITY = 8;
+
+    // Negative if the first position ranks before the second
+    private final IntBinaryOperator rankOrder;
+
+    // Blocks in stored order (last-ranked first); never empty once created
+    private final List<Block> blocks = new ArrayList<>();
+
+    // Number of positions in all blocks
+    private int size;
+
+    SortedPositions(IntBinaryOperator rankOrder) {
+        this.rankOrder = rankOrder;
+    }
+
+    // Inserts a position that is not yet in the index
+    void add(int position) {
+        if (blocks.isEmpty()) {
+            blocks.add(new Block(INITIAL_CAPACITY));
+        }
+        int b = blockFor(position);
+        Block block = blocks.get(b);
+        int at = -(block.search(position) + 1);
+
+        if (block.size == BLOCK_SIZE) {
+            Block next = new Block(BLOCK_SIZE);
+            blocks.add(b + 1, next);
+            if (b + 1 == blocks.size() - 1 && at == BLOCK_SIZE) {
+                block = next; // appended after the last entry: start a new block
+                at = 0;
+            } else {
+                int half = BLOCK_SIZE / 2;
+                System.arraycopy(block.positions, half, next.positions, 0, BLOCK_SIZE - half);
+                next.size = BLOCK_SIZE - half;
+                block.size = half;
+                if (at > half) {
+                    block = next;
+                    at -= half;
+                }
+            }
+        } else if (block.size == block.positions.length) {
+            block.positions = Arrays.copyOf(block.positions, Math.min(block.size * 2, BLOCK_SIZE));
+        }
+        System.arraycopy(block.positions, at, block.positions, at + 1, block.size - at);
+        block.positions[at] = position;
+        block.size++;
+        size++;
+    }
+
+    // Returns the number of positions
+    int size() {
+        return size;
+    }
+
+    /**
+     * Returns the positions with ranks {@code from} (inclusive) to {@code to} (exclusive).
+     *
+     * @param from the first rank (0 = ranked first)
+     * @param to   the end rank, at most {@link #size()}
+     * @return the positions in rank order
+     */
+    int[] range(int from, int to) {
+        int[] result = new int[to - from];
+        if (result.length == 0) {
+            return result;
+        }
+        // Rank r is stored at index size - 1 - r; walk backwards from the first rank's block
+        int stored = size - 1 - from;
+        int b = 0;
+        while (stored >= blocks.get(b).size) {
+            stored -= blocks.get(b).size;
+            b++;
+        }
+        for (int i = 0; i < result.length; i++) {
+            if (stored < 0) {
+                stored = blocks.get(--b).size - 1;
+            }
+            result[i] = blocks.get(b).positions[stored--];
+        }
+        return result;
+    }
+
+    // Returns the rank of a position in the index, or -1 if it is not in it
+    int rankOf(int position) {
+        if (blocks.isEmpty()) {
+            return -1;
+        }
+        int b = blockFor(position);
+        int at = blocks.get(b).search(position);
+        if (at < 0) {
+            return -1;
+        }
+        for (int i = 0; i < b; i++) {
+            at += blocks.get(i).size;
+        }
+        return size - 1 - at;
+    }
+
+    // Returns the first block whose last entry the position is stored at or before (the last block if none)
+    private int blockFor(int position) {
+        int low = 0;
+        int high = blocks.size() - 1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            Block block = blocks.get(mid);
+            if (rankOrder.applyAsInt(position, block.positions[block.size - 1]) >= 0) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * A sorted run of positions in stored order.
+     */
+    private final class Block {
+        int[] positions;
+        int size;
+
+        Block(int capacity) {
+            this.positions = new int[capacity];
+        }
+
+        // Binary search over the stored order; like Arrays.binarySearch
+        int search(int position) {
+            int low = 0;
+            int high = size - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                int cmp = rankOrder.applyAsInt(position, positions[mid]); // stored order is reversed
+                if (cmp < 0) {
+                    low = mid + 1;
+                } else if (cmp > 0) {
+                    high = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -(low + 1);
+        }
+    }
+}
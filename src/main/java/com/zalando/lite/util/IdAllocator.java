@@ -0,0 +1,102 @@
+package com.zalando.lite.util;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hands out unique int IDs, safely and cheaply, from any number of threads.
+ * <p>
+ * A single shared counter would make every thread fight over the same memory
+ * location. Instead, each thread reserves a whole block of IDs (e.g. 64) with one
+ * atomic operation and then hands them out from its own block without any
+ * synchronization. The shared counter is only touched once per block.
+ * <p>
+ * Consequences:
+ * - IDs are unique per allocator, never reused
+ * - Within one thread IDs are increasing; across threads they interleave by block
+ * - Unused IDs of a thread's block are simply skipped (gaps are allowed)
+ * <p>
+ * One shared allocator exists per entity type, so e.g. two products never get the
+ * same ID no matter which thread creates them.
+ * <p>
+ * Concepts reinforced:
+ * - Atomic variables
+ * - ThreadLocal state
+ */
+public class IdAllocator {
+
+    // Shared allocators per entity type
+    public static final IdAllocator PRODUCTS = new IdAllocator();
+    public static final IdAllocator CUSTOMERS = new IdAllocator();
+    public static final IdAllocator ORDERS = new IdAllocator();
+    public static final IdAllocator COURIERS = new IdAllocator();
+
+    // Number of IDs a thread reserves at once
+    private static final int DEFAULT_BLOCK_SIZE = 64;
+
+    // First ID of the next unreserved block
+    private final AtomicInteger nextBlockStart;
+
+    // Highest ID marked as in use by advancePast; blocks are not used at or below it
+    private final AtomicInteger floor = new AtomicInteger(Integer.MIN_VALUE);
+
+    // Number of IDs per block
+    private final int blockSize;
+
+    // Per-thread block: [0] = next ID to hand out, [1] = end of the block (exclusive)
+    private final ThreadLocal<int[]> currentBlock = ThreadLocal.withInitial(() -> new int[2]);
+
+    /**
+     * Creates an allocator that starts at ID 1.
+     */
+    public IdAllocator() {
+        this(1, DEFAULT_BLOCK_SIZE);
+    }
+
+    /**
+     * Creates an allocator with a custom first ID and block size.
+     *
+     * @param firstId   the first ID to hand out
+     * @param blockSize number of IDs a thread reserves at once (1 = no batching)
+     */
+    public IdAllocator(int firstId, int blockSize) {
+        if (blockSize < 1) {
+            throw new IllegalArgumentException("Block size must be at least 1: " + blockSize);
+        }
+        this.nextBlockStart = new AtomicInteger(firstId);
+        this.blockSize = blockSize;
+    }
+
+    /**
+     * Returns a new unique ID.
+     *
+     * @return the ID
+     * @throws IllegalStateException if the int range is exhausted
+     */
+    public int nextId() {
+        int[] block = currentBlock.get();
+        // Also start a new block if advancePast covered the rest of this one
+        if (block[0] == block[1] || block[0] <= floor.get()) {
+            int start = nextBlockStart.getAndAdd(blockSize);
+            if (start < 0 || start > Integer.MAX_VALUE - blockSize) {
+                throw new IllegalStateException("ID range exhausted");
+            }
+            block[0] = start;
+            block[1] = start + blockSize;
+        }
+        return block[0]++;
+    }
+
+    /**
+     * Makes sure no ID up to and including {@code id} will be handed out in new blocks.
+     * <p>
+     * Used after loading entities with existing IDs (e.g. from a snapshot or log).
+     * Blocks that threads already reserved are abandoned if they reach down to
+     * {@code id}: each thread checks the floor before handing out an ID from its block.
+     *
+     * @param id the highest ID already in use
+     */
+    public void advancePast(int id) {
+        nextBlockStart.accumulateAndGet(id + 1, Math::max);
+        floor.accumulateAndGet(id, Math::max);
+    }
+}
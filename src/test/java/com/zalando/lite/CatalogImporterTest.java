@@ -0,0 +1,108 @@
+package com.zalando.lite;
+
+import com.zalando.lite.managerSystem.CatalogImporter;
+import com.zalando.lite.managerSystem.InventoryManager;
+import com.zalando.lite.products.FactoryMethods;
+import com.zalando.lite.products.Product;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link CatalogImporter} and {@link FactoryMethods}.
+ * <p>
+ * These tests verify:
+ * - The factory methods return products with their size stock set
+ * - A CSV catalog with sizes, quoted fields and malformed lines is imported
+ * - Large catalogs spanning several batches keep their file order
+ * <p>
+ * Concepts reinforced:
+ * - File-based test fixtures
+ * - Temporary directories in tests
+ */
+public class CatalogImporterTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void testFactoryMethodsSetSizeStock() {
+        Product shirt = FactoryMethods.createClothingProduct("Shirt", "Clothing", 25.0, 0,
+                Map.of(Product.CLOTH_SIZE.M, 4, Product.CLOTH_SIZE.L, 2));
+        assertNotNull(shirt);
+        assertEquals(6, shirt.getStock());
+        assertEquals(4, shirt.getStock(Product.CLOTH_SIZE.M));
+
+        Product shoe = FactoryMethods.createShoeProduct("Runner", "Shoes", 80.0, 0,
+                Map.of(Product.SHOE_SIZE.EU42, 3));
+        assertEquals(3, shoe.getStock());
+
+        assertThrows(IllegalArgumentException.class,
+                () -> FactoryMethods.createProduct("Cap", "Accessories", -1.0, 5));
+        assertThrows(IllegalArgumentException.class,
+                () -> FactoryMethods.createClothingProduct("Shirt", "Clothing", 25.0, 0,
+                        Map.of(Product.CLOTH_SIZE.S, -2)));
+    }
+
+    @Test
+    void testImportCsvWithSizesAndBadLines() throws IOException {
+        Path csv = dir.resolve("catalog.csv");
+        Files.write(csv, List.of(
+                "name,category,price,stock,sizes",
+                "Basic Tee,Clothing,19.99,0,S:10;M:25",
+                "\"Runner, Trail\",Shoes,89.90,0,EU42:3;EU43:1",
+                "Sunglasses,Accessories,49.00,40,",
+                "Broken,Clothing,not-a-price,1,",
+                "",
+                "Odd,Clothing,10.0,0,XXXL:1"));
+
+        InventoryManager inventory = new InventoryManager();
+        CatalogImporter.ImportResult result = new CatalogImporter(inventory).importCsv(csv);
+
+        assertEquals(3, result.getImported());
+        assertEquals(2, result.getSkipped());
+
+        List<Product> products = inventory.getAllProducts();
+        assertEquals("Basic Tee", products.get(0).getName());
+        assertEquals(35, products.get(0).getStock());
+        assertEquals("Runner, Trail", products.get(1).getName());
+        assertEquals(1, products.get(1).getStock(Product.SHOE_SIZE.EU43));
+        assertEquals(40, products.get(2).getStock());
+
+        assertEquals(List.of(products.get(0)), inventory.findAvailableInSize(Product.CLOTH_SIZE.M, null));
+    }
+
+    @Test
+    void testLargeImportKeepsFileOrder() throws IOException {
+        Path csv = dir.resolve("large.csv");
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < 25_000; i++) {
+            lines.add("Item " + i + ",Clothing,9.99,0,M:" + (i % 3));
+        }
+        Files.write(csv, lines);
+
+        InventoryManager inventory = new InventoryManager();
+        CatalogImporter.ImportResult result = new CatalogImporter(inventory).importCsv(csv);
+
+        assertEquals(25_000, result.getImported());
+        List<Product> products = inventory.getAllProducts();
+        assertEquals("Item 0", products.get(0).getName());
+        assertEquals("Item 24999", products.get(24_999).getName());
+        assertEquals(25_000 - 8_334, inventory.findAvailableInSize(Product.CLOTH_SIZE.M, "clothing").size());
+    }
+
+    @Test
+    void testMissingFileImportsNothing() {
+        CatalogImporter.ImportResult result =
+                new CatalogImporter(new InventoryManager()).importCsv(dir.resolve("missing.csv"));
+        assertEquals(0, result.getImported());
+    }
+}
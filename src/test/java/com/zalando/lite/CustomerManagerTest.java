@@ -4,6 +4,11 @@ import com.zalando.lite.customer.Customer;
 import com.zalando.lite.managerSystem.CustomerManager;
 import org.junit.jupiter.api.*;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 /**
@@ -13,6 +18,8 @@ import static org.junit.jupiter.api.Assertions.*;
  * - Registering a new customer
  * - Retrieving a customer by ID
  * - Null handling when customer is not found
+ * - Case-insensitive, unique lookup by email (also under concurrent registration)
+ * - Concurrent re-registrations of one ID keep the ID and email maps in step
  *
  * Demonstrates how to use JUnit 5 annotations:
  * - @BeforeAll for one-time setup
@@ -70,6 +77,101 @@ public class CustomerManagerTest {
         assertNull(results);
     }
 
+    @Test
+    void testLookupByEmailIsCaseInsensitiveAndUnique() {
+        Customer linda = new Customer("Linda", "Linda@GMX.de", true);
+        assertTrue(customerManager.registerCustomer(linda));
+
+        assertSame(linda, customerManager.getCustomerByEmail("linda@gmx.de"));
+        assertSame(linda, customerManager.getCustomerByEmail("  LINDA@gmx.DE "));
+        assertNull(customerManager.getCustomerByEmail("phil@example.com"));
+
+        // Another customer with the same email is rejected
+        assertFalse(customerManager.registerCustomer(new Customer("Linda 2", "linda@gmx.de", false)));
+        assertEquals(1, customerManager.getAllCustomers().size());
+
+        // Re-registering the same ID with a new email releases the old one
+        Customer renamed = new Customer(linda.getId(), "Linda", "linda@example.com", true, List.of());
+        assertTrue(customerManager.registerCustomer(renamed));
+        assertSame(renamed, customerManager.getCustomerByEmail("linda@example.com"));
+        assertFalse(customerManager.isEmailRegistered("linda@gmx.de"));
+
+        // Changing the email of the registered object itself and registering it again
+        Customer phil = new Customer("Phil", "a@x.de", false);
+        assertTrue(customerManager.registerCustomer(phil));
+        phil.setEmail("b@x.de");
+        assertTrue(customerManager.registerCustomer(phil));
+        assertSame(phil, customerManager.getCustomerByEmail("b@x.de"));
+        assertFalse(customerManager.isEmailRegistered("a@x.de"), "Old email is released");
+        assertTrue(customerManager.registerCustomer(new Customer("Anna", "a@x.de", false)));
+    }
+
+    @Test
+    void testConcurrentRegistrationsWithSameEmail() throws InterruptedException {
+        int threads = 8;
+        AtomicInteger registered = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            Thread worker = new Thread(() -> {
+                Customer customer = new Customer("Same", "same@example.com", false);
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                if (customerManager.registerCustomer(customer)) {
+                    registered.incrementAndGet();
+                }
+            });
+            workers.add(worker);
+            worker.start();
+        }
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        assertEquals(1, registered.get(), "Exactly one registration wins.");
+        assertEquals(1, customerManager.getAllCustomers().size());
+    }
+
+    @Test
+    void testConcurrentReRegistrationsOfOneIdStayConsistent() throws InterruptedException {
+        int id = new Customer("Kim", "kim@a.de", false).getId();
+        AtomicInteger rejected = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+        for (String email : List.of("kim@a.de", "kim@b.de")) {
+            Thread worker = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                for (int i = 0; i < 2_000; i++) {
+                    if (!customerManager.registerCustomer(new Customer(id, "Kim", email, false, List.of()))) {
+                        rejected.incrementAndGet();
+                    }
+                }
+            });
+            workers.add(worker);
+            worker.start();
+        }
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        assertEquals(0, rejected.get(), "Re-registering an ID never conflicts with itself.");
+
+        // Only the stored customer's email is indexed, and it points to that customer
+        Customer stored = customerManager.getCustomerById(id);
+        String other = stored.getEmail().equals("kim@a.de") ? "kim@b.de" : "kim@a.de";
+        assertSame(stored, customerManager.getCustomerByEmail(stored.getEmail()));
+        assertNull(customerManager.getCustomerByEmail(other));
+    }
+
     @AfterEach
     void tearDown() {
         // Runs after each test
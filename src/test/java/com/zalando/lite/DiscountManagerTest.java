@@ -1,9 +1,28 @@
 package com.zalando.lite;
 
 import com.zalando.lite.customer.Customer;
+import com.zalando.lite.discountSystem.DiscountConfig;
+import com.zalando.lite.discountSystem.DiscountPolicy;
+import com.zalando.lite.discountSystem.DiscountRules;
+import com.zalando.lite.discountSystem.FlashSaleDiscount;
+import com.zalando.lite.discountSystem.FlashSaleScheduler;
 import com.zalando.lite.managerSystem.DiscountManager;
 import com.zalando.lite.products.Product;
 import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.*;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -15,6 +34,11 @@ import static org.junit.jupiter.api.Assertions.*;
  * - Products in the "Shoes" category receive a 20% discount
  * - Discounts do not stack incorrectly
  * - Non-VIP customers with non-discount categories pay full price
+ * - Rules reloaded from a file take effect; invalid files are rejected
+ * - Stacking policies and the cap on the combined rate
+ * - Cached final prices follow price, category and rule changes
+ * - Products sharing an ID and pricing version do not share cached prices
+ * - Flash sales start and end on schedule
  *
  * Concepts reinforced:
  * - Reflection testing with @VIP annotation
@@ -101,6 +125,160 @@ public class DiscountManagerTest {
         assertEquals(70.0, finalPrice, 0.01, "VIP + category discount should be combined (30% off).");
     }
 
+    @Test
+    @DisplayName("testRulesReloadedFromFile")
+    void testRulesReloadedFromFile(@TempDir Path dir) throws IOException {
+        DiscountConfig config = new DiscountConfig(DiscountRules.defaults());
+        DiscountManager manager = new DiscountManager(config);
+        Customer vipCustomer = new Customer("Linda", "linda@example.com", true);
+        Product shoes = new Product("Sneakers", "Shoes", 100.0, 5);
+
+        // Defaults: VIP 10% + shoes 20%
+        assertEquals(70.0, manager.applyDiscount(vipCustomer, shoes), 0.01);
+
+        Path file = dir.resolve("discounts.properties");
+        Files.writeString(file, "vip=0.05\ncategory.Shoes=0.40\n");
+        assertTrue(config.load(file));
+        assertEquals(55.0, manager.applyDiscount(vipCustomer, shoes), 0.01, "New rules apply right away.");
+
+        // An invalid edit is rejected and the loaded rules stay in effect
+        Files.writeString(file, "vip=0.05\ncategory.shoes=1.5\n");
+        assertFalse(config.reload());
+        assertEquals(0.40, config.current().getCategoryRates().get("shoes"), 0.0001);
+
+        Files.writeString(file, "category.books=0.25\n");
+        assertTrue(config.reload());
+        assertEquals(100.0, manager.applyDiscount(vipCustomer, shoes), 0.01);
+    }
+
+    @Test
+    @DisplayName("testStackingPolicies")
+    void testStackingPolicies() {
+        Customer vipCustomer = new Customer("Linda", "linda@example.com", true);
+        Product laptop = new Product("Laptop", "Electronics", 100.0, 5);
+        Map<String, Double> rates = Map.of("electronics", 0.5);
+
+        // VIP 10% + electronics 50%
+        assertEquals(0.60, rateUnder(new DiscountRules(0.10, rates), vipCustomer, laptop), 0.0001);
+        assertEquals(0.55, rateUnder(new DiscountRules(0.10, rates, DiscountPolicy.MULTIPLICATIVE, 1.0),
+                vipCustomer, laptop), 0.0001);
+        assertEquals(0.50, rateUnder(new DiscountRules(0.10, rates, DiscountPolicy.BEST_SINGLE, 1.0),
+                vipCustomer, laptop), 0.0001);
+        assertEquals(0.10, rateUnder(new DiscountRules(0.10, rates, DiscountPolicy.PRIORITY_EXCLUSIVE, 1.0),
+                vipCustomer, laptop), 0.0001);
+
+        // The cap limits the combined rate; additive rates never exceed 100%
+        assertEquals(0.40, rateUnder(new DiscountRules(0.10, rates, DiscountPolicy.ADDITIVE_CAPPED, 0.40),
+                vipCustomer, laptop), 0.0001);
+        assertEquals(1.0, rateUnder(new DiscountRules(0.60, Map.of("electronics", 0.8)), vipCustomer, laptop), 0.0001);
+
+        // Exclusive: the category discount applies when the VIP one does not
+        Customer regular = new Customer("Phil", "user@example.com", false);
+        assertEquals(0.50, rateUnder(new DiscountRules(0.10, rates, DiscountPolicy.PRIORITY_EXCLUSIVE, 1.0),
+                regular, laptop), 0.0001);
+    }
+
+    @Test
+    @DisplayName("testFinalPriceCacheInvalidation")
+    void testFinalPriceCacheInvalidation() {
+        DiscountConfig config = new DiscountConfig(DiscountRules.defaults());
+        DiscountManager manager = new DiscountManager(config);
+        Customer vipCustomer = new Customer("Linda", "linda@example.com", true);
+        Customer regular = new Customer("Phil", "user@example.com", false);
+        Product shoes = new Product("Sneakers", "Shoes", 100.0, 5);
+
+        assertEquals(70.0, manager.getFinalPrice(vipCustomer, shoes), 0.01);
+        assertEquals(80.0, manager.getFinalPrice(regular, shoes), 0.01);
+        assertEquals(70.0, manager.getFinalPrice(vipCustomer, shoes), 0.01, "Cached VIP price.");
+
+        // A price change invalidates the product's cached prices
+        shoes.setPrice(200.0);
+        assertEquals(140.0, manager.getFinalPrice(vipCustomer, shoes), 0.01);
+        assertEquals(160.0, manager.getFinalPrice(regular, shoes), 0.01);
+
+        // So does a category change, and publishing new rules
+        shoes.setCategory("books");
+        assertEquals(180.0, manager.getFinalPrice(vipCustomer, shoes), 0.01);
+        config.publish(new DiscountRules(0.25, Map.of()));
+        assertEquals(150.0, manager.getFinalPrice(vipCustomer, shoes), 0.01);
+        assertEquals(200.0, manager.getFinalPrice(regular, shoes), 0.01);
+    }
+
+    @Test
+    @DisplayName("testCachedPriceBelongsToItsProductObject")
+    void testCachedPriceBelongsToItsProductObject() {
+        DiscountManager manager = new DiscountManager(new DiscountConfig(DiscountRules.defaults()));
+        Customer regular = new Customer("Phil", "user@example.com", false);
+
+        // Both have ID 0 and the same pricing version
+        Product shoes = new Product();
+        shoes.setPrice(100.0);
+        shoes.setCategory("shoes");
+        Product book = new Product();
+        book.setPrice(100.0);
+        book.setCategory("books");
+        assertEquals(shoes.getId(), book.getId());
+        assertEquals(shoes.getPricingVersion(), book.getPricingVersion());
+
+        assertEquals(80.0, manager.getFinalPrice(regular, shoes), 0.01);
+        assertEquals(100.0, manager.getFinalPrice(regular, book), 0.01, "Not the other product's cached price.");
+        assertEquals(80.0, manager.getFinalPrice(regular, shoes), 0.01);
+    }
+
+    @Test
+    @DisplayName("testFlashSaleStartsAndEndsOnSchedule")
+    void testFlashSaleStartsAndEndsOnSchedule() {
+        DiscountConfig config = new DiscountConfig(DiscountRules.defaults());
+        DiscountManager manager = new DiscountManager(config);
+        Customer regular = new Customer("Phil", "user@example.com", false);
+        Product shoes = new Product("Sneakers", "Shoes", 100.0, 5);
+        Product book = new Product("Clean Code", "books", 100.0, 5);
+
+        // Time only moves when the test advances it
+        ManualTimer timer = new ManualTimer(Instant.parse("2025-11-28T08:00:00Z"));
+        Instant now = timer.instant();
+        FlashSaleDiscount sale = new FlashSaleDiscount("Shoe rush", "shoes", 0.30,
+                now.plus(Duration.ofHours(1)), now.plus(Duration.ofHours(2)));
+
+        try (FlashSaleScheduler scheduler = new FlashSaleScheduler(config, timer.clock(), timer)) {
+            assertTrue(scheduler.schedule(sale));
+            assertFalse(scheduler.schedule(sale), "Already scheduled.");
+
+            timer.advance(Duration.ofMinutes(59));
+            assertEquals(80.0, manager.getFinalPrice(regular, shoes), 0.01, "Not started yet.");
+            assertTrue(scheduler.getRunningSales().isEmpty());
+
+            // Started: shoes get 20% + 30%, other categories are unaffected
+            timer.advance(Duration.ofMinutes(1));
+            assertEquals(50.0, manager.getFinalPrice(regular, shoes), 0.01);
+            assertEquals(100.0, manager.getFinalPrice(regular, book), 0.01);
+            assertEquals(List.of(sale), scheduler.getRunningSales());
+
+            // Ended: back to the regular category discount
+            timer.advance(Duration.ofHours(1));
+            assertEquals(80.0, manager.getFinalPrice(regular, shoes), 0.01);
+            assertTrue(scheduler.getRunningSales().isEmpty());
+
+            // Cancelling a running sale ends it right away
+            FlashSaleDiscount next = new FlashSaleDiscount("Late deal", "shoes", 0.10,
+                    timer.instant(), timer.instant().plus(Duration.ofHours(1)));
+            assertTrue(scheduler.schedule(next));
+            timer.advance(Duration.ZERO);
+            assertEquals(List.of(next), scheduler.getRunningSales());
+            assertTrue(scheduler.cancel(next));
+            assertTrue(scheduler.getRunningSales().isEmpty());
+
+            FlashSaleDiscount past = new FlashSaleDiscount("Old", null, 0.5, now.minusSeconds(60), now.minusSeconds(1));
+            assertFalse(scheduler.schedule(past), "Sales that already ended are rejected.");
+        }
+        assertThrows(IllegalArgumentException.class,
+                () -> new FlashSaleDiscount("Empty", "shoes", 0.3, now, now));
+    }
+
+    private static double rateUnder(DiscountRules rules, Customer customer, Product product) {
+        return new DiscountManager(new DiscountConfig(rules)).calculateDiscountRate(customer, product);
+    }
+
     @AfterEach
     void tearDown(TestInfo testInfo) {
         // Reset if needed (usually not necessary for pure logic tests)
@@ -110,4 +288,132 @@ public class DiscountManagerTest {
     static void afterAllTests() {
         System.out.println("✅  .... ✨ Tests  Successfully Done ✨");
     }
+
+    /**
+     * Timer and clock driven by the test: tasks run on the test thread when
+     * {@link #advance} moves the time past their due time, in due order.
+     */
+    private static final class ManualTimer extends AbstractExecutorService implements ScheduledExecutorService {
+
+        private final PriorityQueue<Task<?>> queue = new PriorityQueue<>();
+        private Instant now;
+        private long sequence;
+        private boolean shutdown;
+
+        ManualTimer(Instant start) {
+            this.now = start;
+        }
+
+        Instant instant() {
+            return now;
+        }
+
+        Clock clock() {
+            return new Clock() {
+                @Override
+                public ZoneId getZone() {
+                    return ZoneOffset.UTC;
+                }
+
+                @Override
+                public Clock withZone(ZoneId zone) {
+                    throw new UnsupportedOperationException();
+                }
+
+                @Override
+                public Instant instant() {
+                    return now;
+                }
+            };
+        }
+
+        // Moves the time forward and runs every task that is due by then
+        void advance(Duration duration) {
+            Instant target = now.plus(duration);
+            while (!queue.isEmpty() && !queue.peek().due.isAfter(target)) {
+                Task<?> task = queue.poll();
+                now = task.due;
+                task.run();
+            }
+            now = target;
+        }
+
+        @Override
+        public ScheduledFuture<?> schedule(Runnable command, long delay, TimeUnit unit) {
+            return schedule(Executors.callable(command), delay, unit);
+        }
+
+        @Override
+        public <V> ScheduledFuture<V> schedule(Callable<V> callable, long delay, TimeUnit unit) {
+            Task<V> task = new Task<>(callable, now.plusNanos(unit.toNanos(delay)), sequence++);
+            queue.add(task);
+            return task;
+        }
+
+        @Override
+        public ScheduledFuture<?> scheduleAtFixedRate(Runnable command, long initialDelay, long period, TimeUnit unit) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public ScheduledFuture<?> scheduleWithFixedDelay(Runnable command, long initialDelay, long delay, TimeUnit unit) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void execute(Runnable command) {
+            command.run();
+        }
+
+        @Override
+        public void shutdown() {
+            shutdown = true;
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            shutdown = true;
+            queue.clear();
+            return List.of();
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return shutdown;
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return shutdown;
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) {
+            return shutdown;
+        }
+
+        private final class Task<V> extends FutureTask<V> implements ScheduledFuture<V> {
+
+            final Instant due;
+            final long order;
+
+            Task(Callable<V> callable, Instant due, long order) {
+                super(callable);
+                this.due = due;
+                this.order = order;
+            }
+
+            @Override
+            public long getDelay(TimeUnit unit) {
+                return unit.convert(Duration.between(now, due));
+            }
+
+            @Override
+            public int compareTo(Delayed other) {
+                Task<?> task = (Task<?>) other;
+                int byDue = due.compareTo(task.due);
+                return byDue != 0 ? byDue : Long.compare(order, task.order);
+            }
+        }
+    }
 }
@@ -0,0 +1,294 @@
+package com.zalando.lite;
+
+import com.zalando.lite.customer.Customer;
+import com.zalando.lite.managerSystem.EntityManager;
+import com.zalando.lite.persistence.InMemoryStorageBackend;
+import com.zalando.lite.products.Product;
+import org.junit.jupiter.api.*;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the generic {@link EntityManager}.
+ * <p>
+ * These tests verify:
+ * - Adding, retrieving and removing entities by ID
+ * - Iteration and streams see exactly the stored entities
+ * - Queries filter in place, honor limits and give the same result in parallel
+ * - Secondary indexes follow adds, updates and removes; unique indexes reject duplicates
+ * - Index keys of entities changed in place are dropped using the stored key
+ * - An update racing a removal never leaves the removed entity's unique key taken
+ * - Concurrent adds from many threads are all stored under unique IDs
+ * - Concurrent updates of one ID reach the storage backend in memory order
+ * <p>
+ * Concepts reinforced:
+ * - Generics in tests
+ * - Concurrency testing with thread pools
+ */
+public class EntityManagerTest {
+
+    private EntityManager<Product> productManager;
+
+    @BeforeEach
+    void setUp() {
+        productManager = new EntityManager<>();
+    }
+
+    @Test
+    void testAddGetAndRemoveEntity() {
+        Product product = new Product("Sneakers", "shoes", 79.99, 10);
+
+        int id = productManager.addEntity(product);
+        assertSame(product, productManager.getEntityById(id));
+        assertEquals(1, productManager.size());
+        assertFalse(productManager.isEmpty());
+
+        assertTrue(productManager.removeEntity(id));
+        assertFalse(productManager.removeEntity(id), "Removing twice should fail.");
+        assertNull(productManager.getEntityById(id));
+        assertTrue(productManager.isEmpty());
+
+        // Unknown and negative IDs are handled safely
+        assertNull(productManager.getEntityById(1_000_000));
+        assertNull(productManager.getEntityById(-1));
+    }
+
+    @Test
+    void testIterationSkipsRemovedEntities() {
+        int first = productManager.addEntity(new Product("A", "shoes", 1.0, 1));
+        productManager.addEntity(new Product("B", "shoes", 2.0, 1));
+        productManager.addEntity(new Product("C", "shoes", 3.0, 1));
+        productManager.removeEntity(first);
+
+        List<String> names = productManager.stream().map(Product::getName).toList();
+        assertEquals(List.of("B", "C"), names);
+        assertEquals(2, productManager.getAllEntities().size());
+    }
+
+    @Test
+    void testFindCountAndFindFirst() {
+        productManager.addEntity(new Product("Boots", "shoes", 120.0, 1));
+        productManager.addEntity(new Product("Shirt", "clothing", 20.0, 1));
+        productManager.addEntity(new Product("Sandals", "shoes", 35.0, 1));
+
+        List<String> shoes = productManager.find(p -> p.getCategory().equals("shoes")).stream()
+                .map(Product::getName).toList();
+        assertEquals(List.of("Boots", "Sandals"), shoes);
+        assertEquals(2, productManager.count(p -> p.getCategory().equals("shoes")));
+        assertEquals("Shirt", productManager.findFirst(p -> p.getPrice() < 30).orElseThrow().getName());
+        assertTrue(productManager.findFirst(p -> p.getPrice() > 1000).isEmpty());
+
+        assertEquals(List.of("Boots"), productManager.find(p -> p.getCategory().equals("shoes"), 1).stream()
+                .map(Product::getName).toList());
+        assertThrows(IllegalArgumentException.class, () -> productManager.find(p -> true, -1));
+    }
+
+    @Test
+    void testLargeQueriesScanInParallelWithSameResult() {
+        int total = EntityManager.PARALLEL_THRESHOLD * 2;
+        for (int i = 0; i < total; i++) {
+            productManager.addEntity(new Product("P" + i, i % 4 == 0 ? "shoes" : "bags", i, 1));
+        }
+
+        List<Product> shoes = productManager.find(p -> p.getCategory().equals("shoes"));
+        assertEquals(total / 4, shoes.size());
+        assertEquals(total / 4, productManager.count(p -> p.getCategory().equals("shoes")));
+
+        // Results keep ID order even when scanned in parallel
+        List<Product> expected = productManager.stream().filter(p -> p.getCategory().equals("shoes")).toList();
+        assertEquals(expected, shoes);
+        assertEquals(expected.subList(0, 10), productManager.find(p -> p.getCategory().equals("shoes"), 10));
+        assertEquals(total, productManager.parallelStream().count());
+    }
+
+    @Test
+    void testIndexFollowsAddUpdateAndRemove() {
+        int boots = productManager.addEntity(new Product("Boots", "shoes", 120.0, 1));
+        productManager.addIndex("category", Product::getCategory); // backfills existing entities
+        int shirt = productManager.addEntity(new Product("Shirt", "clothing", 20.0, 1));
+        int sandals = productManager.addEntity(new Product("Sandals", "shoes", 35.0, 1));
+
+        assertEquals(List.of("Boots", "Sandals"), productManager.findByIndex("category", "shoes").stream()
+                .map(Product::getName).toList());
+
+        productManager.updateEntity(sandals, new Product("Sandals", "summer", 35.0, 1));
+        assertEquals(1, productManager.findByIndex("category", "shoes").size());
+        assertEquals(1, productManager.findByIndex("category", "summer").size());
+
+        productManager.removeEntity(boots);
+        productManager.removeEntity(shirt);
+        assertTrue(productManager.findByIndex("category", "shoes").isEmpty());
+        assertTrue(productManager.findByIndex("category", "clothing").isEmpty());
+
+        assertThrows(IllegalArgumentException.class, () -> productManager.findByIndex("price", 1.0));
+        assertThrows(IllegalArgumentException.class, () -> productManager.addIndex("category", Product::getName));
+    }
+
+    @Test
+    void testUniqueIndexRejectsDuplicates() {
+        EntityManager<Customer> customers = new EntityManager<>();
+        customers.addUniqueIndex("email", Customer::getEmail);
+
+        int alice = customers.addEntity(new Customer("Alice", "alice@example.com", false));
+        assertThrows(IllegalArgumentException.class,
+                () -> customers.addEntity(new Customer("Other Alice", "alice@example.com", true)));
+        assertEquals(1, customers.size());
+        assertEquals("Alice", customers.findUnique("email", "alice@example.com").getName());
+
+        // Changing the email frees the old one
+        customers.updateEntity(alice, new Customer("Alice", "alice@new.example.com", false));
+        assertNull(customers.findUnique("email", "alice@example.com"));
+        customers.addEntity(new Customer("Bob", "alice@example.com", false));
+
+        // An update may not steal another entity's key
+        assertThrows(IllegalArgumentException.class,
+                () -> customers.updateEntity(alice, new Customer("Alice", "alice@example.com", false)));
+        assertEquals("alice@new.example.com", customers.getEntityById(alice).getEmail());
+    }
+
+    @Test
+    void testIndexDropsStoredKeyOfEntitiesChangedInPlace() {
+        EntityManager<Customer> customers = new EntityManager<>();
+        customers.addUniqueIndex("email", Customer::getEmail);
+        productManager.addIndex("category", Product::getCategory);
+
+        // Changed in place, then stored again: the old key is released
+        Customer alice = new Customer("Alice", "alice@example.com", false);
+        int aliceId = customers.addEntity(alice);
+        alice.setEmail("alice@new.example.com");
+        assertTrue(customers.updateEntity(aliceId, alice));
+        assertSame(alice, customers.findUnique("email", "alice@new.example.com"));
+        assertNull(customers.findUnique("email", "alice@example.com"));
+        customers.addEntity(new Customer("Bob", "alice@example.com", false));
+
+        // Changed in place, then removed: the indexed key is removed, not the current one
+        Product boots = new Product("Boots", "shoes", 120.0, 1);
+        int bootsId = productManager.addEntity(boots);
+        boots.setCategory("winter");
+        assertTrue(productManager.removeEntity(bootsId));
+        assertTrue(productManager.findByIndex("category", "shoes").isEmpty());
+    }
+
+    @Test
+    void testUpdateRacingRemoveReleasesUniqueKey() throws Exception {
+        EntityManager<Customer> customers = new EntityManager<>();
+        customers.addUniqueIndex("email", Customer::getEmail);
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+
+        try {
+            for (int i = 0; i < 500; i++) {
+                int id = customers.addEntity(new Customer("C", "old" + i + "@example.com", false));
+                String email = "new" + i + "@example.com";
+                Future<?> update = pool.submit(() -> customers.updateEntity(id, new Customer("C", email, false)));
+                Future<?> remove = pool.submit(() -> customers.removeEntity(id));
+                update.get(60, TimeUnit.SECONDS);
+                remove.get(60, TimeUnit.SECONDS);
+
+                // Whatever order they ran in, the entity is gone and both emails are free
+                assertNull(customers.getEntityById(id));
+                assertNull(customers.findUnique("email", "old" + i + "@example.com"));
+                assertNull(customers.findUnique("email", email));
+                customers.addEntity(new Customer("D", email, false));
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void testUniqueIndexUnderConcurrentInserts() throws Exception {
+        EntityManager<Customer> customers = new EntityManager<>();
+        customers.addUniqueIndex("email", Customer::getEmail);
+        int threads = 8;
+        int emails = 500;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+
+        try {
+            List<Future<?>> futures = new java.util.ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(pool.submit(() -> {
+                    for (int i = 0; i < emails; i++) {
+                        try {
+                            customers.addEntity(new Customer("C", "user" + i + "@example.com", false));
+                        } catch (IllegalArgumentException duplicate) {
+                            // another thread registered this email first
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        // Every email was accepted exactly once
+        assertEquals(emails, customers.size());
+        assertEquals(emails, customers.stream().map(Customer::getEmail).distinct().count());
+    }
+
+    @Test
+    void testConcurrentAddsAreAllStored() throws Exception {
+        int threads = 8;
+        int perThread = 5_000;
+        Set<Integer> ids = ConcurrentHashMap.newKeySet();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+
+        try {
+            List<Future<?>> futures = new java.util.ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(pool.submit(() -> {
+                    for (int i = 0; i < perThread; i++) {
+                        ids.add(productManager.addEntity(new Product("P", "shoes", 1.0, 1)));
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertEquals(threads * perThread, ids.size());
+        assertEquals(threads * perThread, productManager.size());
+        assertEquals(ids, ids.stream()
+                .filter(id -> productManager.getEntityById(id) != null)
+                .collect(Collectors.toSet()));
+        assertEquals(threads * perThread, productManager.stream().parallel().count());
+    }
+
+    @Test
+    void testConcurrentUpdatesReachBackendInMemoryOrder() throws Exception {
+        InMemoryStorageBackend<Product> backend = new InMemoryStorageBackend<>();
+        EntityManager<Product> stored = new EntityManager<>(backend);
+        int id = stored.addEntity(new Product("Start", "shoes", 1.0, 1));
+        int threads = 8;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+
+        try {
+            List<Future<?>> futures = new java.util.ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(pool.submit(() -> {
+                    for (int i = 0; i < 2_000; i++) {
+                        stored.updateEntity(id, new Product("P", "shoes", 1.0, 1));
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        // The backend holds exactly the entity that is in memory
+        assertSame(stored.getEntityById(id), new EntityManager<>(backend).getEntityById(id));
+    }
+}
@@ -0,0 +1,138 @@
+package com.zalando.lite;
+
+import com.zalando.lite.managerSystem.EntityManager;
+import com.zalando.lite.persistence.EntityCodec;
+import com.zalando.lite.persistence.FileStorageBackend;
+import com.zalando.lite.persistence.InMemoryStorageBackend;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the {@link EntityManager} storage backends.
+ * <p>
+ * These tests verify:
+ * - Entities written through a file backend are restored after reopening
+ * - Removals and updates survive a restart
+ * - Compaction keeps the data and empties the log
+ * - A torn record at the end of the log is ignored
+ * <p>
+ * Concepts reinforced:
+ * - Temporary directories in tests
+ * - Write-ahead logging and snapshots
+ */
+public class FileStorageBackendTest {
+
+    // Stores plain strings as entities
+    private static final EntityCodec<String> STRINGS = new EntityCodec<>() {
+        @Override
+        public void write(String entity, DataOutput out) throws IOException {
+            out.writeUTF(entity);
+        }
+
+        @Override
+        public String read(DataInput in) throws IOException {
+            return in.readUTF();
+        }
+    };
+
+    @TempDir
+    Path dataDir;
+
+    @Test
+    void testEntitiesSurviveReopen() {
+        int shoesId;
+        int bagId;
+        try (FileStorageBackend<String> backend = new FileStorageBackend<>(dataDir, STRINGS)) {
+            EntityManager<String> manager = new EntityManager<>(backend);
+            shoesId = manager.addEntity("shoes");
+            bagId = manager.addEntity("bag");
+            manager.flush();
+        }
+
+        try (FileStorageBackend<String> backend = new FileStorageBackend<>(dataDir, STRINGS)) {
+            EntityManager<String> manager = new EntityManager<>(backend);
+            assertEquals(2, manager.size());
+            assertEquals("shoes", manager.getEntityById(shoesId));
+            assertEquals("bag", manager.getEntityById(bagId));
+
+            // New IDs continue after the restored ones
+            int next = manager.addEntity("hat");
+            assertTrue(next > Math.max(shoesId, bagId));
+        }
+    }
+
+    @Test
+    void testRemoveAndUpdateSurviveReopen() {
+        int keptId;
+        int removedId;
+        try (FileStorageBackend<String> backend = new FileStorageBackend<>(dataDir, STRINGS)) {
+            EntityManager<String> manager = new EntityManager<>(backend);
+            keptId = manager.addEntity("jacket");
+            removedId = manager.addEntity("scarf");
+            assertTrue(manager.updateEntity(keptId, "winter jacket"));
+            assertTrue(manager.removeEntity(removedId));
+        }
+
+        try (FileStorageBackend<String> backend = new FileStorageBackend<>(dataDir, STRINGS)) {
+            EntityManager<String> manager = new EntityManager<>(backend);
+            assertEquals(1, manager.size());
+            assertEquals("winter jacket", manager.getEntityById(keptId));
+            assertNull(manager.getEntityById(removedId));
+        }
+    }
+
+    @Test
+    void testCompactionKeepsDataAndEmptiesLog() throws IOException {
+        try (FileStorageBackend<String> backend = new FileStorageBackend<>(dataDir, STRINGS)) {
+            EntityManager<String> manager = new EntityManager<>(backend);
+            for (int i = 0; i < 100; i++) {
+                int id = manager.addEntity("item-" + i);
+                if (i % 2 == 0) {
+                    manager.removeEntity(id);
+                }
+            }
+            backend.compact();
+            assertEquals(0, Files.size(dataDir.resolve("entities.log")));
+        }
+
+        try (FileStorageBackend<String> backend = new FileStorageBackend<>(dataDir, STRINGS)) {
+            assertEquals(50, new EntityManager<>(backend).size());
+        }
+    }
+
+    @Test
+    void testTornLogTailIsIgnored() throws IOException {
+        int id;
+        try (FileStorageBackend<String> backend = new FileStorageBackend<>(dataDir, STRINGS)) {
+            id = new EntityManager<>(backend).addEntity("boots");
+        }
+
+        // Simulate a crash in the middle of writing the next record
+        Files.write(dataDir.resolve("entities.log"), new byte[]{0, 0, 0, 42, 1, 2},
+                StandardOpenOption.APPEND);
+
+        try (FileStorageBackend<String> backend = new FileStorageBackend<>(dataDir, STRINGS)) {
+            EntityManager<String> manager = new EntityManager<>(backend);
+            assertEquals(1, manager.size());
+            assertEquals("boots", manager.getEntityById(id));
+        }
+    }
+
+    @Test
+    void testInMemoryBackendOutlivesManager() {
+        InMemoryStorageBackend<String> backend = new InMemoryStorageBackend<>();
+        int id = new EntityManager<>(backend).addEntity("belt");
+
+        EntityManager<String> reopened = new EntityManager<>(backend);
+        assertEquals("belt", reopened.getEntityById(id));
+    }
+}
@@ -0,0 +1,129 @@
+package com.zalando.lite;
+
+import com.zalando.lite.courier.Courier;
+import com.zalando.lite.customer.Customer;
+import com.zalando.lite.order.Order;
+import com.zalando.lite.products.Product;
+import com.zalando.lite.util.IdAllocator;
+import org.junit.jupiter.api.*;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Stress tests for {@link IdAllocator}.
+ * <p>
+ * These tests verify:
+ * - IDs are unique when many threads allocate at the same time
+ * - Entities created concurrently never share an ID
+ * - Every courier gets its own ID
+ * - IDs after advancePast never collide with restored ones, even on the same thread
+ * - Explicitly set entity IDs are never handed out again
+ * <p>
+ * Concepts reinforced:
+ * - Concurrency testing with thread pools and latches
+ * - Sets for uniqueness checks
+ */
+public class IdAllocatorTest {
+
+    private static final int THREADS = 8;
+    private static final int IDS_PER_THREAD = 50_000;
+
+    @Test
+    void testConcurrentAllocationIsUnique() throws Exception {
+        IdAllocator allocator = new IdAllocator(1, 16);
+        Set<Integer> ids = ConcurrentHashMap.newKeySet();
+
+        runConcurrently(() -> {
+            for (int i = 0; i < IDS_PER_THREAD; i++) {
+                assertTrue(ids.add(allocator.nextId()), "ID handed out twice");
+            }
+        });
+
+        assertEquals(THREADS * IDS_PER_THREAD, ids.size());
+        assertTrue(ids.stream().allMatch(id -> id >= 1));
+    }
+
+    @Test
+    void testConcurrentProductCreationHasUniqueIds() throws Exception {
+        Set<Integer> ids = ConcurrentHashMap.newKeySet();
+
+        runConcurrently(() -> {
+            for (int i = 0; i < 10_000; i++) {
+                assertTrue(ids.add(new Product("P", "shoes", 1.0, 1).getId()), "Product ID handed out twice");
+            }
+        });
+
+        assertEquals(THREADS * 10_000, ids.size());
+    }
+
+    @Test
+    void testIdsIncreaseWithinThreadAndAdvancePast() {
+        IdAllocator allocator = new IdAllocator(1, 4);
+        assertEquals(1, allocator.nextId());
+        assertEquals(2, allocator.nextId());
+
+        // The rest of this thread's block (3-4) is abandoned: IDs continue after 100
+        allocator.advancePast(100);
+        assertEquals(101, allocator.nextId());
+        assertEquals(102, allocator.nextId());
+
+        // A floor below the current block does not waste IDs
+        allocator.advancePast(50);
+        assertEquals(103, allocator.nextId());
+    }
+
+    @Test
+    void testCouriersGetDistinctIds() {
+        Courier first = new Courier("Alex", "Bike", true);
+        Courier second = new Courier("Jamie", "Van", true);
+        assertNotEquals(first.getId(), second.getId());
+    }
+
+    @Test
+    void testExplicitIdsAreNotHandedOutAgain() {
+        int customerId = new Customer("A", "a@example.com", false).getId() + 10_000;
+        new Customer(customerId, "B", "b@example.com", false, List.of());
+        assertTrue(new Customer("C", "c@example.com", false).getId() > customerId);
+
+        Product product = new Product();
+        int productId = new Product("P", "shoes", 1.0, 1).getId() + 10_000;
+        product.setId(productId);
+        assertTrue(new Product("Q", "shoes", 1.0, 1).getId() > productId);
+
+        Order order = new Order();
+        int orderId = new Order(null, List.of()).getOrderId() + 10_000;
+        order.setOrderId(orderId);
+        assertTrue(new Order(null, List.of()).getOrderId() > orderId);
+
+        Courier courier = new Courier("Alex", "Bike", true);
+        int courierId = courier.getId() + 10_000;
+        courier.setId(courierId);
+        assertTrue(new Courier("Jamie", "Van", true).getId() > courierId);
+    }
+
+    // Runs the task on THREADS threads, started at the same moment, and rethrows failures
+    private static void runConcurrently(Runnable task) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            Future<?>[] futures = new Future<?>[THREADS];
+            for (int t = 0; t < THREADS; t++) {
+                futures[t] = pool.submit(() -> {
+                    start.await();
+                    task.run();
+                    return null;
+                });
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
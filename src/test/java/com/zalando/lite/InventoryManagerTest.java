@@ -1,10 +1,18 @@
 package com.zalando.lite;
 
 import com.zalando.lite.managerSystem.InventoryManager;
+import com.zalando.lite.persistence.WriteAheadLog;
+import com.zalando.lite.products.CategoryDictionary;
 import com.zalando.lite.products.Product;
 import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
 
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -16,7 +24,13 @@ import static org.junit.jupiter.api.Assertions.*;
  * - Finding products by ID
  * - Listing all available products
  * - Reducing stock safely and accurately
+ * - A stock reduction that cannot be logged is undone
  * - Checking product availability
+ * - Size-filtered listings follow stock changes
+ * - Category helpers compare interned category IDs
+ * - Category-wide repricing over the price column
+ * - Sale prices read without locking while products are added and repriced
+ * - Products can be added while stock is reduced on another thread
  * <p>
  * Concepts reinforced:
  * - Collection management
@@ -113,6 +127,19 @@ public class InventoryManagerTest {
         assertEquals(2, found.getStock(), "Stock should remain unchanged after failed reduction.");
     }
 
+    @Test
+    void testReduceStockIsUndoneWhenLoggingFails(@TempDir Path dir) {
+        WriteAheadLog log = new WriteAheadLog(dir.resolve("orders.wal"));
+        inventoryManager = new InventoryManager(log);
+        Product product = new Product("Mouse", "electronics", 25.0, 4);
+        inventoryManager.addProduct(product);
+
+        // A closed log rejects the record, so the reduction must not stick
+        log.close();
+        assertThrows(IllegalStateException.class, () -> inventoryManager.reduceStock(product.getId(), 3));
+        assertEquals(4, product.getStock(), "Stock should be restored when the change is not logged.");
+    }
+
     @Test
     void testIsProductAvailableReturnsTrueIfInStock() {
 
@@ -143,6 +170,146 @@ public class InventoryManagerTest {
         assertFalse(available, "Product with stock = 0 should be reported as NOT available.");
     }
 
+    @Test
+    void testFindAvailableInSizeFollowsStockChanges() {
+        Product boots = new Product("Boots", "Shoes", 120.00, 0);
+        boots.setShoeStock(Map.of(Product.SHOE_SIZE.EU42, 1, Product.SHOE_SIZE.EU43, 2));
+        Product sandals = new Product("Sandals", "shoes", 35.00, 0);
+        sandals.setShoeStock(Map.of(Product.SHOE_SIZE.EU42, 3));
+        Product shirt = new Product("Shirt", "clothing", 29.99, 0);
+        shirt.setClothingStock(Map.of(Product.CLOTH_SIZE.M, 1));
+        inventoryManager.addProduct(boots);
+        inventoryManager.addProduct(sandals);
+        inventoryManager.addProduct(shirt);
+
+        assertEquals(List.of(boots, sandals), inventoryManager.findAvailableInSize(Product.SHOE_SIZE.EU42, null));
+        assertEquals(List.of(boots, sandals), inventoryManager.findAvailableInSize(Product.SHOE_SIZE.EU42, "shoes"));
+        assertTrue(inventoryManager.findAvailableInSize(Product.SHOE_SIZE.EU42, "clothing").isEmpty());
+        assertEquals(List.of(shirt), inventoryManager.findAvailableInSize(Product.CLOTH_SIZE.M, "Clothing"));
+
+        // Selling the last EU42 boots removes them from the EU42 listing only
+        assertTrue(boots.reserve(Product.SHOE_SIZE.EU42, 1));
+        assertEquals(List.of(sandals), inventoryManager.findAvailableInSize(Product.SHOE_SIZE.EU42, null));
+        assertEquals(List.of(boots), inventoryManager.findAvailableInSize(Product.SHOE_SIZE.EU43, null));
+
+        // Restocking brings them back
+        boots.adjustStock(Product.SHOE_SIZE.EU42, 5);
+        assertEquals(List.of(boots, sandals), inventoryManager.findAvailableInSize(Product.SHOE_SIZE.EU42, null));
+        assertTrue(inventoryManager.findAvailableInSize(Product.SHOE_SIZE.EU36, null).isEmpty());
+    }
+
+    @Test
+    void testCategoriesAreInternedCaseInsensitively() {
+        Product boots = new Product("Boots", "Shoes", 120.00, 1);
+        Product sandals = new Product("Sandals", "SHOES", 35.00, 1);
+        Product shirt = new Product("Shirt", "Clothing", 29.99, 1);
+
+        assertEquals(boots.getCategoryId(), sandals.getCategoryId());
+        assertNotEquals(boots.getCategoryId(), shirt.getCategoryId());
+        assertEquals("shoes", CategoryDictionary.CATEGORIES.nameOf(boots.getCategoryId()));
+
+        assertTrue(inventoryManager.isShoesCategory("Shoes"));
+        assertTrue(inventoryManager.isClothingCategory("CLOTHING"));
+        assertFalse(inventoryManager.isShoesCategory("clothing"));
+        assertFalse(inventoryManager.isShoesCategory("never-seen-category"));
+
+        // Changing the category moves the product to the new ID
+        shirt.setCategory("shoes");
+        assertEquals(boots.getCategoryId(), shirt.getCategoryId());
+    }
+
+    @Test
+    void testRepriceCategoryMatchesPerProductPrices() {
+        List<Product> jackets = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            Product jacket = new Product("Jacket " + i, i % 2 == 0 ? "Jackets" : "jackets", 50.0 + i, 1);
+            jackets.add(jacket);
+            inventoryManager.addProduct(jacket);
+            inventoryManager.addProduct(new Product("Shirt " + i, "Clothing", 20.0 + i, 1));
+        }
+
+        assertEquals(1_000, inventoryManager.repriceCategory("JACKETS", 0.25));
+        for (Product jacket : jackets) {
+            // Same result as computing each product's sale price on its own
+            assertEquals(jacket.getPrice() * 0.75, inventoryManager.getSalePrice(jacket), 1e-9);
+        }
+        Product shirt = inventoryManager.getAllProducts().get(1);
+        assertEquals(shirt.getPrice(), inventoryManager.getSalePrice(shirt), 1e-9, "Other categories are unaffected.");
+
+        // Products added during the sale are on sale too; price changes are picked up
+        Product late = new Product("Late jacket", "jackets", 100.0, 1);
+        inventoryManager.addProduct(late);
+        assertEquals(75.0, inventoryManager.getSalePrice(late), 1e-9);
+        late.setPrice(200.0);
+        assertEquals(150.0, inventoryManager.getSalePrice(late), 1e-9);
+
+        // Rate 0 ends the sale; unknown categories reprice nothing
+        inventoryManager.repriceCategory("jackets", 0.0);
+        assertEquals(jackets.get(0).getPrice(), inventoryManager.getSalePrice(jackets.get(0)), 1e-9);
+        assertEquals(0, inventoryManager.repriceCategory("never-seen-category", 0.5));
+        assertThrows(IllegalArgumentException.class, () -> inventoryManager.repriceCategory("jackets", 1.5));
+    }
+
+    @Test
+    void testSalePricesStayConsistentWhileProductsAreAdded() throws Exception {
+        Product first = new Product("Coat", "coats", 100.0, 1);
+        inventoryManager.addProduct(first);
+        inventoryManager.repriceCategory("coats", 0.5);
+
+        // A reader checks prices without locking while products are added and repriced
+        AtomicBoolean done = new AtomicBoolean();
+        AtomicReference<String> failure = new AtomicReference<>();
+        Thread reader = new Thread(() -> {
+            while (!done.get()) {
+                double price = inventoryManager.getSalePrice(first);
+                if (price != 50.0 && price != 75.0) {
+                    failure.set("Unexpected sale price " + price);
+                }
+            }
+        });
+        reader.start();
+
+        // Interleaved adds and reads, each added product priced right away
+        for (int i = 0; i < 20_000; i++) {
+            Product coat = new Product("Coat " + i, "coats", 10.0, 1);
+            inventoryManager.addProduct(coat);
+            assertEquals(i % 2 == 0 ? 5.0 : 7.5, inventoryManager.getSalePrice(coat), 1e-9);
+            inventoryManager.repriceCategory("coats", i % 2 == 0 ? 0.25 : 0.5);
+        }
+        done.set(true);
+        reader.join();
+
+        assertNull(failure.get());
+        assertEquals(20_001, inventoryManager.repriceCategory("coats", 0.0));
+    }
+
+    @Test
+    void testProductsCanBeAddedWhileStockIsReduced() throws Exception {
+        Product target = new Product("Scarf", "accessories", 15.0, 100_000);
+        inventoryManager.addProduct(target);
+
+        // Each reduction walks the product list while the other thread appends to it
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread adder = new Thread(() -> {
+            try {
+                for (int i = 0; i < 5_000; i++) {
+                    inventoryManager.addProduct(new Product("Hat " + i, "accessories", 10.0, 1));
+                }
+            } catch (Throwable t) {
+                failure.set(t);
+            }
+        });
+        adder.start();
+        for (int i = 0; i < 5_000; i++) {
+            assertTrue(inventoryManager.reduceStock(target.getId(), 1));
+        }
+        adder.join();
+
+        assertNull(failure.get());
+        assertEquals(95_000, target.getStock());
+        assertEquals(5_001, inventoryManager.getAllProducts().size());
+    }
+
     @AfterEach
     void tearDown() {
         // Clean up if necessary (not strictly needed for this manager)
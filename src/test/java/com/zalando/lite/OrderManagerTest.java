@@ -5,10 +5,19 @@ import com.zalando.lite.managerSystem.InventoryManager;
 import com.zalando.lite.managerSystem.OrderManager;
 import com.zalando.lite.order.Order;
 import com.zalando.lite.order.OrderItem;
+import com.zalando.lite.persistence.WriteAheadLog;
 import com.zalando.lite.products.Product;
 import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
 
+import java.nio.file.Path;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -20,6 +29,9 @@ import static org.junit.jupiter.api.Assertions.*;
  * - Orders are stored and retrieved correctly
  * - Orders fail when products are out of stock
  * - Inventory updates correctly after order
+ * - Orders and stock changes are rebuilt from the write-ahead log after a restart
+ * - Sized items reserve stock of their size, atomically and without overselling
+ * - Orders placed concurrently for one customer are all stored
  * <p>
  * Concepts reinforced:
  * - Control flow testing
@@ -143,6 +155,153 @@ public class OrderManagerTest {
         assertEquals(5, updated.getStock(), "Stock should be reduced from 8 to 5.");
     }
 
+    @Test
+    void testRecoverFromWriteAheadLog(@TempDir Path dir) {
+        Path logFile = dir.resolve("orders.wal");
+        Product sneakers = new Product("Sneakers", "footwear", 79.99, 10);
+        Product scarf = new Product("Scarf", "accessories", 15.00, 5);
+        Order placed;
+
+        // First run: log an order and a manual stock reduction
+        try (WriteAheadLog wal = new WriteAheadLog(logFile)) {
+            InventoryManager inventory = new InventoryManager(wal);
+            OrderManager orders = new OrderManager(inventory, wal);
+            inventory.addProduct(sneakers);
+            inventory.addProduct(scarf);
+
+            placed = orders.createOrder(testCustomer, List.of(new OrderItem(sneakers, 2), new OrderItem(scarf, 1)));
+            assertNotNull(placed);
+            assertTrue(inventory.reduceStock(scarf.getId(), 3));
+        }
+
+        // Restart: reload the catalog with its initial stock, then replay the log
+        InventoryManager inventory = new InventoryManager();
+        OrderManager orders = new OrderManager(inventory);
+        inventory.addProduct(copyOf(sneakers, 10));
+        inventory.addProduct(copyOf(scarf, 5));
+
+        int recovered = orders.recover(logFile, id -> id == testCustomer.getId() ? testCustomer : null);
+
+        assertEquals(1, recovered);
+        assertEquals(8, inventory.findProductById(sneakers.getId()).getStock());
+        assertEquals(1, inventory.findProductById(scarf.getId()).getStock());
+
+        List<Order> restored = orders.getOrdersForCustomer(testCustomer.getId());
+        assertEquals(1, restored.size());
+        assertEquals(placed.getOrderId(), restored.get(0).getOrderId());
+        assertEquals(2, restored.get(0).getItems().size());
+
+        // New orders get IDs after the recovered one
+        Order next = orders.createOrder(testCustomer, List.of(new OrderItem(inventory.findProductById(sneakers.getId()), 1)));
+        assertTrue(next.getOrderId() > placed.getOrderId());
+    }
+
+    @Test
+    void testSizedOrderReservesSizeStock() {
+        Product shirt = new Product("Shirt", "clothing", 29.99, 0);
+        shirt.setClothingStock(Map.of(Product.CLOTH_SIZE.M, 2, Product.CLOTH_SIZE.L, 5));
+        inventoryManager.addProduct(shirt);
+        assertEquals(7, shirt.getStock(), "Aggregate stock is the sum over all sizes");
+
+        Order order = orderManager.createOrder(testCustomer, List.of(new OrderItem(shirt, 2, Product.CLOTH_SIZE.M)));
+        assertNotNull(order);
+        assertEquals(0, shirt.getStock(Product.CLOTH_SIZE.M));
+        assertEquals(5, shirt.getStock(Product.CLOTH_SIZE.L));
+        assertEquals(5, shirt.getStock());
+
+        // Size M is sold out even though other sizes are available
+        assertNull(orderManager.createOrder(testCustomer, List.of(new OrderItem(shirt, 1, Product.CLOTH_SIZE.M))));
+
+        // A failing item releases the sizes already reserved by the same order
+        assertNull(orderManager.createOrder(testCustomer, List.of(
+                new OrderItem(shirt, 1, Product.CLOTH_SIZE.L),
+                new OrderItem(shirt, 1, Product.CLOTH_SIZE.XS))));
+        assertEquals(5, shirt.getStock(Product.CLOTH_SIZE.L));
+    }
+
+    @Test
+    void testMixedSizedAndSizelessOrdersNeverOversell() {
+        Product shirt = new Product("Shirt", "clothing", 29.99, 0);
+        shirt.setClothingStock(Map.of(Product.CLOTH_SIZE.S, 1));
+        inventoryManager.addProduct(shirt);
+
+        // Without a size, a product sold by size cannot be ordered or reduced
+        assertNull(orderManager.createOrder(testCustomer, List.of(new OrderItem(shirt, 1))));
+        assertFalse(inventoryManager.reduceStock(shirt.getId(), 1));
+        assertFalse(shirt.tryReduceStock(1));
+        assertEquals(1, shirt.getStock());
+
+        // The one unit of size S can still be sold, exactly once
+        assertNotNull(orderManager.createOrder(testCustomer, List.of(new OrderItem(shirt, 1, Product.CLOTH_SIZE.S))));
+        assertNull(orderManager.createOrder(testCustomer, List.of(new OrderItem(shirt, 1, Product.CLOTH_SIZE.S))));
+        assertEquals(0, shirt.getStock(Product.CLOTH_SIZE.S));
+        assertEquals(0, shirt.getStock(), "Aggregate never goes below zero");
+    }
+
+    @Test
+    void testConcurrentSizeReservationsNeverOversell() throws Exception {
+        Product boots = new Product("Boots", "shoes", 120.00, 0);
+        boots.setShoeStock(Map.of(Product.SHOE_SIZE.EU42, 1_000, Product.SHOE_SIZE.EU43, 10));
+        AtomicInteger reserved = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+
+        try {
+            List<Future<?>> futures = new java.util.ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                futures.add(pool.submit(() -> {
+                    for (int i = 0; i < 500; i++) {
+                        if (boots.reserve(Product.SHOE_SIZE.EU42, 1)) {
+                            reserved.incrementAndGet();
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertEquals(1_000, reserved.get());
+        assertEquals(0, boots.getStock(Product.SHOE_SIZE.EU42));
+        assertEquals(10, boots.getStock(), "Aggregate stock follows size reservations");
+    }
+
+    @Test
+    void testConcurrentOrdersForOneCustomerAreAllStored() throws Exception {
+        Product socks = new Product("Socks", "accessories", 5.00, 4_000);
+        inventoryManager.addProduct(socks);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+
+        try {
+            List<Future<?>> futures = new java.util.ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                futures.add(pool.submit(() -> {
+                    for (int i = 0; i < 500; i++) {
+                        assertNotNull(orderManager.createOrder(testCustomer, List.of(new OrderItem(socks, 1))));
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertEquals(4_000, orderManager.getOrdersForCustomer(testCustomer.getId()).size());
+        assertEquals(4_000, orderManager.getAllOrders().size());
+        assertEquals(0, socks.getStock());
+    }
+
+    // Simulates reloading a product from the catalog after a restart
+    private static Product copyOf(Product product, int initialStock) {
+        Product copy = new Product(product.getName(), product.getCategory(), product.getPrice(), initialStock);
+        copy.setId(product.getId());
+        return copy;
+    }
+
     @AfterEach
     void tearDown() {
         // Reset fields if necessary (optional for logic-based unit tests)
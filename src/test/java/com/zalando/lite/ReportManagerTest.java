@@ -0,0 +1,176 @@
+package com.zalando.lite;
+
+import com.zalando.lite.courier.Courier;
+import com.zalando.lite.customer.Customer;
+import com.zalando.lite.delivery.Delivery;
+import com.zalando.lite.delivery.DeliveryService;
+import com.zalando.lite.managerSystem.*;
+import com.zalando.lite.order.Order;
+import com.zalando.lite.order.OrderItem;
+import com.zalando.lite.products.Product;
+import com.zalando.lite.review.Review;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link ReportManager}.
+ * <p>
+ * These tests verify:
+ * - The business report merges all sections correctly
+ * - Revenue includes every item of multi-item orders
+ * - Delta exports only contain deliveries changed since the last export
+ * - A delivery changed while an export is written is exported again next time
+ * - A delivery built before an export and tracked after it is still exported
+ * <p>
+ * Concepts reinforced:
+ * - Testing parallel computations through their merged result
+ * - Floating point assertions
+ */
+public class ReportManagerTest {
+
+    private ReportManager reportManager;
+    private InventoryManager inventoryManager;
+    private OrderManager orderManager;
+    private ReviewManager reviewManager;
+    private DeliveryService deliveryService;
+
+    @BeforeEach
+    void setUp() {
+        reportManager = new ReportManager();
+        inventoryManager = new InventoryManager();
+        orderManager = new OrderManager(inventoryManager);
+        reviewManager = new ReviewManager();
+        deliveryService = new DeliveryService();
+    }
+
+    @Test
+    void testBusinessReportSections() {
+        Customer vip = new Customer("Linda", "linda@example.com", true);
+        Customer regular = new Customer("Phil", "phil@example.com", false);
+
+        Product shoes = new Product("Sneakers", "shoes", 100.0, 50);
+        Product book = new Product("Clean Code", "books", 40.0, 50);
+        inventoryManager.addProduct(shoes);
+        inventoryManager.addProduct(book);
+
+        Courier courier = new Courier("Alex", "Bike", true);
+        deliveryService.addCourier(courier);
+
+        Order first = orderManager.createOrder(vip, List.of(new OrderItem(shoes, 2)));
+        orderManager.createOrder(regular, List.of(new OrderItem(book, 1)));
+        deliveryService.assignCourier(first);
+
+        reviewManager.addReview(new Review(shoes, 5, vip, "Great", LocalDateTime.now()));
+        reviewManager.addReview(new Review(shoes, 3, regular, "Okay", LocalDateTime.now()));
+
+        BusinessReport report = reportManager.generateBusinessReport(
+                orderManager, inventoryManager, reviewManager, deliveryService);
+
+        assertEquals(200.0, report.getRevenuePerCustomer().get(vip.getId()), 0.01);
+        assertEquals(40.0, report.getRevenuePerCustomer().get(regular.getId()), 0.01);
+
+        // Sneakers sold 2 units, so they come first
+        assertEquals(shoes.getId(), report.getTopProducts().keySet().iterator().next());
+
+        // VIP (10%) + shoes (20%) on 200.0 = 60.0; books are not discounted for regular customers
+        assertEquals(60.0, report.getTotalDiscount(), 0.01);
+        assertEquals(60.0, report.getDiscountPerCategory().get("shoes"), 0.01);
+
+        assertEquals(1, report.getTotalCouriers());
+        assertEquals(1.0, report.getCourierUtilization(), 0.001);
+        assertEquals(1L, report.getOrdersPerCourier().get(courier.getId()));
+
+        assertEquals(4.0, report.getAverageRatingPerProduct().get(shoes.getId()), 0.001);
+        assertFalse(report.getAverageRatingPerProduct().containsKey(book.getId()));
+    }
+
+    @Test
+    void testRevenueCountsEveryItemOfAnOrder() {
+        Customer regular = new Customer("Phil", "phil@example.com", false);
+        Product book = new Product("Clean Code", "books", 40.0, 50);
+        Product pen = new Product("Pen", "office", 2.5, 50);
+        inventoryManager.addProduct(book);
+        inventoryManager.addProduct(pen);
+
+        orderManager.createOrder(regular, List.of(new OrderItem(book, 2), new OrderItem(pen, 4)));
+        orderManager.createOrder(regular, List.of(new OrderItem(pen, 1), new OrderItem(book, 1)));
+
+        BusinessReport report = reportManager.generateBusinessReport(
+                orderManager, inventoryManager, reviewManager, deliveryService);
+
+        // (2 x 40.0 + 4 x 2.5) + (1 x 2.5 + 1 x 40.0)
+        assertEquals(132.5, report.getRevenuePerCustomer().get(regular.getId()), 0.01);
+    }
+
+    @Test
+    void testDeltaReportOnlyContainsChangesSinceLastExport(@TempDir Path tempDir) throws IOException {
+        deliveryService.addCourier(new Courier("Alex", "Bike", true));
+        deliveryService.addCourier(new Courier("Jamie", "Van", true));
+
+        Delivery first = deliveryService.assignCourier(new Order());
+        Delivery second = deliveryService.assignCourier(new Order());
+
+        // First export contains both deliveries
+        assertEquals(2, reportManager.exportDeltaReport(deliveryService, tempDir.resolve("d1.txt").toString()));
+
+        // Nothing changed, so nothing is exported
+        assertEquals(0, reportManager.exportDeltaReport(deliveryService, tempDir.resolve("d2.txt").toString()));
+
+        // Only the changed delivery is exported next time
+        deliveryService.updateDeliveryStatus(second, "Delivered");
+        Path delta = tempDir.resolve("d3.txt");
+        assertEquals(1, reportManager.exportDeltaReport(deliveryService, delta.toString()));
+
+        String content = Files.readString(delta);
+        assertEquals(1, content.split("Delivery\\{", -1).length - 1, "Only one delivery should be written.");
+        assertTrue(content.contains("status='Delivered'"));
+        assertEquals(second.getChangeSequence(), reportManager.getLastExportedSequence());
+        assertTrue(first.getChangeSequence() < reportManager.getLastExportedSequence());
+    }
+
+    @Test
+    void testChangeDuringDeltaExportIsExportedNextTime(@TempDir Path tempDir) {
+        // Changes itself the first time it is written, like a status update racing the export
+        Delivery racing = new Delivery(new Order(), new Courier("Alex", "Bike", true)) {
+            private boolean written;
+
+            @Override
+            public String toString() {
+                if (!written) {
+                    written = true;
+                    setStatus("In Transit");
+                }
+                return super.toString();
+            }
+        };
+        deliveryService.trackDelivery(racing);
+
+        assertEquals(1, reportManager.exportDeltaReport(deliveryService, tempDir.resolve("d1.txt").toString()));
+        assertTrue(reportManager.getLastExportedSequence() < racing.getChangeSequence());
+
+        // The change made while writing is not lost
+        assertEquals(1, reportManager.exportDeltaReport(deliveryService, tempDir.resolve("d2.txt").toString()));
+        assertEquals(racing.getChangeSequence(), reportManager.getLastExportedSequence());
+    }
+
+    @Test
+    void testDeliveryTrackedAfterExportIsExported(@TempDir Path tempDir) {
+        Delivery early = new Delivery(new Order(), new Courier("Alex", "Bike", true));
+        deliveryService.addCourier(new Courier("Jamie", "Van", true));
+        deliveryService.assignCourier(new Order());
+        assertEquals(1, reportManager.exportDeltaReport(deliveryService, tempDir.resolve("d1.txt").toString()));
+
+        // Built before the export, tracked after it
+        deliveryService.trackDelivery(early);
+        assertEquals(1, reportManager.exportDeltaReport(deliveryService, tempDir.resolve("d2.txt").toString()));
+        assertEquals(early.getChangeSequence(), reportManager.getLastExportedSequence());
+    }
+}
@@ -4,11 +4,20 @@ import com.zalando.lite.customer.Customer;
 import com.zalando.lite.managerSystem.ReviewManager;
 import com.zalando.lite.products.Product;
 import com.zalando.lite.review.Review;
+import com.zalando.lite.review.ReviewPage;
+import com.zalando.lite.review.ReviewSortOrder;
+import com.zalando.lite.review.ReviewRanking.RankedProduct;
 import org.junit.jupiter.api.*;
 
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -20,6 +29,13 @@ import static org.junit.jupiter.api.Assertions.*;
  * - Multiple reviews can be added per product
  * - Retrieving reviews by product ID returns expected results
  * - System handles missing reviews safely (returns empty list, not null)
+ * - Running rating statistics (average, distribution) stay in sync with added reviews
+ * - Concurrent review submissions are not lost, and snapshots stay stable
+ * - The top-rated ranking respects minimum review counts (across tiers) and categories
+ * - Cursor-based paging returns reviews newest first or highest rated first
+ * - Paging stays in order for thousands of reviews arriving in random order
+ * - Comment search supports AND/OR queries ranked by rating or recency
+ * - Comments indexed from many threads at once are all searchable
  * <p>
  * Concepts reinforced:
  * - Nested collection testing: Map<Integer, List<Review>>
@@ -117,8 +133,321 @@ public class ReviewManagerTest {
         assertTrue(reviews.isEmpty(), "Review list should be empty when no reviews exist for the product.");
     }
 
+    @Test
+    void testRatingStatisticsAreMaintained() {
+        LocalDateTime now = LocalDateTime.now();
+        int productId = sampleProduct.getId();
+
+        reviewManager.addReview(new Review(sampleProduct, 5, sampleCustomer, "Excellent!", now));
+        reviewManager.addReview(new Review(sampleProduct, 4, sampleCustomer, "Very good", now));
+        reviewManager.addReview(new Review(sampleProduct, 5, sampleCustomer, "Love them", now));
+        reviewManager.addReview(new Review(sampleProduct, 9, sampleCustomer, "Invalid rating", now));
+
+        // The invalid rating is rejected
+        assertEquals(3, reviewManager.getReviewCount(productId));
+        assertEquals(14.0 / 3, reviewManager.getAverageRating(productId), 0.0001);
+        assertEquals(2, reviewManager.getRatingCount(productId, 5));
+        assertEquals(1, reviewManager.getRatingCount(productId, 4));
+        assertEquals(0, reviewManager.getRatingCount(productId, 1));
+
+        // Products without reviews report empty statistics
+        assertEquals(0, reviewManager.getReviewCount(1999));
+        assertEquals(0.0, reviewManager.getAverageRating(1999));
+    }
+
+    @Test
+    void testConcurrentAddReviewKeepsEveryReview() throws InterruptedException {
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            products.add(new Product("Product " + i, "shoes", 10.0, 1));
+        }
+
+        int threads = 8;
+        int reviewsPerThread = 2_000;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+
+        for (int t = 0; t < threads; t++) {
+            pool.submit(() -> {
+                for (int i = 0; i < reviewsPerThread; i++) {
+                    Product product = products.get(i % products.size());
+                    reviewManager.addReview(new Review(product, 1 + i % 5, sampleCustomer, "ok", null));
+                }
+            });
+        }
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(30, TimeUnit.SECONDS));
+
+        int expectedPerProduct = threads * reviewsPerThread / products.size();
+        for (Product product : products) {
+            assertEquals(expectedPerProduct, reviewManager.getReviewsForProduct(product.getId()).size());
+            assertEquals(expectedPerProduct, reviewManager.getReviewCount(product.getId()));
+        }
+    }
+
+    @Test
+    void testConcurrentlyIndexedCommentsAreAllSearchable() throws InterruptedException {
+        int threads = 8;
+        int reviewsPerThread = 2_000;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+
+        for (int t = 0; t < threads; t++) {
+            String threadWord = "thread" + t;
+            pool.submit(() -> {
+                for (int i = 0; i < reviewsPerThread; i++) {
+                    String comment = threadWord + " word" + (i % 10) + " common";
+                    reviewManager.addReview(new Review(sampleProduct, 1 + i % 5, sampleCustomer, comment, null));
+                }
+            });
+        }
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(30, TimeUnit.SECONDS));
+
+        int all = threads * reviewsPerThread;
+        assertEquals(all, reviewManager.searchReviews("common", true, null, all + 1).size());
+        assertEquals(reviewsPerThread / 10, reviewManager.searchReviews("thread3 word7", true, null, all).size());
+        assertEquals(2 * reviewsPerThread, reviewManager.searchReviews("thread1 thread2", false, null, all).size());
+    }
+
+    @Test
+    void testReviewListIsStableReadOnlySnapshot() {
+        reviewManager.addReview(new Review(sampleProduct, 5, sampleCustomer, "First", null));
+        List<Review> snapshot = reviewManager.getReviewsForProduct(sampleProduct.getId());
+
+        reviewManager.addReview(new Review(sampleProduct, 4, sampleCustomer, "Second", null));
+
+        assertEquals(1, snapshot.size(), "An existing snapshot should not see later reviews.");
+        assertEquals(2, reviewManager.getReviewsForProduct(sampleProduct.getId()).size());
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.add(snapshot.get(0)));
+    }
+
+    @Test
+    void testTopRatedProducts() {
+        Product boots = new Product("Boots", "Shoes", 99.0, 5);
+        Product jacket = new Product("Jacket", "jackets", 150.0, 5);
+
+        // sampleProduct (shoes): 5, 4 → 4.5 with 2 reviews
+        reviewManager.addReview(new Review(sampleProduct, 5, sampleCustomer, "", null));
+        reviewManager.addReview(new Review(sampleProduct, 4, sampleCustomer, "", null));
+        // boots (shoes): 5 → 5.0 with only 1 review
+        reviewManager.addReview(new Review(boots, 5, sampleCustomer, "", null));
+        // jacket: 3, 4 → 3.5 with 2 reviews
+        reviewManager.addReview(new Review(jacket, 3, sampleCustomer, "", null));
+        reviewManager.addReview(new Review(jacket, 4, sampleCustomer, "", null));
+
+        List<RankedProduct> all = reviewManager.getTopRatedProducts(10, 1);
+        assertEquals(List.of(boots.getId(), sampleProduct.getId(), jacket.getId()),
+                all.stream().map(RankedProduct::getProductId).toList());
+
+        // Boots drop out when at least 2 reviews are required
+        List<RankedProduct> established = reviewManager.getTopRatedProducts(1, 2);
+        assertEquals(1, established.size());
+        assertEquals(sampleProduct.getId(), established.get(0).getProductId());
+
+        // Category filter is case-insensitive
+        List<RankedProduct> shoes = reviewManager.getTopRatedProducts(10, 1, "SHOES");
+        assertEquals(2, shoes.size());
+        assertTrue(reviewManager.getTopRatedProducts(10, 1, "books").isEmpty());
+
+        // A bad review moves the boots down
+        reviewManager.addReview(new Review(boots, 1, sampleCustomer, "", null));
+        assertEquals(sampleProduct.getId(), reviewManager.getTopRatedProducts(1, 1, "shoes").get(0).getProductId());
+    }
+
+    @Test
+    void testTopRatedRespectsReviewThresholdsBetweenTiers() {
+        // Products with 1 to 9 reviews; more reviews = lower rating
+        List<Product> products = new ArrayList<>();
+        for (int reviews = 1; reviews <= 9; reviews++) {
+            Product product = new Product("P" + reviews, "bags", 10.0, 1);
+            products.add(product);
+            for (int i = 0; i < reviews; i++) {
+                reviewManager.addReview(new Review(product, reviews <= 5 ? 5 : 3, sampleCustomer, "", null));
+            }
+        }
+
+        for (int minReviews = 1; minReviews <= 10; minReviews++) {
+            int threshold = minReviews;
+            List<Integer> expected = products.stream()
+                    .filter(p -> reviewManager.getReviewCount(p.getId()) >= threshold)
+                    .sorted((a, b) -> {
+                        int byRating = Double.compare(reviewManager.getAverageRating(b.getId()), reviewManager.getAverageRating(a.getId()));
+                        return byRating != 0 ? byRating : Integer.compare(reviewManager.getReviewCount(b.getId()), reviewManager.getReviewCount(a.getId()));
+                    })
+                    .map(Product::getId)
+                    .toList();
+            assertEquals(expected, reviewManager.getTopRatedProducts(20, minReviews, "bags").stream()
+                    .map(RankedProduct::getProductId).toList(), "minReviews = " + minReviews);
+        }
+    }
+
+    @Test
+    void testPagedReviewsNewestAndHighestRatedFirst() {
+        LocalDateTime start = LocalDateTime.of(2025, 6, 1, 12, 0);
+        int[] ratings = {3, 5, 1, 4, 5};
+
+        // Add reviews out of time order: timestamps are start+4h, start+3h, ... start
+        for (int i = 0; i < ratings.length; i++) {
+            Review review = new Review(sampleProduct, ratings[i], sampleCustomer, "Review " + i, null);
+            review.setTimestamp(start.plusHours(ratings.length - 1 - i));
+            reviewManager.addReview(review);
+        }
+        int productId = sampleProduct.getId();
+
+        // Newest first: review 0 (start+4h) ... review 4 (start), two per page
+        ReviewPage page1 = reviewManager.getReviewsPage(productId, ReviewSortOrder.NEWEST_FIRST, ReviewPage.FIRST_PAGE, 2);
+        assertEquals(List.of("Review 0", "Review 1"), comments(page1.getReviews()));
+        assertTrue(page1.hasMore());
+
+        ReviewPage page2 = reviewManager.getReviewsPage(productId, ReviewSortOrder.NEWEST_FIRST, page1.getNextCursor(), 2);
+        assertEquals(List.of("Review 2", "Review 3"), comments(page2.getReviews()));
+
+        ReviewPage page3 = reviewManager.getReviewsPage(productId, ReviewSortOrder.NEWEST_FIRST, page2.getNextCursor(), 2);
+        assertEquals(List.of("Review 4"), comments(page3.getReviews()));
+        assertFalse(page3.hasMore());
+
+        // Continuing after the last page does not start over
+        ReviewPage after = reviewManager.getReviewsPage(productId, ReviewSortOrder.NEWEST_FIRST, page3.getNextCursor(), 2);
+        assertTrue(after.getReviews().isEmpty());
+        assertFalse(after.hasMore());
+
+        // Highest rated first; the two 5-star reviews are ordered newest first
+        ReviewPage best = reviewManager.getReviewsPage(productId, ReviewSortOrder.HIGHEST_RATED_FIRST, ReviewPage.FIRST_PAGE, 3);
+        assertEquals(List.of("Review 1", "Review 4", "Review 3"), comments(best.getReviews()));
+
+        // Products without reviews give an empty last page
+        assertFalse(reviewManager.getReviewsPage(1999, ReviewSortOrder.NEWEST_FIRST, ReviewPage.FIRST_PAGE, 10).hasMore());
+    }
+
+    @Test
+    void testPagingManyReviewsInRandomOrder() {
+        LocalDateTime start = LocalDateTime.of(2025, 6, 1, 12, 0);
+        Random random = new Random(42);
+        int count = 5_000;
+        int[] ratings = new int[count];
+        long[] offsets = new long[count];
+
+        for (int i = 0; i < count; i++) {
+            ratings[i] = 1 + random.nextInt(5);
+            offsets[i] = random.nextInt(2_000); // plenty of equal timestamps
+            Review review = new Review(sampleProduct, ratings[i], sampleCustomer, "Review " + i, null);
+            review.setTimestamp(start.plusSeconds(offsets[i]));
+            reviewManager.addReview(review);
+        }
+
+        // Expected orders; equal timestamps put the later review first
+        Comparator<Integer> newest = Comparator.<Integer>comparingLong(i -> offsets[i]).reversed()
+                .thenComparing(Comparator.reverseOrder());
+        Comparator<Integer> best = Comparator.<Integer>comparingInt(i -> ratings[i]).reversed().thenComparing(newest);
+        List<Integer> indexes = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            indexes.add(i);
+        }
+
+        assertEquals(expectedComments(indexes, newest), allPages(ReviewSortOrder.NEWEST_FIRST));
+        assertEquals(expectedComments(indexes, best), allPages(ReviewSortOrder.HIGHEST_RATED_FIRST));
+    }
+
+    @Test
+    void testSearchReviewComments() {
+        Product jacket = new Product("Jacket", "jackets", 150.0, 5);
+        LocalDateTime start = LocalDateTime.of(2025, 6, 1, 12, 0);
+
+        Review small = new Review(sampleProduct, 3, sampleCustomer, "Runs small, order one size up", null);
+        Review zipper = new Review(jacket, 1, sampleCustomer, "Broken zipper after a week", null);
+        Review alsoSmall = new Review(jacket, 4, sampleCustomer, "Warm but runs SMALL.", null);
+        Review noComment = new Review(jacket, 5, sampleCustomer, null, null);
+        small.setTimestamp(start);
+        zipper.setTimestamp(start.plusDays(1));
+        alsoSmall.setTimestamp(start.plusDays(2));
+
+        reviewManager.addReview(small);
+        reviewManager.addReview(zipper);
+        reviewManager.addReview(alsoSmall);
+        reviewManager.addReview(noComment);
+
+        // AND query across products, newest first
+        assertEquals(List.of(alsoSmall.getComment(), small.getComment()),
+                comments(reviewManager.searchReviews("runs small", true, ReviewSortOrder.NEWEST_FIRST, 10)));
+
+        // AND query with a word that only appears in one review
+        assertEquals(List.of(zipper.getComment()),
+                comments(reviewManager.searchReviews("broken zipper", true, ReviewSortOrder.NEWEST_FIRST, 10)));
+        assertTrue(reviewManager.searchReviews("broken small", true, ReviewSortOrder.NEWEST_FIRST, 10).isEmpty());
+
+        // OR query ranked by rating, limited to 2 results
+        assertEquals(List.of(alsoSmall.getComment(), small.getComment()),
+                comments(reviewManager.searchReviews("zipper small", false, ReviewSortOrder.HIGHEST_RATED_FIRST, 2)));
+        assertEquals(3, reviewManager.searchReviews("zipper small", false, ReviewSortOrder.HIGHEST_RATED_FIRST, 10).size());
+    }
+
+    @Test
+    void testStoredReviewsAreMaterializedWithSharedReferences() {
+        LocalDateTime timestamp = LocalDateTime.of(2025, 6, 1, 12, 30, 15, 123_456_789);
+        Review first = new Review(sampleProduct, 4, sampleCustomer, "Great!", null);
+        Review second = new Review(sampleProduct, 5, sampleCustomer, "Great!", null);
+        first.setTimestamp(timestamp);
+        second.setTimestamp(timestamp);
+        reviewManager.addReview(first);
+        reviewManager.addReview(second);
+
+        List<Review> reviews = reviewManager.getReviewsForProduct(sampleProduct.getId());
+        Review a = reviews.get(0);
+        Review b = reviews.get(1);
+
+        // Customer and product are the original (shared) objects
+        assertSame(sampleCustomer, a.getCustomer());
+        assertSame(sampleProduct, b.getProduct());
+
+        // Repeated short comments are pooled
+        assertSame(a.getComment(), b.getComment());
+
+        // Ratings are kept, timestamps are stored with second precision
+        assertEquals(4, a.getRating());
+        assertEquals(timestamp.withNano(0), a.getTimestamp());
+    }
+
+    @Test
+    void testReviewsKeepTheirOwnCustomer() {
+        // Customers created without an ID all have ID 0
+        Customer other = new Customer();
+        other.setName("Tom");
+        reviewManager.addReview(new Review(sampleProduct, 4, sampleCustomer, "Nice", null));
+        reviewManager.addReview(new Review(sampleProduct, 2, other, "Meh", null));
+        assertEquals(sampleCustomer.getId(), other.getId());
+
+        List<Review> reviews = reviewManager.getReviewsForProduct(sampleProduct.getId());
+        assertSame(sampleCustomer, reviews.get(0).getCustomer());
+        assertSame(other, reviews.get(1).getCustomer());
+
+        // Later changes to the customer are visible
+        other.setName("Thomas");
+        assertEquals("Thomas", reviewManager.getReviewsForProduct(sampleProduct.getId()).get(1).getCustomer().getName());
+    }
+
+    // Helper: comments of a list of reviews, in order
+    private static List<String> comments(List<Review> reviews) {
+        return reviews.stream().map(Review::getComment).toList();
+    }
+
     @AfterEach
     void tearDown() {
         // Optional: cleanup if static/shared state is used later
     }
+
+    // Reads every page of the sample product's reviews in the given order
+    private List<String> allPages(ReviewSortOrder order) {
+        List<String> all = new ArrayList<>();
+        int cursor = ReviewPage.FIRST_PAGE;
+        ReviewPage page;
+        do {
+            page = reviewManager.getReviewsPage(sampleProduct.getId(), order, cursor, 97);
+            all.addAll(comments(page.getReviews()));
+            cursor = page.getNextCursor();
+        } while (page.hasMore());
+        return all;
+    }
+
+    private static List<String> expectedComments(List<Integer> indexes, Comparator<Integer> order) {
+        return indexes.stream().sorted(order).map(i -> "Review " + i).toList();
+    }
 }
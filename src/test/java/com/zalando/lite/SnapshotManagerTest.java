@@ -0,0 +1,190 @@
+package com.zalando.lite;
+
+import com.zalando.lite.customer.Customer;
+import com.zalando.lite.managerSystem.*;
+import com.zalando.lite.order.Order;
+import com.zalando.lite.order.OrderItem;
+import com.zalando.lite.persistence.WriteAheadLog;
+import com.zalando.lite.products.Product;
+import com.zalando.lite.review.Review;
+import com.zalando.lite.review.ReviewPage;
+import com.zalando.lite.review.ReviewSortOrder;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link SnapshotManager}.
+ * <p>
+ * These tests verify:
+ * - Customers, products (with size stock), orders and reviews survive a save/load round trip
+ * - New IDs do not collide with restored ones
+ * - Reviews by customers that are not registered keep their reviewer
+ * - Recovering the write-ahead log after loading replays only what the snapshot does not contain
+ * - Missing or foreign files are rejected without touching the managers
+ * <p>
+ * Concepts reinforced:
+ * - Binary file round trips
+ * - Temporary directories in tests
+ */
+public class SnapshotManagerTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void testSaveAndLoadRoundTrip() {
+        CustomerManager customers = new CustomerManager();
+        InventoryManager inventory = new InventoryManager();
+        OrderManager orders = new OrderManager(inventory);
+        ReviewManager reviews = new ReviewManager();
+
+        Customer linda = new Customer("Linda", "linda@gmx.de", true);
+        linda.setFavoriteCategories(List.of("shoes", "bags"));
+        customers.registerCustomer(linda);
+
+        Product shirt = new Product("Shirt", "clothing", 29.99, 10);
+        shirt.setClothingStock(Map.of(Product.CLOTH_SIZE.M, 6, Product.CLOTH_SIZE.L, 4));
+        Product boots = new Product("Boots", "shoes", 120.00, 3);
+        boots.setShoeStock(Map.of(Product.SHOE_SIZE.EU42, 3));
+        inventory.addProduct(shirt);
+        inventory.addProduct(boots);
+
+        Order order = orders.createOrder(linda, List.of(
+                new OrderItem(shirt, 2, Product.CLOTH_SIZE.M), new OrderItem(boots, 1, Product.SHOE_SIZE.EU42)));
+        reviews.addReview(new Review(boots, 5, linda, "Warm and comfy", LocalDateTime.of(2025, 6, 1, 12, 0)));
+        reviews.addReview(new Review(boots, 3, null, null, LocalDateTime.of(2025, 6, 2, 12, 0)));
+
+        Path file = dir.resolve("store.snapshot");
+        SnapshotManager source = new SnapshotManager(customers, inventory, orders, reviews);
+        assertTrue(source.save(file));
+
+        // Restore into fresh managers
+        CustomerManager restoredCustomers = new CustomerManager();
+        InventoryManager restoredInventory = new InventoryManager();
+        OrderManager restoredOrders = new OrderManager(restoredInventory);
+        ReviewManager restoredReviews = new ReviewManager();
+        SnapshotManager target = new SnapshotManager(restoredCustomers, restoredInventory, restoredOrders, restoredReviews);
+        assertTrue(target.load(file));
+
+        Customer customer = restoredCustomers.getCustomerById(linda.getId());
+        assertEquals("linda@gmx.de", customer.getEmail());
+        assertTrue(customer.isVip());
+        assertEquals(List.of("shoes", "bags"), customer.getFavoriteCategories());
+
+        Product restoredShirt = restoredInventory.findProductById(shirt.getId());
+        assertEquals("Shirt", restoredShirt.getName());
+        assertEquals(29.99, restoredShirt.getPrice());
+        assertEquals(8, restoredShirt.getStock());
+        assertEquals(4, restoredShirt.getClothingStock().get(Product.CLOTH_SIZE.M));
+        assertNull(restoredShirt.getShoeStock());
+        assertEquals(2, restoredInventory.findProductById(boots.getId()).getShoeStock().get(Product.SHOE_SIZE.EU42));
+
+        List<Order> restoredOrderList = restoredOrders.getOrdersForCustomer(linda.getId());
+        assertEquals(1, restoredOrderList.size());
+        assertEquals(order.getOrderId(), restoredOrderList.get(0).getOrderId());
+        assertEquals(2, restoredOrderList.get(0).getItems().size());
+        assertSame(customer, restoredOrderList.get(0).getCustomer());
+
+        assertEquals(2, restoredReviews.getReviewCount(boots.getId()));
+        assertEquals(4.0, restoredReviews.getAverageRating(boots.getId()));
+        assertEquals(1, restoredReviews.searchReviews("comfy", true, null, 10).size());
+
+        // New entities get IDs after the restored ones
+        assertTrue(new Product("Hat", "accessories", 9.99, 1).getId() > boots.getId());
+    }
+
+    @Test
+    void testReviewsByUnregisteredCustomersKeepTheirReviewer() {
+        InventoryManager inventory = new InventoryManager();
+        ReviewManager reviews = new ReviewManager();
+        Product scarf = new Product("Scarf", "accessories", 19.99, 5);
+        inventory.addProduct(scarf);
+
+        // Neither reviewer is registered; the guest reviews twice
+        Customer guest = new Customer("Guest", "guest@example.com", false);
+        Customer anonymous = new Customer();
+        reviews.addReview(new Review(scarf, 4, guest, "Soft", LocalDateTime.of(2025, 6, 1, 12, 0)));
+        reviews.addReview(new Review(scarf, 2, anonymous, "Itchy", LocalDateTime.of(2025, 6, 2, 12, 0)));
+        reviews.addReview(new Review(scarf, 5, guest, "Still soft", LocalDateTime.of(2025, 6, 3, 12, 0)));
+
+        Path file = dir.resolve("store.snapshot");
+        assertTrue(new SnapshotManager(new CustomerManager(), inventory, new OrderManager(inventory), reviews).save(file));
+
+        InventoryManager restoredInventory = new InventoryManager();
+        ReviewManager restoredReviews = new ReviewManager();
+        CustomerManager restoredCustomers = new CustomerManager();
+        assertTrue(new SnapshotManager(restoredCustomers, restoredInventory,
+                new OrderManager(restoredInventory), restoredReviews).load(file));
+
+        List<Review> restored = restoredReviews.getReviewsPage(scarf.getId(), ReviewSortOrder.NEWEST_FIRST,
+                ReviewPage.FIRST_PAGE, 10).getReviews();
+        assertEquals(3, restored.size());
+        assertEquals("Guest", restored.get(0).getCustomer().getName());
+        assertSame(restored.get(0).getCustomer(), restored.get(2).getCustomer(), "One reviewer object per customer.");
+        assertNotNull(restored.get(1).getCustomer());
+        assertEquals(anonymous.getId(), restored.get(1).getCustomer().getId());
+        assertTrue(restoredCustomers.getAllCustomers().isEmpty(), "Reviewers are not registered on load.");
+    }
+
+    @Test
+    void testRecoverAfterLoadReplaysOnlyNewOrders() {
+        Path file = dir.resolve("store.snapshot");
+        Path logFile = dir.resolve("orders.wal");
+
+        CustomerManager customers = new CustomerManager();
+        Customer tom = new Customer("Tom", "tom@web.de", false);
+        customers.registerCustomer(tom);
+        Product cap = new Product("Cap", "accessories", 15.00, 10);
+
+        try (WriteAheadLog log = new WriteAheadLog(logFile)) {
+            InventoryManager inventory = new InventoryManager(log);
+            OrderManager orders = new OrderManager(inventory, log);
+            inventory.addProduct(cap);
+
+            orders.createOrder(tom, List.of(new OrderItem(cap, 2)));
+            SnapshotManager snapshots = new SnapshotManager(customers, inventory, orders, new ReviewManager());
+            assertTrue(snapshots.save(file));
+            assertTrue(snapshots.getLogPosition() > 0);
+
+            // Written after the snapshot: only in the log
+            orders.createOrder(tom, List.of(new OrderItem(cap, 3)));
+            assertTrue(inventory.reduceStock(cap.getId(), 1));
+        }
+
+        // Restart: load the snapshot, then replay the rest of the log
+        CustomerManager restoredCustomers = new CustomerManager();
+        InventoryManager restoredInventory = new InventoryManager();
+        OrderManager restoredOrders = new OrderManager(restoredInventory);
+        SnapshotManager snapshots = new SnapshotManager(
+                restoredCustomers, restoredInventory, restoredOrders, new ReviewManager());
+        assertTrue(snapshots.load(file));
+        assertEquals(1, restoredOrders.recover(logFile, snapshots.getLogPosition(), restoredCustomers::getCustomerById));
+
+        List<Order> restored = restoredOrders.getOrdersForCustomer(tom.getId());
+        assertEquals(2, restored.size());
+        assertNotEquals(restored.get(0).getOrderId(), restored.get(1).getOrderId());
+        assertEquals(4, restoredInventory.findProductById(cap.getId()).getStock());
+    }
+
+    @Test
+    void testLoadRejectsMissingAndForeignFiles() throws IOException {
+        InventoryManager inventory = new InventoryManager();
+        SnapshotManager snapshots = new SnapshotManager(
+                new CustomerManager(), inventory, new OrderManager(inventory), new ReviewManager());
+
+        assertFalse(snapshots.load(dir.resolve("missing.snapshot")));
+
+        Path foreign = Files.writeString(dir.resolve("notes.txt"), "not a snapshot");
+        assertFalse(snapshots.load(foreign));
+        assertTrue(inventory.getAllProducts().isEmpty());
+    }
+}